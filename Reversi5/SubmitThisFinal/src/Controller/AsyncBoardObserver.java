@@ -0,0 +1,107 @@
+package Controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import model.BoardChange;
+
+/**
+ * Delivers board changes to an observer on its own executor instead of on the thread that
+ * changed the board. Changes which arrive while a delivery is still waiting to run are merged
+ * into it, so a slow observer is called once per burst and reads the latest state of the board
+ * when it runs, rather than falling behind one call per move. Changes which arrive while a
+ * delivery is running are left for one more delivery, scheduled once it returns, so the
+ * observer is never called from two threads at once, even on a pooled executor. A
+ * {@link BoardChangeObserver} is handed a burst of one change as that change; a longer burst is
+ * delivered as a single {@link BoardObserver#onBoardChanged()} refresh instead, so at most one
+ * change is ever held for it however far it falls behind.
+ */
+public class AsyncBoardObserver implements BoardChangeObserver {
+  private final BoardObserver delegate;
+  private final Executor executor;
+  private final AtomicBoolean pending = new AtomicBoolean();
+  private final AtomicReference<BoardChange> change = new AtomicReference<>();
+  private volatile boolean refresh;
+  private volatile boolean removed;
+
+  /**
+   * Constructs an asynchronous observer.
+   *
+   * @param delegate the observer to deliver changes to.
+   * @param executor the executor to call the observer on, for example
+   *                 {@code SwingUtilities::invokeLater} for a view.
+   */
+  public AsyncBoardObserver(BoardObserver delegate, Executor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  /**
+   * Gets the observer changes are delivered to.
+   *
+   * @return the wrapped observer.
+   */
+  public BoardObserver getDelegate() {
+    return this.delegate;
+  }
+
+  /**
+   * Stops any delivery which is still waiting to run.
+   */
+  public void remove() {
+    this.removed = true;
+  }
+
+  /**
+   * Schedules a delivery unless one is already waiting. This returns at once on the thread which
+   * changed the board.
+   */
+  @Override
+  public void onBoardChanged() {
+    this.refresh = true;
+    this.schedule();
+  }
+
+  /**
+   * Holds the change for an observer which takes changes, or asks for a refresh if a change is
+   * already held, and schedules a delivery unless one is already waiting.
+   */
+  @Override
+  public void onBoardChanged(BoardChange change) {
+    if (!(this.delegate instanceof BoardChangeObserver)
+            || !this.change.compareAndSet(null, change)) {
+      this.refresh = true;
+    }
+    this.schedule();
+  }
+
+  private void schedule() {
+    if (!this.removed && this.pending.compareAndSet(false, true)) {
+      this.executor.execute(this::deliver);
+    }
+  }
+
+  private void deliver() {
+    try {
+      if (this.removed) {
+        return;
+      }
+      BoardChange change = this.change.getAndSet(null);
+      if (this.refresh) {
+        // The observer reads the board as it is now, which already includes the held change.
+        this.refresh = false;
+        this.delegate.onBoardChanged();
+      } else if (change != null) {
+        ((BoardChangeObserver) this.delegate).onBoardChanged(change);
+      }
+    } finally {
+      // The flag stays set until the observer returns, so a change made during the call does
+      // not start a second delivery alongside this one; it is picked up by the next one here.
+      this.pending.set(false);
+      if (this.refresh || this.change.get() != null) {
+        this.schedule();
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package Controller;
+
+import model.BoardChange;
+
+/**
+ * A board observer which is told exactly what each move changed, so it can update in
+ * proportion to the change instead of re-reading the whole board.
+ */
+public interface BoardChangeObserver extends BoardObserver {
+
+  /**
+   * This function is called after each move with what the move changed. The plain
+   * {@link #onBoardChanged()} is still called when the board changed in some other way and has
+   * to be read again in full.
+   *
+   * @param change the cells the move placed and flipped.
+   */
+  void onBoardChanged(BoardChange change);
+}
@@ -0,0 +1,207 @@
+package Controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import model.BoardOwner;
+import model.BoardSnapshot;
+import model.Cell;
+import model.GameClock;
+import model.HexBoard;
+import model.HexCoordinate;
+import model.Player;
+import strategy.CancellationToken;
+import strategy.SearchInfo;
+import strategy.SearchLimit;
+import strategy.SearchListener;
+import strategy.StrategyFactory;
+
+/**
+ * Plays a bot's turns on a shared board. Whenever the owner publishes a snapshot on which it is
+ * the bot's turn, the scheduler searches a private copy of it on a background thread within a
+ * time limit, and plays the result through the owner only if the board has not moved on in the
+ * meantime. A newer snapshot, {@link #cancel()} and {@link #close()} all cancel a search which is
+ * no longer needed. The think time and queueing delay of each move are recorded.
+ */
+public final class BotTurnScheduler implements Consumer<BoardSnapshot>, AutoCloseable {
+  private final BoardOwner owner;
+  private final Cell color;
+  private final StrategyFactory factory;
+  private final long thinkMillis;
+  private final ExecutorService thread;
+  private final List<Turn> turns = new ArrayList<>();
+  private CancellationToken token = new CancellationToken();
+  private boolean closed;
+  private volatile GameClock clock;
+
+  /**
+   * The timing of one move played by the bot.
+   *
+   * @param version the version of the snapshot the bot moved on.
+   * @param move the move played, or null for a pass.
+   * @param queueNanos how long the search waited between the snapshot and starting.
+   * @param thinkNanos how long the search ran.
+   * @param nodes the number of positions the search visited.
+   */
+  public record Turn(long version, HexCoordinate move, long queueNanos, long thinkNanos,
+                     long nodes) {
+  }
+
+  /**
+   * Constructs a scheduler for one colour. It does nothing until {@link #start()} is called.
+   *
+   * @param owner the owner of the board to play on.
+   * @param color the colour the bot plays.
+   * @param factory the strategy the bot searches with.
+   * @param thinkMillis the time limit for each move, in milliseconds.
+   * @throws IllegalArgumentException if the colour is not BLACK or WHITE, or the time limit is
+   *                                  not positive.
+   */
+  public BotTurnScheduler(BoardOwner owner, Cell color, StrategyFactory factory,
+                          long thinkMillis) {
+    if (color == Cell.EMPTY) {
+      throw new IllegalArgumentException("Bot must play BLACK or WHITE");
+    }
+    if (thinkMillis <= 0) {
+      throw new IllegalArgumentException("Think time must be positive");
+    }
+    this.owner = owner;
+    this.color = color;
+    this.factory = factory;
+    this.thinkMillis = thinkMillis;
+    this.thread = Executors.newSingleThreadExecutor(task -> {
+      Thread bot = new Thread(task, "bot-" + color.name().toLowerCase());
+      bot.setDaemon(true);
+      return bot;
+    });
+  }
+
+  /**
+   * Budgets each move from a game clock instead of the fixed time limit.
+   *
+   * @param clock the clock of the game the bot plays, or null to use the fixed time limit.
+   */
+  public void useClock(GameClock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Starts playing, beginning with the current snapshot if it is already the bot's turn.
+   */
+  public void start() {
+    this.owner.addSnapshotListener(this);
+    this.accept(this.owner.snapshot());
+  }
+
+  /**
+   * Schedules a search if it is the bot's turn on a new snapshot. This runs on the owner's
+   * thread, so it only hands the search off.
+   *
+   * @param snapshot the snapshot just published.
+   */
+  @Override
+  public synchronized void accept(BoardSnapshot snapshot) {
+    if (this.closed) {
+      return;
+    }
+    this.token.cancel();
+    if (snapshot.getCurrentColor() != this.color) {
+      return;
+    }
+    CancellationToken token = new CancellationToken();
+    this.token = token;
+    long queued = System.nanoTime();
+    this.thread.execute(() -> this.think(snapshot, token, queued));
+  }
+
+  private void think(BoardSnapshot snapshot, CancellationToken token, long queued) {
+    if (token.isCancelled()) {
+      return;
+    }
+    long started = System.nanoTime();
+    HexBoard board = snapshot.toHexBoard();
+    Player player = board.getCurrentPlayer();
+    if (board.isGameOver()) {
+      return;
+    }
+    if (board.getAllValidMoves(player).isEmpty()) {
+      // getAllValidMoves only looks at the player to move, so switch sides to ask about the
+      // opponent. If neither side can move the game is over; otherwise the bot must pass.
+      board.switchPlayer();
+      boolean over = board.getAllValidMoves(board.getCurrentPlayer()).isEmpty();
+      board.switchPlayer();
+      if (!over) {
+        this.play(snapshot, null, queued, started, started, 0);
+      }
+      return;
+    }
+    GameClock clock = this.clock;
+    SearchLimit limit = SearchLimit.ofMillis(this.thinkMillis);
+    if (clock != null) {
+      int empty = 0;
+      for (Cell cell : board.board.values()) {
+        if (cell == Cell.EMPTY) {
+          ++empty;
+        }
+      }
+      // Each player fills about half of the cells which are left.
+      limit = SearchLimit.ofNanos(clock.budgetNanos(this.color, (empty + 1) / 2));
+    }
+    SearchInfo info = this.factory.create(board, player)
+            .search(limit, token, SearchListener.NONE);
+    long finished = System.nanoTime();
+    if (token.isCancelled()) {
+      return;
+    }
+    this.play(snapshot, info.getMove(), queued, started, finished, info.getNodes());
+  }
+
+  /**
+   * Plays a move, or a pass if it is null, on the snapshot it was chosen on, and records its
+   * timing once the owner has applied it.
+   */
+  private void play(BoardSnapshot snapshot, HexCoordinate move, long queued, long started,
+                    long finished, long nodes) {
+    this.owner.play(snapshot.getVersion(), move).thenRun(() -> {
+      synchronized (this) {
+        this.turns.add(new Turn(snapshot.getVersion(), move, started - queued,
+                finished - started, nodes));
+      }
+    });
+  }
+
+  /**
+   * Gets the timing of every move the bot has played so far.
+   *
+   * @return the moves in the order they were played.
+   */
+  public synchronized List<Turn> getTurns() {
+    return Collections.unmodifiableList(new ArrayList<>(this.turns));
+  }
+
+  /**
+   * Cancels the search in progress, for example when the game is reset. The bot moves again on
+   * the next snapshot where it is its turn.
+   */
+  public synchronized void cancel() {
+    this.token.cancel();
+  }
+
+  /**
+   * Cancels the search in progress and stops playing for good, for example when the window is
+   * closed.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+      this.token.cancel();
+    }
+    this.owner.removeSnapshotListener(this);
+    this.thread.shutdownNow();
+  }
+}
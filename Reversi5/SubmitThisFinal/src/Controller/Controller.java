@@ -10,6 +10,9 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 
+import javax.swing.SwingUtilities;
+
+import model.BoardOwner;
 import model.Cell;
 import model.HexBoard;
 import model.HexCoordinate;
@@ -26,6 +29,7 @@ public abstract class Controller implements MouseListener, KeyListener, IModelSt
   public boolean isCurrent;
   public Strategy strategy;
   private Cell playerColor;
+  private BoardOwner owner;
 
   public Controller(HexBoard model, Player player, Panel view) {
     this.model = model;
@@ -41,6 +45,16 @@ public abstract class Controller implements MouseListener, KeyListener, IModelSt
     this.isCurrent = false;
   }
 
+  /**
+   * Sets the owner of the model. From then on this controller queues its moves and passes with
+   * the owner instead of changing the model on the EDT.
+   *
+   * @param owner the model's owner.
+   */
+  public void setOwner(BoardOwner owner) {
+    this.owner = owner;
+  }
+
   public void changeCurrent() {
     isCurrent = !isCurrent;
   }
@@ -76,7 +90,11 @@ public abstract class Controller implements MouseListener, KeyListener, IModelSt
     }
     else {
       HexCoordinate hc = this.view.getHexCoordinateAt(e);
-      this.model.setCoordinateState(hc);
+      if (this.owner != null) {
+        this.owner.move(hc);
+      } else {
+        this.model.setCoordinateState(hc);
+      }
       this.view.mousePressed(e);
     }
   }
@@ -141,7 +159,11 @@ public abstract class Controller implements MouseListener, KeyListener, IModelSt
    */
   public void onPass() {
     changeCurrent();
-    this.model.switchPlayer();
+    if (this.owner != null) {
+      this.owner.pass();
+    } else {
+      this.model.pass();
+    }
   }
 
   /**
@@ -159,9 +181,18 @@ public abstract class Controller implements MouseListener, KeyListener, IModelSt
   public void onMove() {
     Hexagon hex = this.view.getHighlightedHex();
     HexCoordinate hc = hex.getHexCoordinate();
+    if (this.owner != null) {
+      // One command for the whole turn, made only on the position the player saw. The view is
+      // refreshed once the owner has applied it and published its snapshot.
+      this.owner.play(this.owner.snapshot().getVersion(), hc)
+              .thenRun(() -> SwingUtilities.invokeLater(() -> {
+                this.view.updateBoard();
+                changeCurrent();
+              }));
+      return;
+    }
+    // Placing the piece already gives the turn to the opponent.
     this.model.setCoordinateState(hc);
-    this.model.switchPlayer();
-    model.notifyObservers();
     this.view.updateBoard();
     changeCurrent();
   }
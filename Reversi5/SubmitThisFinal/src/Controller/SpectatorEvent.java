@@ -0,0 +1,75 @@
+package Controller;
+
+import model.BoardChange;
+import model.BoardSnapshot;
+
+/**
+ * One item sent to a spectator: the board after a change, with the move that made it when there
+ * was one. A spectator who fell behind is sent a catch-up event instead, which skips every event
+ * it missed and carries only the latest board.
+ */
+public final class SpectatorEvent {
+  private final long sequence;
+  private final BoardChange change;
+  private final BoardSnapshot snapshot;
+  private final boolean catchUp;
+
+  /**
+   * Constructs an event.
+   *
+   * @param sequence the position of the event in the game's stream of events.
+   * @param change the move which made the change, or null if it was not a single move.
+   * @param snapshot the board after the change.
+   * @param catchUp whether this event replaces the events before it.
+   */
+  SpectatorEvent(long sequence, BoardChange change, BoardSnapshot snapshot, boolean catchUp) {
+    this.sequence = sequence;
+    this.change = change;
+    this.snapshot = snapshot;
+    this.catchUp = catchUp;
+  }
+
+  /**
+   * Gets the position of the event in the game's stream. Events are numbered without gaps, so
+   * a spectator which sees a jump knows it has been caught up.
+   *
+   * @return the event sequence number.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Gets the move which made the change.
+   *
+   * @return the move, or null for a catch-up, a pass or any other change which was not one move.
+   */
+  public BoardChange getChange() {
+    return this.change;
+  }
+
+  /**
+   * Gets the board after the change.
+   *
+   * @return the snapshot of the board.
+   */
+  public BoardSnapshot getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Checks whether this event replaces the events before it, either because the spectator has
+   * just subscribed or because it fell too far behind.
+   *
+   * @return true if the spectator should redraw from the snapshot.
+   */
+  public boolean isCatchUp() {
+    return this.catchUp;
+  }
+
+  @Override
+  public String toString() {
+    return (this.catchUp ? "catch-up " : "event ") + this.sequence + " version "
+            + this.snapshot.getVersion();
+  }
+}
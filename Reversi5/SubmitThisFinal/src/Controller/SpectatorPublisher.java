@@ -0,0 +1,222 @@
+package Controller;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import model.BoardChange;
+import model.BoardOwner;
+import model.BoardSnapshot;
+
+/**
+ * Streams a game's changes to any number of spectators through {@link Flow}. The owner's thread
+ * only writes each event into a fixed ring and schedules one dispatch, whatever the number of
+ * spectators. Each spectator is then served on the executor at its own pace, as far as its
+ * demand allows. Nothing is buffered per spectator: one which falls a whole ring behind is sent
+ * a single catch-up event with the latest board and skips the rest.
+ */
+public final class SpectatorPublisher implements Flow.Publisher<SpectatorEvent>,
+        Consumer<BoardSnapshot>, AutoCloseable {
+  private final BoardOwner owner;
+  private final Executor executor;
+  private final SpectatorEvent[] ring;
+  private final int mask;
+  private final List<Spectator> spectators = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean dispatching = new AtomicBoolean();
+  private volatile long head;
+  private volatile boolean closed;
+  private BoardSnapshot previous;
+
+  /**
+   * Constructs a publisher for the game of a board owner and starts following it.
+   *
+   * @param owner the owner of the game's board.
+   * @param executor the executor spectators are served on.
+   * @param capacity how many events a spectator may fall behind before it is caught up; rounded
+   *                 up to a power of two.
+   * @throws IllegalArgumentException if the capacity is not positive.
+   */
+  public SpectatorPublisher(BoardOwner owner, Executor executor, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.owner = owner;
+    this.executor = executor;
+    this.ring = new SpectatorEvent[size];
+    this.mask = size - 1;
+    this.previous = owner.snapshot();
+    this.ring[0] = new SpectatorEvent(0, null, this.previous, true);
+    this.head = 0;
+    owner.addSnapshotListener(this);
+  }
+
+  /**
+   * Publishes a new snapshot. This runs on the owner's thread and takes the same time however
+   * many spectators there are.
+   *
+   * @param snapshot the snapshot just published by the owner.
+   */
+  @Override
+  public void accept(BoardSnapshot snapshot) {
+    BoardChange change = snapshot.getLastChange();
+    if (change == this.previous.getLastChange()) {
+      change = null;
+    }
+    this.previous = snapshot;
+    long sequence = this.head + 1;
+    this.ring[(int) (sequence & this.mask)] = new SpectatorEvent(sequence, change, snapshot,
+            false);
+    this.head = sequence;
+    this.dispatch();
+  }
+
+  private void dispatch() {
+    if (this.dispatching.compareAndSet(false, true)) {
+      this.executor.execute(() -> {
+        this.dispatching.set(false);
+        for (Spectator spectator : this.spectators) {
+          spectator.schedule();
+        }
+      });
+    }
+  }
+
+  /**
+   * Adds a spectator. Its first event is a catch-up with the current board.
+   *
+   * @param subscriber the spectator.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super SpectatorEvent> subscriber) {
+    Spectator spectator = new Spectator(subscriber, this.head);
+    this.spectators.add(spectator);
+    subscriber.onSubscribe(spectator);
+    if (this.closed) {
+      spectator.schedule();
+    }
+  }
+
+  /**
+   * Gets the number of spectators.
+   *
+   * @return the number of subscribers which have not cancelled.
+   */
+  public int getSpectatorCount() {
+    return this.spectators.size();
+  }
+
+  /**
+   * Stops following the game. Each spectator is sent what its demand allows and then completed.
+   */
+  @Override
+  public void close() {
+    this.owner.removeSnapshotListener(this);
+    this.closed = true;
+    for (Spectator spectator : this.spectators) {
+      spectator.schedule();
+    }
+  }
+
+  /**
+   * One spectator's place in the stream. Its events are sent one at a time by whichever executor
+   * thread holds its flag, so the subscriber is never called concurrently.
+   */
+  private final class Spectator implements Flow.Subscription {
+    private final Flow.Subscriber<? super SpectatorEvent> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private long next;
+    private boolean caughtUp;
+    private Throwable failure;
+
+    private Spectator(Flow.Subscriber<? super SpectatorEvent> subscriber, long start) {
+      this.subscriber = subscriber;
+      this.next = start;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.failure = new IllegalArgumentException("Demand must be positive");
+      } else {
+        this.demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+      }
+      this.schedule();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      SpectatorPublisher.this.spectators.remove(this);
+    }
+
+    private void schedule() {
+      if (!this.cancelled && this.running.compareAndSet(false, true)) {
+        SpectatorPublisher.this.executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        if (this.failure != null) {
+          this.cancel();
+          this.subscriber.onError(this.failure);
+          return;
+        }
+        while (!this.cancelled && this.demand.get() > 0) {
+          SpectatorEvent event = this.take();
+          if (event == null) {
+            break;
+          }
+          this.demand.decrementAndGet();
+          this.subscriber.onNext(event);
+        }
+        if (!this.cancelled && SpectatorPublisher.this.closed
+                && this.next > SpectatorPublisher.this.head) {
+          this.cancel();
+          this.subscriber.onComplete();
+        }
+      } catch (RuntimeException e) {
+        this.cancel();
+        this.subscriber.onError(e);
+      } finally {
+        this.running.set(false);
+        // Demand or events which arrived after the last check are still served.
+        if (this.failure != null || this.demand.get() > 0
+                && (this.next <= SpectatorPublisher.this.head || SpectatorPublisher.this.closed)) {
+          this.schedule();
+        }
+      }
+    }
+
+    /**
+     * Takes the next event, or a catch-up if the spectator is new or the event it needs has
+     * already been overwritten.
+     */
+    private SpectatorEvent take() {
+      SpectatorEvent[] ring = SpectatorPublisher.this.ring;
+      int mask = SpectatorPublisher.this.mask;
+      long head = SpectatorPublisher.this.head;
+      if (this.next > head) {
+        return null;
+      }
+      SpectatorEvent event = null;
+      if (this.caughtUp && head - this.next < ring.length) {
+        event = ring[(int) (this.next & mask)];
+      }
+      if (event == null || event.getSequence() != this.next) {
+        SpectatorEvent latest = ring[(int) (head & mask)];
+        event = new SpectatorEvent(latest.getSequence(), null, latest.getSnapshot(), true);
+        this.caughtUp = true;
+      }
+      this.next = event.getSequence() + 1;
+      return event;
+    }
+  }
+}
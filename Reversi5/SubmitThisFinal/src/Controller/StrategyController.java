@@ -1,7 +1,10 @@
 package Controller;
 
+import model.BoardOwner;
+import model.Cell;
 import model.HexBoard;
 import strategy.Strategy;
+import strategy.StrategyFactory;
 import view.Panel;
 
 /**
@@ -23,4 +26,22 @@ public class StrategyController extends Controller {
   public StrategyController(HexBoard model, Strategy strategy, Panel view) {
     super(model, strategy, view);
   }
+
+  /**
+   * Starts playing a colour on a shared board. The stored strategy is bound to the live model,
+   * so the bot searches with a fresh strategy from the factory on a copy of each snapshot instead.
+   *
+   * @param owner       The owner of the model.
+   * @param color       The colour the bot plays.
+   * @param factory     The strategy to search with.
+   * @param thinkMillis The time limit for each move, in milliseconds.
+   * @return The scheduler, which should be closed when the game's window closes.
+   */
+  public BotTurnScheduler startBot(BoardOwner owner, Cell color, StrategyFactory factory,
+                                   long thinkMillis) {
+    this.setOwner(owner);
+    BotTurnScheduler scheduler = new BotTurnScheduler(owner, color, factory, thinkMillis);
+    scheduler.start();
+    return scheduler;
+  }
 }
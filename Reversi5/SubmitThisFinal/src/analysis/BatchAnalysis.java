@@ -0,0 +1,223 @@
+package analysis;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+
+import model.GameRecord;
+
+/**
+ * Analyses a stream of finished games and writes an evaluation of every move. Games are read one
+ * line at a time, either as {@link GameRecord} lines or as tournament result lines whose last
+ * field is the record. Each game is analysed on a fork-join pool, one task per position, and the
+ * results go through a bounded queue to a single writer thread. At most a fixed number of games
+ * are between the reader and the writer at once, so memory stays flat however long the input.
+ */
+public final class BatchAnalysis {
+  private static final Result END = new Result(0, null, null);
+
+  private final GameAnalyzer analyzer;
+  private final int threads;
+  private final int blunder;
+  private long games;
+  private long moves;
+  private long blunders;
+  private long errors;
+
+  /**
+   * One analysed game, or the reason it could not be analysed.
+   */
+  private record Result(long game, List<MoveEvaluation> evaluations, String error) {
+  }
+
+  /**
+   * Constructs a batch analysis.
+   *
+   * @param analyzer the analyzer to evaluate each move with.
+   * @param threads the number of threads to analyse on.
+   * @param blunder the smallest loss which flags a move as a blunder.
+   * @throws IllegalArgumentException if the thread count is not positive.
+   */
+  public BatchAnalysis(GameAnalyzer analyzer, int threads, int blunder) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.analyzer = analyzer;
+    this.threads = threads;
+    this.blunder = blunder;
+  }
+
+  /**
+   * Analyses every game in the input and writes one tab separated line per move: the game's
+   * line number, the {@link MoveEvaluation} fields and "blunder" or "-". A game which cannot be
+   * read or replayed is written as a comment line instead.
+   *
+   * @param in the games to analyse.
+   * @param out where to write the evaluations.
+   * @throws IOException if the input cannot be read or the output cannot be written.
+   * @throws InterruptedException if interrupted while waiting for the analysis.
+   */
+  public void run(BufferedReader in, Writer out) throws IOException, InterruptedException {
+    int window = this.threads * 2;
+    Semaphore inFlight = new Semaphore(window);
+    BlockingQueue<Result> results = new ArrayBlockingQueue<>(window + 1);
+    ForkJoinPool pool = new ForkJoinPool(this.threads);
+    IOException[] failure = new IOException[1];
+
+    out.write("# game\tply\tmover\tplayed\tscore\tbest\tbest score\tloss\tdepth\tflag\n");
+    Thread writer = new Thread(() -> {
+      try {
+        for (Result result = results.take(); result != END; result = results.take()) {
+          if (failure[0] == null) {
+            try {
+              this.write(result, out);
+            } catch (IOException e) {
+              failure[0] = e;
+            }
+          }
+          inFlight.release();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "analysis-writer");
+    writer.start();
+
+    try {
+      long lineNumber = 0;
+      for (String line = in.readLine(); line != null && failure[0] == null;
+           line = in.readLine()) {
+        long game = ++lineNumber;
+        String text = line.substring(line.lastIndexOf('\t') + 1).trim();
+        if (text.isEmpty() || text.startsWith("#")) {
+          continue;
+        }
+        inFlight.acquire();
+        GameRecord record;
+        try {
+          record = GameRecord.parse(text);
+        } catch (IllegalArgumentException e) {
+          results.put(new Result(game, null, e.getMessage()));
+          continue;
+        }
+        pool.execute(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            Result result;
+            try {
+              result = new Result(game, BatchAnalysis.this.analyzer.task(record).invoke(), null);
+            } catch (RuntimeException e) {
+              result = new Result(game, null, e.getMessage());
+            }
+            // The queue has room for every game in flight, so this never waits.
+            results.add(result);
+          }
+        });
+      }
+      inFlight.acquire(window);
+      results.put(END);
+      writer.join();
+    } finally {
+      pool.shutdownNow();
+      writer.interrupt();
+    }
+    out.flush();
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+  }
+
+  private void write(Result result, Writer out) throws IOException {
+    ++this.games;
+    if (result.error() != null) {
+      ++this.errors;
+      out.write("# game " + result.game() + ": " + result.error() + "\n");
+      return;
+    }
+    StringBuilder lines = new StringBuilder();
+    for (MoveEvaluation evaluation : result.evaluations()) {
+      boolean isBlunder = evaluation.isBlunder(this.blunder);
+      ++this.moves;
+      if (isBlunder) {
+        ++this.blunders;
+      }
+      lines.append(result.game()).append('\t').append(evaluation).append('\t')
+              .append(isBlunder ? "blunder" : "-").append('\n');
+    }
+    out.write(lines.toString());
+  }
+
+  /**
+   * Analyses games from the command line.
+   * <pre>
+   *   BatchAnalysis [--depth 3] [--millis 0] [--threads N] [--blunder 4]
+   *                 [--in games.txt] [--out analysis.tsv]
+   * </pre>
+   * The input defaults to standard input and the output to standard output. A summary is printed
+   * to standard error.
+   *
+   * @param args the command line arguments described above.
+   * @throws IOException if the input or output fails.
+   * @throws InterruptedException if interrupted while the games are analysed.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int depth = 3;
+    long millis = 0;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int blunder = 4;
+    String inPath = null;
+    String outPath = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--depth":
+          depth = Integer.parseInt(value);
+          break;
+        case "--millis":
+          millis = Long.parseLong(value);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(value);
+          break;
+        case "--blunder":
+          blunder = Integer.parseInt(value);
+          break;
+        case "--in":
+          inPath = value;
+          break;
+        case "--out":
+          outPath = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    BatchAnalysis analysis = new BatchAnalysis(new GameAnalyzer(depth, millis), threads, blunder);
+    long start = System.nanoTime();
+    try (BufferedReader in = inPath == null
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Paths.get(inPath));
+         Writer out = outPath == null
+                 ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                 : Files.newBufferedWriter(Paths.get(outPath))) {
+      analysis.run(in, out);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.err.printf("%d games, %d moves, %d blunders, %d errors in %.2f s (%.0f moves/s)%n",
+            analysis.games, analysis.moves, analysis.blunders, analysis.errors, seconds,
+            analysis.moves / seconds);
+  }
+}
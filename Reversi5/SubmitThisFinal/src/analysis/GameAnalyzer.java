@@ -0,0 +1,109 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+import strategy.CancellationToken;
+import strategy.MinimaxStrategy;
+import strategy.SearchInfo;
+import strategy.SearchLimit;
+import strategy.SearchListener;
+
+/**
+ * Evaluates every move of a game with a {@link MinimaxStrategy} search. The best move is searched
+ * to the configured depth, and the move played is scored by searching the position after it one
+ * ply shallower, so with no time limit the two scores are exactly comparable.
+ */
+public final class GameAnalyzer {
+  private final int depth;
+  private final long millis;
+
+  /**
+   * Constructs an analyzer.
+   *
+   * @param depth the depth to search each position to.
+   * @param millis the most time to spend on each search, in milliseconds, or 0 for no limit.
+   * @throws IllegalArgumentException if the depth is not positive or the time is negative.
+   */
+  public GameAnalyzer(int depth, long millis) {
+    if (depth <= 0 || millis < 0) {
+      throw new IllegalArgumentException("Analysis limit is invalid");
+    }
+    this.depth = depth;
+    this.millis = millis;
+  }
+
+  private SearchInfo search(HexBoard board, int depth) {
+    SearchLimit limit = this.millis == 0 ? SearchLimit.infinite()
+            : SearchLimit.ofMillis(this.millis);
+    return new MinimaxStrategy(board, board.getCurrentPlayer())
+            .search(limit.withMaxDepth(depth), new CancellationToken(), SearchListener.NONE);
+  }
+
+  /**
+   * Evaluates one move.
+   *
+   * @param board the position before the move, which is left unchanged.
+   * @param ply the number of moves played before this one.
+   * @param played the move played, or null for a pass.
+   * @return the evaluation of the move.
+   * @throws IllegalStateException if the move is not valid.
+   */
+  public MoveEvaluation evaluate(HexBoard board, int ply, HexCoordinate played) {
+    SearchInfo best = this.search(board, this.depth);
+    long nodes = best.getNodes();
+    int playedScore = best.getScore();
+    if (played != null && !played.equals(best.getMove())) {
+      HexBoard after = new HexBoard(board);
+      GameRecord.play(after, played);
+      if (this.depth == 1) {
+        playedScore = -MinimaxStrategy.evaluate(after);
+      } else {
+        SearchInfo reply = this.search(after, this.depth - 1);
+        playedScore = -reply.getScore();
+        nodes += reply.getNodes();
+      }
+    }
+    return new MoveEvaluation(ply, board.getCurrentPlayer().getColor(), played, playedScore,
+            best.getMove(), best.getScore(), best.getDepth(), nodes);
+  }
+
+  /**
+   * Makes a task which evaluates every move of a game. Each position is forked as a task of its
+   * own, so idle threads of a fork-join pool steal positions from long games.
+   *
+   * @param record the game to analyse.
+   * @return the task, whose result is the evaluations in the order of the moves.
+   */
+  public RecursiveTask<List<MoveEvaluation>> task(GameRecord record) {
+    return new RecursiveTask<>() {
+      @Override
+      protected List<MoveEvaluation> compute() {
+        List<RecursiveTask<MoveEvaluation>> positions = new ArrayList<>();
+        HexBoard board = new HexBoard(record.getRadius());
+        int ply = 0;
+        for (HexCoordinate move : record.getMoves()) {
+          HexBoard before = new HexBoard(board);
+          int at = ply++;
+          positions.add(new RecursiveTask<>() {
+            @Override
+            protected MoveEvaluation compute() {
+              return GameAnalyzer.this.evaluate(before, at, move);
+            }
+          });
+          GameRecord.play(board, move);
+        }
+        invokeAll(positions);
+        List<MoveEvaluation> evaluations = new ArrayList<>(positions.size());
+        for (RecursiveTask<MoveEvaluation> position : positions) {
+          evaluations.add(position.join());
+        }
+        return evaluations;
+      }
+    };
+  }
+}
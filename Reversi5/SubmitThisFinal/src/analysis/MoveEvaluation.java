@@ -0,0 +1,57 @@
+package analysis;
+
+import model.Cell;
+import model.HexCoordinate;
+
+/**
+ * The evaluation of one move of a game: the score of the move that was played against the score
+ * of the best move the search found, both from the mover's point of view.
+ *
+ * @param ply the number of moves played before this one, counting passes.
+ * @param mover the colour which moved.
+ * @param played the move played, or null for a pass.
+ * @param playedScore the score of the move played.
+ * @param best the best move found, or null if the mover had to pass.
+ * @param bestScore the score of the best move.
+ * @param depth the depth the best move was searched to.
+ * @param nodes the number of positions visited for this move.
+ */
+public record MoveEvaluation(int ply, Cell mover, HexCoordinate played, int playedScore,
+                             HexCoordinate best, int bestScore, int depth, long nodes) {
+
+  /**
+   * Gets how much worse the move played was than the best move.
+   *
+   * @return the score lost, never negative.
+   */
+  public int getLoss() {
+    return Math.max(0, this.bestScore - this.playedScore);
+  }
+
+  /**
+   * Checks whether the move lost at least the given score.
+   *
+   * @param threshold the smallest loss which counts as a blunder.
+   * @return true if the move is a blunder.
+   */
+  public boolean isBlunder(int threshold) {
+    return this.getLoss() >= threshold;
+  }
+
+  /**
+   * Writes the evaluation as tab separated fields: ply, mover, move played, its score, best
+   * move, its score, loss and depth.
+   *
+   * @return the fields of the evaluation.
+   */
+  @Override
+  public String toString() {
+    return this.ply + "\t" + this.mover.name() + "\t" + label(this.played) + "\t"
+            + this.playedScore + "\t" + label(this.best) + "\t" + this.bestScore + "\t"
+            + this.getLoss() + "\t" + this.depth;
+  }
+
+  private static String label(HexCoordinate move) {
+    return move == null ? "pass" : move.getY() + "," + move.getP() + "," + move.getN();
+  }
+}
@@ -0,0 +1,120 @@
+package archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import model.CellIndex;
+import model.GameRecord;
+import model.HexCoordinate;
+
+/**
+ * The layout of a game archive. An archive is two files next to each other:
+ * <pre>
+ *   name.dat  header, then one record per game:
+ *             varint radius, varint move count, varint per move (cell id + 1, or 0 to pass)
+ *   name.idx  header, then one 16 byte entry per game, in id order:
+ *             long offset of the record, int length, int CRC-32 of the record
+ * </pre>
+ * Each header is a magic int and a version int. A game's id is the number of its index entry,
+ * so finding a game is one fixed-width read.
+ */
+final class ArchiveFormat {
+  static final int DATA_MAGIC = 0x48584152;
+  static final int INDEX_MAGIC = 0x48584958;
+  static final int VERSION = 1;
+  static final int HEADER = 8;
+  static final int ENTRY = 16;
+
+  /**
+   * The longest record, so that any record starting in a mapped segment ends in it too.
+   */
+  static final int MAX_RECORD = 1 << 20;
+
+  private ArchiveFormat() {
+  }
+
+  static Path dataPath(Path base) {
+    return base.resolveSibling(base.getFileName() + ".dat");
+  }
+
+  static Path indexPath(Path base) {
+    return base.resolveSibling(base.getFileName() + ".idx");
+  }
+
+  /**
+   * Writes a header at the start of an empty file.
+   */
+  static void writeHeader(FileChannel channel, int magic) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(magic).putInt(VERSION);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+  }
+
+  /**
+   * Checks the header of a file.
+   *
+   * @throws IOException if the file is not part of an archive of this version.
+   */
+  static void checkHeader(FileChannel channel, int magic, Path path) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER);
+    while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+      continue;
+    }
+    header.flip();
+    if (header.remaining() < HEADER || header.getInt() != magic || header.getInt() != VERSION) {
+      throw new IOException("Not a game archive: " + path);
+    }
+  }
+
+  /**
+   * Encodes a game as one record.
+   */
+  static byte[] encode(GameRecord record) {
+    CellIndex index = CellIndex.of(record.getRadius());
+    ByteArrayOutputStream out = new ByteArrayOutputStream(16 + record.getMoves().size() * 2);
+    putVarInt(out, record.getRadius());
+    putVarInt(out, record.getMoves().size());
+    for (HexCoordinate move : record.getMoves()) {
+      if (move == null) {
+        putVarInt(out, 0);
+      } else {
+        int id = index.indexOf(move);
+        if (id < 0) {
+          throw new IllegalArgumentException("Move is not on the board: " + move);
+        }
+        putVarInt(out, id + 1);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static void putVarInt(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /**
+   * Reads a varint at the buffer's position and moves past it.
+   *
+   * @throws IllegalArgumentException if the varint is longer than an int.
+   */
+  static int getVarInt(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint is too long");
+  }
+}
@@ -0,0 +1,230 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import model.CellIndex;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * Reads an archive through memory-mapped files. Opening maps the files without reading them, so
+ * it takes the same time for any size of archive, and a game is found with one index lookup and
+ * decoded straight from the mapped data. The reader sees the games which were synced when it was
+ * opened. It may be shared between threads.
+ */
+public final class ArchiveReader implements AutoCloseable {
+  private final FileChannel dataChannel;
+  private final FileChannel indexChannel;
+  private final MappedSegments data;
+  private final MappedSegments index;
+  private final long count;
+
+  /**
+   * Opens an archive for reading.
+   *
+   * @param base the path of the archive without its extension.
+   * @throws IOException if the files cannot be opened or are not an archive.
+   */
+  public ArchiveReader(Path base) throws IOException {
+    this.dataChannel = FileChannel.open(ArchiveFormat.dataPath(base), StandardOpenOption.READ);
+    this.indexChannel = FileChannel.open(ArchiveFormat.indexPath(base), StandardOpenOption.READ);
+    try {
+      ArchiveFormat.checkHeader(this.dataChannel, ArchiveFormat.DATA_MAGIC, base);
+      ArchiveFormat.checkHeader(this.indexChannel, ArchiveFormat.INDEX_MAGIC, base);
+      long entries = (this.indexChannel.size() - ArchiveFormat.HEADER) / ArchiveFormat.ENTRY;
+      this.index = new MappedSegments(this.indexChannel,
+              ArchiveFormat.HEADER + entries * ArchiveFormat.ENTRY, ArchiveFormat.ENTRY);
+      this.data = new MappedSegments(this.dataChannel, this.dataChannel.size(),
+              ArchiveFormat.MAX_RECORD);
+      this.count = entries;
+    } catch (IOException e) {
+      this.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the number of games in the archive.
+   *
+   * @return the number of games, whose ids run from 0.
+   */
+  public long size() {
+    return this.count;
+  }
+
+  private long entry(long id) {
+    if (id < 0 || id >= this.count) {
+      throw new IllegalArgumentException("No game with id " + id);
+    }
+    return ArchiveFormat.HEADER + id * ArchiveFormat.ENTRY;
+  }
+
+  /**
+   * Gets the bytes of a game's record, as a view of the mapped data.
+   *
+   * @param id the id of the game.
+   * @return the record, from its position to its limit.
+   * @throws IllegalArgumentException if there is no game with that id.
+   */
+  ByteBuffer record(long id) {
+    long entry = this.entry(id);
+    long offset = this.index.getLong(entry);
+    int length = this.index.getInt(entry + 8);
+    if (offset < ArchiveFormat.HEADER || length > ArchiveFormat.MAX_RECORD
+            || offset + length > this.data.size()) {
+      throw new IllegalStateException("Index entry " + id + " is out of range");
+    }
+    return this.data.slice(offset, length);
+  }
+
+  /**
+   * Gets where a game's record starts in the data file.
+   *
+   * @param id the id of the game.
+   * @return the offset of the record.
+   */
+  long indexOffset(long id) {
+    return this.index.getLong(this.entry(id));
+  }
+
+  /**
+   * Gets the size of the data file when the archive was opened.
+   *
+   * @return the size in bytes.
+   */
+  long dataSize() {
+    return this.data.size();
+  }
+
+  /**
+   * Gets the checksum stored for a game.
+   *
+   * @param id the id of the game.
+   * @return the CRC-32 of its record.
+   */
+  int checksum(long id) {
+    return this.index.getInt(this.entry(id) + 12);
+  }
+
+  /**
+   * Gets the number of moves in a game, without decoding them.
+   *
+   * @param id the id of the game.
+   * @return the number of moves, counting passes.
+   * @throws IllegalArgumentException if there is no game with that id.
+   */
+  public int getMoveCount(long id) {
+    ByteBuffer record = this.record(id);
+    ArchiveFormat.getVarInt(record);
+    return ArchiveFormat.getVarInt(record);
+  }
+
+  /**
+   * Reads a game.
+   *
+   * @param id the id of the game.
+   * @return the game's record.
+   * @throws IllegalArgumentException if there is no game with that id.
+   */
+  public GameRecord read(long id) {
+    ByteBuffer record = this.record(id);
+    int radius = ArchiveFormat.getVarInt(record);
+    CellIndex cells = CellIndex.of(radius);
+    int moves = ArchiveFormat.getVarInt(record);
+    List<HexCoordinate> list = new ArrayList<>(moves);
+    for (int i = 0; i < moves; ++i) {
+      int cell = ArchiveFormat.getVarInt(record);
+      list.add(cell == 0 ? null : cells.coordinate(cell - 1));
+    }
+    return new GameRecord(radius, list);
+  }
+
+  /**
+   * Replays a game onto a new board, decoding each move from the mapped data as it is played.
+   *
+   * @param id the id of the game.
+   * @return the board after the game's last move.
+   * @throws IllegalArgumentException if there is no game with that id.
+   * @throws IllegalStateException if a move in the game is not valid.
+   */
+  public HexBoard replay(long id) {
+    ByteBuffer record = this.record(id);
+    int radius = ArchiveFormat.getVarInt(record);
+    CellIndex cells = CellIndex.of(radius);
+    HexBoard board = new HexBoard(radius);
+    for (int moves = ArchiveFormat.getVarInt(record); moves > 0; --moves) {
+      int cell = ArchiveFormat.getVarInt(record);
+      GameRecord.play(board, cell == 0 ? null : cells.coordinate(cell - 1));
+    }
+    return board;
+  }
+
+  /**
+   * Reads every game in id order. The data is read front to back, so the operating system can
+   * read ahead.
+   *
+   * @param action given each game and its id.
+   */
+  public void forEach(ObjLongConsumer<GameRecord> action) {
+    for (long id = 0; id < this.count; ++id) {
+      action.accept(this.read(id), id);
+    }
+  }
+
+  /**
+   * Closes the files. The mappings stay valid until they are garbage collected, so views handed
+   * out before closing can still be read.
+   *
+   * @throws IOException if a file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.dataChannel.close();
+    } finally {
+      this.indexChannel.close();
+    }
+  }
+
+  /**
+   * Prints games from an archive, or times a scan of the whole archive.
+   * <pre>
+   *   ArchiveReader archive [id ...]
+   * </pre>
+   *
+   * @param args the archive path without extension, then the ids of games to print.
+   * @throws IOException if the archive cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: ArchiveReader archive [id ...]");
+      return;
+    }
+    long start = System.nanoTime();
+    try (ArchiveReader reader = new ArchiveReader(Paths.get(args[0]))) {
+      System.out.printf("Opened %d games in %.3f ms%n", reader.size(),
+              (System.nanoTime() - start) / 1e6);
+      if (args.length > 1) {
+        for (int i = 1; i < args.length; ++i) {
+          System.out.println(reader.read(Long.parseLong(args[i])));
+        }
+        return;
+      }
+      long[] moves = new long[1];
+      start = System.nanoTime();
+      reader.forEach((record, id) -> moves[0] += record.getMoves().size());
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("Scanned %d games, %d moves in %.2f s (%.0f games/s)%n", reader.size(),
+              moves[0], seconds, reader.size() / seconds);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Checks an archive from end to end: that the records follow each other with no gaps, that each
+ * matches its checksum, and that each decodes to a game which can be replayed. Nothing is
+ * changed, so it is safe to run on an archive which is being appended to.
+ */
+public final class ArchiveVerifier {
+  private static final int MAX_PROBLEMS = 100;
+
+  private ArchiveVerifier() {
+  }
+
+  /**
+   * Verifies an archive.
+   *
+   * @param base the path of the archive without its extension.
+   * @return a description of each problem found, at most 100, or an empty list if there are none.
+   * @throws IOException if the archive cannot be opened.
+   */
+  public static List<String> verify(Path base) throws IOException {
+    List<String> problems = new ArrayList<>();
+    try (ArchiveReader reader = new ArchiveReader(base)) {
+      long expected = ArchiveFormat.HEADER;
+      CRC32 crc = new CRC32();
+      for (long id = 0; id < reader.size() && problems.size() < MAX_PROBLEMS; ++id) {
+        ByteBuffer record;
+        try {
+          record = reader.record(id);
+        } catch (IllegalStateException e) {
+          problems.add("Game " + id + ": " + e.getMessage());
+          continue;
+        }
+        long offset = reader.indexOffset(id);
+        if (offset != expected) {
+          problems.add("Game " + id + ": starts at " + offset + ", expected " + expected);
+        }
+        expected = offset + record.remaining();
+        crc.reset();
+        crc.update(record.duplicate());
+        if ((int) crc.getValue() != reader.checksum(id)) {
+          problems.add("Game " + id + ": checksum does not match");
+          continue;
+        }
+        try {
+          reader.replay(id);
+        } catch (RuntimeException e) {
+          problems.add("Game " + id + ": " + e.getMessage());
+        }
+      }
+      long trailing = reader.dataSize() - expected;
+      if (trailing > 0 && problems.size() < MAX_PROBLEMS) {
+        problems.add(trailing + " bytes after the last indexed game");
+      }
+    }
+    return problems;
+  }
+
+  /**
+   * Verifies an archive from the command line and exits with status 1 if it has problems.
+   * <pre>
+   *   ArchiveVerifier archive
+   * </pre>
+   *
+   * @param args the archive path without extension.
+   * @throws IOException if the archive cannot be opened.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: ArchiveVerifier archive");
+      return;
+    }
+    long start = System.nanoTime();
+    List<String> problems = verify(Paths.get(args[0]));
+    problems.forEach(System.out::println);
+    System.out.printf("%s in %.2f s%n", problems.isEmpty() ? "OK" : problems.size() + " problems",
+            (System.nanoTime() - start) / 1e9);
+    if (!problems.isEmpty()) {
+      System.exit(1);
+    }
+  }
+}
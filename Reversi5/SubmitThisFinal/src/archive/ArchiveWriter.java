@@ -0,0 +1,184 @@
+package archive;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import model.GameRecord;
+
+/**
+ * Appends games to an archive. Records are written to the data file as they are appended, but
+ * their index entries are only written by {@link #sync()}, after the data has been forced to
+ * disk. An index entry therefore never points at data which might be lost, and readers never see
+ * a game before it is durable. Opening an archive drops any data written after the last indexed
+ * game, so a crash part way through an append leaves the archive as it was before.
+ */
+public final class ArchiveWriter implements AutoCloseable {
+  private final FileChannel data;
+  private final FileChannel index;
+  private final ByteBuffer pending = ByteBuffer.allocate(ArchiveFormat.ENTRY * 1024);
+  private long dataEnd;
+  private long count;
+
+  /**
+   * Opens an archive for appending, creating it if it does not exist.
+   *
+   * @param base the path of the archive without its extension.
+   * @throws IOException if the files cannot be opened or are not an archive.
+   */
+  public ArchiveWriter(Path base) throws IOException {
+    this.data = FileChannel.open(ArchiveFormat.dataPath(base), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.index = FileChannel.open(ArchiveFormat.indexPath(base), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      this.recover(base);
+    } catch (IOException e) {
+      this.data.close();
+      this.index.close();
+      throw e;
+    }
+  }
+
+  private void recover(Path base) throws IOException {
+    if (this.data.size() == 0 && this.index.size() == 0) {
+      ArchiveFormat.writeHeader(this.data, ArchiveFormat.DATA_MAGIC);
+      ArchiveFormat.writeHeader(this.index, ArchiveFormat.INDEX_MAGIC);
+      this.data.force(true);
+      this.index.force(true);
+    }
+    ArchiveFormat.checkHeader(this.data, ArchiveFormat.DATA_MAGIC, base);
+    ArchiveFormat.checkHeader(this.index, ArchiveFormat.INDEX_MAGIC, base);
+
+    long entries = (this.index.size() - ArchiveFormat.HEADER) / ArchiveFormat.ENTRY;
+    long end = ArchiveFormat.HEADER;
+    ByteBuffer entry = ByteBuffer.allocate(ArchiveFormat.ENTRY);
+    while (entries > 0) {
+      entry.clear();
+      long at = ArchiveFormat.HEADER + (entries - 1) * ArchiveFormat.ENTRY;
+      while (entry.hasRemaining()) {
+        this.index.read(entry, at + entry.position());
+      }
+      long offset = entry.getLong(0);
+      long recordEnd = offset + entry.getInt(8);
+      if (recordEnd <= this.data.size()) {
+        end = recordEnd;
+        break;
+      }
+      // Only possible if the disk reordered the writes; the game is not there, so drop it.
+      --entries;
+    }
+    this.index.truncate(ArchiveFormat.HEADER + entries * ArchiveFormat.ENTRY);
+    this.data.truncate(end);
+    this.count = entries;
+    this.dataEnd = end;
+  }
+
+  /**
+   * Appends a game. It becomes durable and visible to readers at the next {@link #sync()}.
+   *
+   * @param record the game to append.
+   * @return the id of the game.
+   * @throws IOException if the record cannot be written.
+   * @throws IllegalArgumentException if the record has a move off the board or is too long.
+   */
+  public synchronized long append(GameRecord record) throws IOException {
+    byte[] bytes = ArchiveFormat.encode(record);
+    if (bytes.length > ArchiveFormat.MAX_RECORD) {
+      throw new IllegalArgumentException("Game record is too long");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      this.data.write(buffer, this.dataEnd + buffer.position());
+    }
+    if (!this.pending.hasRemaining()) {
+      this.sync();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    this.pending.putLong(this.dataEnd).putInt(bytes.length).putInt((int) crc.getValue());
+    this.dataEnd += bytes.length;
+    return this.count + this.pending.position() / ArchiveFormat.ENTRY - 1;
+  }
+
+  /**
+   * Forces the appended games to disk and then indexes them.
+   *
+   * @throws IOException if the files cannot be written.
+   */
+  public synchronized void sync() throws IOException {
+    if (this.pending.position() == 0) {
+      return;
+    }
+    this.data.force(false);
+    this.pending.flip();
+    long at = ArchiveFormat.HEADER + this.count * ArchiveFormat.ENTRY;
+    int entries = this.pending.remaining() / ArchiveFormat.ENTRY;
+    while (this.pending.hasRemaining()) {
+      this.index.write(this.pending, at + this.pending.position());
+    }
+    this.index.force(false);
+    this.pending.clear();
+    this.count += entries;
+  }
+
+  /**
+   * Gets the number of games appended, including those not yet synced.
+   *
+   * @return the number of games.
+   */
+  public synchronized long size() {
+    return this.count + this.pending.position() / ArchiveFormat.ENTRY;
+  }
+
+  /**
+   * Syncs the appended games and closes the archive.
+   *
+   * @throws IOException if the last games cannot be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      this.sync();
+    } finally {
+      this.data.close();
+      this.index.close();
+    }
+  }
+
+  /**
+   * Appends the game records in a text file, one per line, to an archive.
+   * <pre>
+   *   ArchiveWriter archive games.txt
+   * </pre>
+   *
+   * @param args the archive path without extension, and the file of game records.
+   * @throws IOException if either file cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: ArchiveWriter archive games.txt");
+      return;
+    }
+    long start = System.nanoTime();
+    long games = 0;
+    try (ArchiveWriter writer = new ArchiveWriter(Paths.get(args[0]));
+         BufferedReader in = Files.newBufferedReader(Paths.get(args[1]))) {
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        String text = line.substring(line.lastIndexOf('\t') + 1).trim();
+        if (!text.isEmpty() && !text.startsWith("#")) {
+          writer.append(GameRecord.parse(text));
+          ++games;
+        }
+      }
+      System.out.println(games + " games appended, " + writer.size() + " in archive");
+    }
+    System.out.printf("%.2f s%n", (System.nanoTime() - start) / 1e9);
+  }
+}
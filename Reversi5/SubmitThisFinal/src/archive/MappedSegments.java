@@ -0,0 +1,68 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only mapping of a whole file, however large. A single mapping cannot pass 2GB, so the
+ * file is mapped in segments starting every {@link #STRIDE} bytes, each reaching a little past
+ * the start of the next one. Anything no longer than that overlap can then be read from the
+ * one segment it starts in.
+ */
+final class MappedSegments {
+  static final long STRIDE = 1L << 30;
+
+  private final MappedByteBuffer[] segments;
+  private final long size;
+
+  /**
+   * Maps the first bytes of a file.
+   *
+   * @param channel the file.
+   * @param size the number of bytes to map.
+   * @param overlap how far each segment reaches into the next one.
+   */
+  MappedSegments(FileChannel channel, long size, int overlap) throws IOException {
+    int count = (int) Math.max(1, (size + STRIDE - 1) / STRIDE);
+    this.segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; ++i) {
+      long start = i * STRIDE;
+      long length = Math.max(0, Math.min(STRIDE + overlap, size - start));
+      this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+    this.size = size;
+  }
+
+  long size() {
+    return this.size;
+  }
+
+  /**
+   * Gets a view of the mapping positioned at a byte of the file. The view shares the mapped
+   * memory, so nothing is copied.
+   */
+  ByteBuffer at(long position) {
+    ByteBuffer view = this.segments[(int) (position / STRIDE)].duplicate();
+    view.position((int) (position % STRIDE));
+    return view;
+  }
+
+  /**
+   * Gets a view of the given bytes of the file, which must not be longer than the overlap.
+   */
+  ByteBuffer slice(long position, int length) {
+    ByteBuffer view = this.at(position);
+    view.limit(view.position() + length);
+    return view;
+  }
+
+  long getLong(long position) {
+    return this.segments[(int) (position / STRIDE)].getLong((int) (position % STRIDE));
+  }
+
+  int getInt(long position) {
+    return this.segments[(int) (position / STRIDE)].getInt((int) (position % STRIDE));
+  }
+}
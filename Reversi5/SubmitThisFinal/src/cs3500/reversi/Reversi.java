@@ -6,14 +6,27 @@ package cs3500.reversi;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import model.BoardOwner;
+import model.Cell;
+import model.GameClock;
 import model.HexBoard;
 import Controller.BlackController;
+import Controller.BotTurnScheduler;
+import Controller.StrategyController;
 import Controller.WhiteController;
 import Controller.Controller;
 import model.Player;
+import model.TimeControl;
 import strategy.Strategy;
 import strategy.StrategyTwo;
+import view.HeatmapService;
+import view.HintService;
+import view.MoveOverlayService;
 import view.Panel;
 
 /**
@@ -24,6 +37,11 @@ import view.Panel;
  * </p>
  */
 public final class Reversi {
+  private static final long BOT_THINK_MILLIS = 1000;
+  private static final int HINT_DEPTH = 6;
+  private static final long HINT_MILLIS = 3000;
+  private static final int HEATMAP_DEPTH = 3;
+  private static final long HEATMAP_MILLIS = 2000;
 
   /**
    * The main method for the Reversi game.
@@ -49,26 +67,37 @@ public final class Reversi {
     System.out.println("Second Player (enter 'strategy' for Strategy, anything else for Player):");
     String secondPlayer = scanner.nextLine();
 
+    System.out.println("Time per player in seconds, as 'main' or 'main+increment' "
+            + "(leave blank for an untimed game):");
+    TimeControl control = parseTimeControl(scanner.nextLine());
+
     // Create the game model
     HexBoard model = new HexBoard(radius);
+    // From here on only the owner's thread changes the model; the views read its snapshots.
+    BoardOwner owner = new BoardOwner(model);
 
     // Determine player types
     Player player1, player2;
+    Strategy player1Strat = null;
+    Strategy player2Strat = null;
 
     if ("strategy".equalsIgnoreCase(firstPlayer)) {
       player1 = new Player(model);
-      Strategy player1Strat = new StrategyTwo(model, player1);
+      player1Strat = new StrategyTwo(model, player1);
     } else {
       player1 = new Player(model);
     }
 
     if ("strategy".equalsIgnoreCase(secondPlayer)) {
       player2 = new Player(model);
-      Strategy player2Strat = new StrategyTwo(model, player2);
+      player2Strat = new StrategyTwo(model, player2);
     } else {
       player2 = new Player(model);
     }
 
+    Strategy blackStrat = player1Strat;
+    Strategy whiteStrat = player2Strat;
+
     // Initialize GUI in the Event Dispatch Thread
     SwingUtilities.invokeLater(() -> {
       Panel view1 = new Panel(model);
@@ -80,31 +109,107 @@ public final class Reversi {
       view1.addKeyListener(view1);
       view2.addKeyListener(view1);
 
-      Controller controller1 = new BlackController(model, player1, view1);
-      Controller controller2 = new WhiteController(model, player2, view2);
+      Controller controller1 = blackStrat == null ? new BlackController(model, player1, view1)
+              : new StrategyController(model, blackStrat, view1);
+      Controller controller2 = whiteStrat == null ? new WhiteController(model, player2, view2)
+              : new StrategyController(model, whiteStrat, view2);
       view1.setController(controller1);
       view2.setController(controller2);
+      controller1.setOwner(owner);
+      controller2.setOwner(owner);
+      view1.setOwner(owner);
+      view2.setOwner(owner);
+
+      // Each turn's legal moves and flip counts are worked out once, off the EDT, for both views.
+      MoveOverlayService overlays = new MoveOverlayService(owner);
+      overlays.addOverlayListener(view1::setOverlay);
+      overlays.addOverlayListener(view2::setOverlay);
+      overlays.start();
+
+      // Hints are searched off the EDT and dropped as soon as the position changes.
+      HintService hints = new HintService(owner, HINT_DEPTH, HINT_MILLIS);
+      hints.addHintListener(view1::setHint);
+      hints.addHintListener(view2::setHint);
+      hints.start();
+
+      // The heatmap scores every legal move at once, on all but one core, while a view shows it.
+      HeatmapService heatmap = new HeatmapService(owner, HEATMAP_DEPTH, HEATMAP_MILLIS,
+              Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+      view1.setHeatmap(heatmap);
+      view2.setHeatmap(heatmap);
+
+      // Bots think on their own threads and stop when either window closes.
+      List<BotTurnScheduler> bots = new ArrayList<>();
+      if (controller1 instanceof StrategyController) {
+        bots.add(((StrategyController) controller1).startBot(owner, Cell.BLACK,
+                StrategyTwo::new, BOT_THINK_MILLIS));
+      }
+      if (controller2 instanceof StrategyController) {
+        bots.add(((StrategyController) controller2).startBot(owner, Cell.WHITE,
+                StrategyTwo::new, BOT_THINK_MILLIS));
+      }
+      WindowAdapter closeBots = new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+          bots.forEach(BotTurnScheduler::close);
+          overlays.close();
+          hints.close();
+          heatmap.close();
+        }
+      };
 
       JFrame frame1 = new JFrame("Hexagon Reversi - Black");
       frame1.setSize(Panel.dimensionWidth / 2, Panel.dimensionHeight);
       frame1.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
       frame1.add(view1);
+      frame1.addWindowListener(closeBots);
       frame1.setVisible(true);
 
       JFrame frame2 = new JFrame("Hexagon Reversi - White");
       frame2.setSize(Panel.dimensionWidth / 2, Panel.dimensionHeight);
       frame2.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
       frame2.add(view2);
+      frame2.addWindowListener(closeBots);
       frame2.setVisible(true);
 
       view1.requestFocusInWindow();
       view2.requestFocusInWindow();
 
-      model.startGame();
+      owner.submit(HexBoard::startGame);
+      if (control != null) {
+        // The clock flags a player on its own thread; an empty command republishes the board so
+        // the views and bots see that the game is over.
+        GameClock clock = new GameClock(control, color -> {
+          System.out.println(color + " ran out of time.");
+          owner.submit(b -> { });
+        });
+        bots.forEach(b -> b.useClock(clock));
+        owner.submit(b -> b.setClock(clock));
+      }
     });
 
     scanner.close();
   }
+
+  /**
+   * Reads a time control given in seconds as "main" or "main+increment".
+   *
+   * @param line the line the user entered.
+   * @return the time control, or null if the line is blank.
+   * @throws NumberFormatException if the line is not in either form.
+   */
+  private static TimeControl parseTimeControl(String line) {
+    String trimmed = line.trim();
+    if (trimmed.isEmpty()) {
+      return null;
+    }
+    int plus = trimmed.indexOf('+');
+    if (plus < 0) {
+      return TimeControl.suddenDeath(Long.parseLong(trimmed) * 1000);
+    }
+    return TimeControl.fischer(Long.parseLong(trimmed.substring(0, plus).trim()) * 1000,
+            Long.parseLong(trimmed.substring(plus + 1).trim()) * 1000);
+  }
 }
 
 
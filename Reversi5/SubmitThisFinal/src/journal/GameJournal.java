@@ -0,0 +1,249 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import model.CellIndex;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * An append-only journal of games, so games survive a crash of the process. Every game start,
+ * move, pass and end is appended as a compact binary record to the log of the game's shard.
+ * Each shard has its own writer thread, which writes records in groups and forces them to disk
+ * in batches, and which every so often writes a snapshot of the shard's live games.
+ * <p>
+ * Opening a journal rebuilds every live game from the latest snapshot and the log after it.
+ * A single game, finished or not, can also be rebuilt from the log alone with
+ * {@link #replayGame}. Appending never blocks on the disk; call {@link #sync()} to wait until
+ * everything appended so far is durable.
+ * </p>
+ */
+public final class GameJournal implements AutoCloseable {
+  private final JournalShard[] shards;
+
+  /**
+   * Opens a journal in a directory, creating it if needed, and recovers its live games.
+   *
+   * @param dir the directory holding the logs and snapshots.
+   * @param shards the number of log files to spread games over. It must stay the same for a
+   *               directory.
+   * @param fsyncEvery the number of records after which the log is forced to disk.
+   * @param fsyncIntervalMillis the longest time a written record waits to be forced to disk.
+   * @param snapshotEvery the number of records after which a shard writes a new snapshot.
+   * @throws IOException if the directory cannot be read or written.
+   * @throws IllegalArgumentException if a count is not positive.
+   */
+  public GameJournal(Path dir, int shards, int fsyncEvery, long fsyncIntervalMillis,
+                     int snapshotEvery) throws IOException {
+    if (shards <= 0 || fsyncEvery <= 0 || snapshotEvery <= 0 || fsyncIntervalMillis < 0) {
+      throw new IllegalArgumentException("Journal settings must be positive");
+    }
+    Files.createDirectories(dir);
+    this.shards = new JournalShard[shards];
+    for (int i = 0; i < shards; ++i) {
+      this.shards[i] = new JournalShard(dir, i, fsyncEvery, fsyncIntervalMillis, snapshotEvery);
+    }
+  }
+
+  private JournalShard shard(long gameId) {
+    return this.shards[(int) Math.floorMod(gameId, (long) this.shards.length)];
+  }
+
+  /**
+   * Gets the games which were still live when the journal was opened, ready to be played on.
+   * Moves on the returned boards are journaled. Only call this before appending anything.
+   *
+   * @return the recovered games keyed by game id.
+   */
+  public Map<Long, JournaledHexBoard> recoverLiveGames() {
+    Map<Long, JournaledHexBoard> live = new HashMap<>();
+    for (JournalShard shard : this.shards) {
+      for (Map.Entry<Long, HexBoard> entry : shard.recovered().entrySet()) {
+        live.put(entry.getKey(), new JournaledHexBoard(entry.getValue(), this, entry.getKey()));
+      }
+    }
+    return live;
+  }
+
+  /**
+   * Appends the start of a game.
+   *
+   * @param gameId the id of the game.
+   * @param radius the radius of its board.
+   */
+  public void appendStart(long gameId, int radius) {
+    this.shard(gameId).append(JournalRecords.encode(JournalRecords.START, gameId, radius));
+  }
+
+  /**
+   * Appends a move.
+   *
+   * @param gameId the id of the game.
+   * @param move the cell that was played.
+   * @param radius the radius of the game's board.
+   */
+  public void appendMove(long gameId, HexCoordinate move, int radius) {
+    this.shard(gameId).append(JournalRecords.encode(JournalRecords.MOVE, gameId,
+            CellIndex.of(radius).indexOf(move)));
+  }
+
+  /**
+   * Appends a pass.
+   *
+   * @param gameId the id of the game.
+   */
+  public void appendPass(long gameId) {
+    this.shard(gameId).append(JournalRecords.encode(JournalRecords.PASS, gameId, 0));
+  }
+
+  /**
+   * Appends the end of a game, after which it is no longer a live game.
+   *
+   * @param gameId the id of the game.
+   */
+  public void appendEnd(long gameId) {
+    this.shard(gameId).append(JournalRecords.encode(JournalRecords.END, gameId, 0));
+  }
+
+  /**
+   * Waits until everything appended so far is forced to disk.
+   *
+   * @throws IOException if a shard failed to write.
+   */
+  public void sync() throws IOException {
+    CompletableFuture<?>[] done = new CompletableFuture<?>[this.shards.length];
+    for (int i = 0; i < this.shards.length; ++i) {
+      done[i] = this.shards[i].sync();
+    }
+    try {
+      CompletableFuture.allOf(done).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while syncing the journal", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Journal write failed", e.getCause());
+    }
+  }
+
+  /**
+   * Writes and forces everything appended, then stops the writer threads.
+   *
+   * @throws IOException if a log cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    for (JournalShard shard : this.shards) {
+      shard.close();
+    }
+  }
+
+  /**
+   * Rebuilds one game from the log of its shard, ignoring snapshots, whether or not it ended.
+   *
+   * @param dir the directory of the journal.
+   * @param shards the number of shards of the journal.
+   * @param gameId the id of the game.
+   * @return the board after the last journaled move of the game, or null if it never started.
+   * @throws IOException if the log cannot be read.
+   */
+  public static HexBoard replayGame(Path dir, int shards, long gameId) throws IOException {
+    Map<Long, HexBoard> games = new HashMap<>();
+    Path log = dir.resolve("shard-" + Math.floorMod(gameId, (long) shards) + ".log");
+    if (Files.exists(log)) {
+      try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+        JournalShard.replay(channel, 0, games, gameId);
+      }
+    }
+    return games.get(gameId);
+  }
+
+  /**
+   * Rebuilds every live game from the start of every log, ignoring snapshots.
+   *
+   * @param dir the directory of the journal.
+   * @param shards the number of shards of the journal.
+   * @param games the map to put the live games in, keyed by game id.
+   * @return the number of moves and passes replayed.
+   * @throws IOException if a log cannot be read.
+   */
+  public static long replayAll(Path dir, int shards, Map<Long, HexBoard> games)
+          throws IOException {
+    long moves = 0;
+    for (int i = 0; i < shards; ++i) {
+      Path log = dir.resolve("shard-" + i + ".log");
+      if (Files.exists(log)) {
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+          moves += JournalShard.replay(channel, 0, games, -1)[1];
+        }
+      }
+    }
+    return moves;
+  }
+
+  /**
+   * Fills a new journal with random games and measures how fast it is replayed.
+   * <pre>
+   *   GameJournal dir [games] [radius] [shards]
+   * </pre>
+   *
+   * @param args the command line arguments described above.
+   * @throws IOException if the journal cannot be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: GameJournal dir [games] [radius] [shards]");
+      return;
+    }
+    Path dir = Paths.get(args[0]);
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int radius = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int shards = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+    Random random = new Random(1);
+    long start = System.nanoTime();
+    try (GameJournal journal = new GameJournal(dir, shards, 1024, 10, 100_000)) {
+      for (long id = 0; id < games; ++id) {
+        JournaledHexBoard board = new JournaledHexBoard(radius, journal, id);
+        int passes = 0;
+        while (passes < 2) {
+          List<HexCoordinate> valid = board.getAllValidMoves(board.getCurrentPlayer());
+          if (valid.isEmpty()) {
+            board.pass();
+            ++passes;
+          } else {
+            board.setCoordinateState(valid.get(random.nextInt(valid.size())));
+            passes = 0;
+          }
+        }
+        if (id % 10 != 0) {
+          journal.appendEnd(id);
+        }
+      }
+    }
+    System.out.printf("Journaled %d games in %.2f s%n", games, (System.nanoTime() - start) / 1e9);
+
+    start = System.nanoTime();
+    Map<Long, HexBoard> replayed = new HashMap<>();
+    long moves = replayAll(dir, shards, replayed);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Full replay: %d moves, %d live games in %.2f s (%.0f moves/s)%n", moves,
+            replayed.size(), seconds, moves / seconds);
+
+    start = System.nanoTime();
+    try (GameJournal journal = new GameJournal(dir, shards, 1024, 10, 100_000)) {
+      System.out.printf("Reopened with %d live games in %.2f s%n",
+              journal.recoverLiveGames().size(), (System.nanoTime() - start) / 1e9);
+    }
+  }
+}
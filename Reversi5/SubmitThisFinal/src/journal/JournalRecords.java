@@ -0,0 +1,72 @@
+package journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary layout of journal records. A record is a type byte, the game id as a variable
+ * length integer, and a payload: the radius for a start, the cell id for a move and nothing for
+ * a pass or an end. Records are written in frames of
+ * <pre>
+ *   int length, int crc32 of the records, records
+ * </pre>
+ * so a frame torn by a crash can be detected and dropped when the journal is read back.
+ */
+final class JournalRecords {
+  static final byte START = 1;
+  static final byte MOVE = 2;
+  static final byte PASS = 3;
+  static final byte END = 4;
+
+  static final int FRAME_HEADER = 8;
+
+  private JournalRecords() {
+  }
+
+  /**
+   * Encodes one record.
+   *
+   * @param type the record type.
+   * @param gameId the game the record belongs to.
+   * @param value the radius of a start or the cell id of a move, ignored otherwise.
+   * @return the encoded record.
+   */
+  static byte[] encode(byte type, long gameId, int value) {
+    byte[] buffer = new byte[16];
+    int at = 0;
+    buffer[at++] = type;
+    at = putVarLong(buffer, at, gameId);
+    if (type == START || type == MOVE) {
+      at = putVarLong(buffer, at, value);
+    }
+    byte[] record = new byte[at];
+    System.arraycopy(buffer, 0, record, 0, at);
+    return record;
+  }
+
+  private static int putVarLong(byte[] buffer, int at, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer[at++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[at++] = (byte) value;
+    return at;
+  }
+
+  /**
+   * Reads a variable length integer written by {@link #encode}.
+   *
+   * @param buffer the buffer positioned at the integer.
+   * @return the value.
+   */
+  static long getVarLong(ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
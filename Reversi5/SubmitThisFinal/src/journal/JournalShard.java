@@ -0,0 +1,396 @@
+package journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import model.Cell;
+import model.CellIndex;
+import model.GameRecord;
+import model.HexBoard;
+
+/**
+ * One log file of a {@link GameJournal} and the thread which writes it. Records queued by any
+ * thread are written in groups, one frame per group, and the file is forced to disk after a
+ * number of records or an amount of time, whichever comes first. The writer also keeps its own
+ * copy of every live game in the shard, so it can write a snapshot that matches the log exactly
+ * without stopping the games.
+ */
+final class JournalShard implements Runnable {
+  private static final Object CLOSE = new Object();
+  private static final int MAX_BATCH = 4096;
+
+  private final Path log;
+  private final Path snapshot;
+  private final FileChannel channel;
+  private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+  private final Map<Long, HexBoard> games;
+  private final int fsyncEvery;
+  private final long fsyncIntervalNanos;
+  private final int snapshotEvery;
+  private final Thread thread;
+  private volatile Exception failure;
+
+  /**
+   * Opens a shard, rebuilds its live games from the snapshot and the log after it, cuts off any
+   * torn frame at the end of the log and starts the writer.
+   */
+  JournalShard(Path dir, int index, int fsyncEvery, long fsyncIntervalMillis, int snapshotEvery)
+          throws IOException {
+    this.log = dir.resolve("shard-" + index + ".log");
+    this.snapshot = dir.resolve("shard-" + index + ".snap");
+    this.fsyncEvery = fsyncEvery;
+    this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+    this.snapshotEvery = snapshotEvery;
+    this.channel = FileChannel.open(this.log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+    this.games = new HashMap<>();
+    long start = readSnapshot(this.snapshot, this.games);
+    long end = replay(this.channel, start, this.games, -1)[0];
+    this.channel.truncate(end);
+    this.channel.position(end);
+
+    this.thread = new Thread(this, "journal-" + index);
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Gets the games which were live when the shard was opened. Only call this before the first
+   * record is queued, since the writer thread owns the games afterwards.
+   */
+  Map<Long, HexBoard> recovered() {
+    return this.games;
+  }
+
+  /**
+   * Queues an encoded record for the writer. Once the writer has failed the record is dropped,
+   * and the failure is reported by {@link #sync()} instead.
+   */
+  void append(byte[] record) {
+    if (this.failure == null) {
+      this.queue.add(record);
+    }
+  }
+
+  /**
+   * Queues a request to force everything queued so far to disk. Once the writer has failed the
+   * request fails at once with the writer's failure.
+   */
+  CompletableFuture<Void> sync() {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    if (this.failure == null) {
+      this.queue.add(done);
+    }
+    // The writer may have failed after the check; it fails what it finds queued, and this
+    // fails the rest.
+    Exception e = this.failure;
+    if (e != null) {
+      done.completeExceptionally(e);
+    }
+    return done;
+  }
+
+  /**
+   * Writes everything queued, forces it to disk and stops the writer.
+   */
+  void close() throws IOException {
+    this.queue.add(CLOSE);
+    try {
+      this.thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.channel.close();
+  }
+
+  @Override
+  public void run() {
+    List<Object> batch = new ArrayList<>();
+    List<CompletableFuture<Void>> waiting = new ArrayList<>();
+    long unsynced = 0;
+    long sinceSnapshot = 0;
+    long lastSync = System.nanoTime();
+    boolean closing = false;
+    try {
+      while (!closing) {
+        long wait = unsynced > 0
+                ? Math.max(0, lastSync + this.fsyncIntervalNanos - System.nanoTime())
+                : TimeUnit.SECONDS.toNanos(1);
+        Object first = this.queue.poll(wait, TimeUnit.NANOSECONDS);
+        if (first != null) {
+          batch.add(first);
+          this.queue.drainTo(batch, MAX_BATCH);
+        }
+
+        List<byte[]> records = new ArrayList<>(batch.size());
+        for (Object item : batch) {
+          if (item == CLOSE) {
+            closing = true;
+          } else if (item instanceof byte[]) {
+            records.add((byte[]) item);
+          } else {
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Void> done = (CompletableFuture<Void>) item;
+            waiting.add(done);
+          }
+        }
+        batch.clear();
+
+        if (!records.isEmpty()) {
+          this.writeFrame(records);
+          unsynced += records.size();
+          sinceSnapshot += records.size();
+        }
+        long now = System.nanoTime();
+        if (unsynced > 0 && (unsynced >= this.fsyncEvery || now - lastSync >= this.fsyncIntervalNanos
+                || closing || !waiting.isEmpty())) {
+          this.channel.force(false);
+          unsynced = 0;
+          lastSync = now;
+        }
+        for (CompletableFuture<Void> done : waiting) {
+          done.complete(null);
+        }
+        waiting.clear();
+        if (sinceSnapshot >= this.snapshotEvery) {
+          this.writeSnapshot();
+          sinceSnapshot = 0;
+          unsynced = 0;
+          lastSync = System.nanoTime();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      this.fail(e, batch, waiting);
+      throw new IllegalStateException("Journal writer failed", e);
+    } catch (InterruptedException e) {
+      this.fail(e, batch, waiting);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Records why the writer stopped and fails every sync request it had taken or still has
+   * queued, so none of them waits for a writer which is gone.
+   */
+  private void fail(Exception e, List<Object> batch, List<CompletableFuture<Void>> waiting) {
+    this.failure = e;
+    this.queue.drainTo(batch);
+    for (Object item : batch) {
+      if (item instanceof CompletableFuture) {
+        ((CompletableFuture<?>) item).completeExceptionally(e);
+      }
+    }
+    for (CompletableFuture<Void> done : waiting) {
+      done.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Writes a group of records as one frame and applies them to the writer's copy of the games.
+   */
+  private void writeFrame(List<byte[]> records) throws IOException {
+    int length = 0;
+    for (byte[] record : records) {
+      length += record.length;
+    }
+    ByteBuffer frame = ByteBuffer.allocate(JournalRecords.FRAME_HEADER + length);
+    frame.putInt(length).putInt(0);
+    for (byte[] record : records) {
+      frame.put(record);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(frame.array(), JournalRecords.FRAME_HEADER, length);
+    frame.putInt(4, (int) crc.getValue());
+    frame.flip();
+    while (frame.hasRemaining()) {
+      this.channel.write(frame);
+    }
+    frame.position(JournalRecords.FRAME_HEADER);
+    apply(frame, this.games, -1);
+  }
+
+  /**
+   * Reads frames from the log and applies their records to the games.
+   *
+   * @param channel the log to read.
+   * @param from the offset of the first frame to read.
+   * @param games the games to apply records to.
+   * @param only the only game to apply records for, or -1 for every game.
+   * @return the offset just after the last whole frame, and the number of moves and passes read.
+   */
+  static long[] replay(FileChannel channel, long from, Map<Long, HexBoard> games, long only)
+          throws IOException {
+    long position = from;
+    long moves = 0;
+    long size = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(JournalRecords.FRAME_HEADER);
+    while (position + JournalRecords.FRAME_HEADER <= size) {
+      header.clear();
+      channel.read(header, position);
+      int length = header.getInt(0);
+      if (length < 0 || position + JournalRecords.FRAME_HEADER + length > size) {
+        break;
+      }
+      ByteBuffer body = ByteBuffer.allocate(length);
+      while (body.hasRemaining()) {
+        if (channel.read(body, position + JournalRecords.FRAME_HEADER + body.position()) < 0) {
+          break;
+        }
+      }
+      CRC32 crc = new CRC32();
+      crc.update(body.array(), 0, length);
+      if ((int) crc.getValue() != header.getInt(4)) {
+        break;
+      }
+      body.flip();
+      moves += apply(body, games, only);
+      position += JournalRecords.FRAME_HEADER + length;
+    }
+    return new long[] {position, moves};
+  }
+
+  /**
+   * Applies every record left in a buffer to the games.
+   *
+   * @return the number of moves and passes applied.
+   */
+  private static long apply(ByteBuffer records, Map<Long, HexBoard> games, long only) {
+    long moves = 0;
+    while (records.hasRemaining()) {
+      byte type = records.get();
+      long id = JournalRecords.getVarLong(records);
+      int value = type == JournalRecords.START || type == JournalRecords.MOVE
+              ? (int) JournalRecords.getVarLong(records) : 0;
+      if (only >= 0 && id != only) {
+        continue;
+      }
+      HexBoard board = games.get(id);
+      switch (type) {
+        case JournalRecords.START:
+          games.put(id, new HexBoard(value));
+          break;
+        case JournalRecords.MOVE:
+          if (board != null) {
+            GameRecord.play(board, CellIndex.of(board.getRadius()).coordinate(value));
+            ++moves;
+          }
+          break;
+        case JournalRecords.PASS:
+          if (board != null) {
+            board.switchPlayer();
+            ++moves;
+          }
+          break;
+        case JournalRecords.END:
+          if (only < 0) {
+            games.remove(id);
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unknown journal record " + type);
+      }
+    }
+    return moves;
+  }
+
+  /**
+   * Writes the live games and the current end of the log to the snapshot file, replacing the
+   * old snapshot only once the new one is safely on disk. The log is forced first, so a snapshot
+   * never covers records which could still be lost in a crash.
+   */
+  private void writeSnapshot() throws IOException {
+    this.channel.force(false);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeLong(this.channel.position());
+    out.writeInt(this.games.size());
+    for (Map.Entry<Long, HexBoard> entry : this.games.entrySet()) {
+      HexBoard board = entry.getValue();
+      CellIndex index = CellIndex.of(board.getRadius());
+      out.writeLong(entry.getKey());
+      out.writeInt(board.getRadius());
+      out.writeBoolean(board.getCurrentPlayer() == board.userOne);
+      out.writeInt(board.userOne.getScore());
+      out.writeInt(board.userTwo.getScore());
+      byte[] packed = new byte[(index.size() + 3) / 4];
+      for (int id = 0; id < index.size(); ++id) {
+        packed[id / 4] |= board.getCellState(index.coordinate(id)).ordinal() << (id % 4 * 2);
+      }
+      out.write(packed);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    out.writeLong(crc.getValue());
+    out.flush();
+
+    Path temp = this.snapshot.resolveSibling(this.snapshot.getFileName() + ".tmp");
+    try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) {
+        file.write(buffer);
+      }
+      file.force(true);
+    }
+    Files.move(temp, this.snapshot, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot into the games.
+   *
+   * @return the log offset the snapshot covers, or 0 if there is no valid snapshot.
+   */
+  private static long readSnapshot(Path snapshot, Map<Long, HexBoard> games) throws IOException {
+    if (!Files.exists(snapshot)) {
+      return 0;
+    }
+    ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+    if (in.limit() < 20) {
+      return 0;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(in.array(), 0, in.limit() - 8);
+    if (crc.getValue() != in.getLong(in.limit() - 8)) {
+      return 0;
+    }
+    Cell[] cells = Cell.values();
+    long offset = in.getLong();
+    int count = in.getInt();
+    for (int i = 0; i < count; ++i) {
+      long id = in.getLong();
+      HexBoard board = new HexBoard(in.getInt());
+      boolean blackToMove = in.get() != 0;
+      if (blackToMove != (board.getCurrentPlayer() == board.userOne)) {
+        board.switchPlayer();
+      }
+      board.userOne.score = in.getInt();
+      board.userTwo.score = in.getInt();
+      CellIndex index = CellIndex.of(board.getRadius());
+      byte[] packed = new byte[(index.size() + 3) / 4];
+      in.get(packed);
+      for (int cell = 0; cell < index.size(); ++cell) {
+        board.testSet(index.coordinate(cell), cells[packed[cell / 4] >> (cell % 4 * 2) & 3]);
+      }
+      games.put(id, board);
+    }
+    return offset;
+  }
+}
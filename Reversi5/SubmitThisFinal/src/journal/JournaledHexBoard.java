@@ -0,0 +1,64 @@
+package journal;
+
+import model.Coordinate;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * A {@link HexBoard} which appends every move, pass and game start to a {@link GameJournal}, so
+ * the game can be rebuilt after a crash. Only a {@link #pass()} is journaled as a pass; a bare
+ * {@link #switchPlayer()}, such as a caller switching sides to look at the opponent's moves and
+ * switching back, is not.
+ */
+public class JournaledHexBoard extends HexBoard {
+  private final GameJournal journal;
+  private final long gameId;
+
+  /**
+   * Constructs a new game and journals its start.
+   *
+   * @param radius the radius of the board.
+   * @param journal the journal to append to.
+   * @param gameId the id of the game in the journal.
+   */
+  public JournaledHexBoard(int radius, GameJournal journal, long gameId) {
+    super(radius);
+    this.journal = journal;
+    this.gameId = gameId;
+    journal.appendStart(gameId, radius);
+  }
+
+  /**
+   * Continues a recovered game, journaling its moves from now on without a new start record.
+   *
+   * @param recovered the state of the game rebuilt from the journal.
+   * @param journal the journal to append to.
+   * @param gameId the id of the game in the journal.
+   */
+  public JournaledHexBoard(HexBoard recovered, GameJournal journal, long gameId) {
+    super(recovered);
+    this.journal = journal;
+    this.gameId = gameId;
+  }
+
+  /**
+   * Gets the id of this game in the journal.
+   *
+   * @return the game id.
+   */
+  public long getGameId() {
+    return this.gameId;
+  }
+
+  @Override
+  public void setCoordinateState(Coordinate coordinate) {
+    super.setCoordinateState(coordinate);
+    this.journal.appendMove(this.gameId, (HexCoordinate) coordinate, this.radius);
+  }
+
+  @Override
+  public void pass() {
+    super.pass();
+    this.journal.appendPass(this.gameId);
+  }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable description of what one move changed on a board: the cell that was placed, the
+ * cells that were flipped, who moved, and how the disc counts changed. Changes are numbered in
+ * the order they happened on their board, so an observer can tell if it missed one.
+ */
+public final class BoardChange {
+  private final long sequence;
+  private final Cell mover;
+  private final HexCoordinate placed;
+  private final List<HexCoordinate> flipped;
+
+  /**
+   * Constructs a board change.
+   *
+   * @param sequence the number of this change on its board, starting at 1.
+   * @param mover the colour of the player who moved.
+   * @param placed the cell the new disc was placed on.
+   * @param flipped the cells that were flipped to the mover's colour.
+   */
+  public BoardChange(long sequence, Cell mover, HexCoordinate placed,
+                     List<HexCoordinate> flipped) {
+    this.sequence = sequence;
+    this.mover = mover;
+    this.placed = placed;
+    this.flipped = Collections.unmodifiableList(new ArrayList<>(flipped));
+  }
+
+  /**
+   * Gets the number of this change on its board.
+   *
+   * @return the sequence number, one more than the change before it.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Gets the colour of the player who moved.
+   *
+   * @return BLACK or WHITE.
+   */
+  public Cell getMover() {
+    return this.mover;
+  }
+
+  /**
+   * Gets the cell the new disc was placed on.
+   *
+   * @return the placed cell.
+   */
+  public HexCoordinate getPlaced() {
+    return this.placed;
+  }
+
+  /**
+   * Gets the cells that were flipped.
+   *
+   * @return the flipped cells, which now have the mover's colour.
+   */
+  public List<HexCoordinate> getFlipped() {
+    return this.flipped;
+  }
+
+  /**
+   * Gets how many discs the mover gained: the placed disc and every flipped disc.
+   *
+   * @return the change in the mover's disc count.
+   */
+  public int getScoreChange() {
+    return 1 + this.flipped.size();
+  }
+
+  /**
+   * Gets how the disc count of a colour changed.
+   *
+   * @param color BLACK or WHITE.
+   * @return the change in that colour's disc count, negative for the opponent of the mover.
+   */
+  public int getDiscChange(Cell color) {
+    if (color == this.mover) {
+      return this.getScoreChange();
+    }
+    return color == Cell.EMPTY ? -1 : -this.flipped.size();
+  }
+
+  @Override
+  public String toString() {
+    return "#" + this.sequence + " " + this.mover + " " + this.placed + " flips "
+            + this.flipped.size();
+  }
+}
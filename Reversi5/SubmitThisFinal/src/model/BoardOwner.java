@@ -0,0 +1,187 @@
+package model;
+
+import Controller.BoardChangeObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * The single writer of a shared {@link HexBoard}. Every change to the board is queued as a
+ * command and applied by the owner's own thread, one at a time. After each command the owner
+ * publishes a new {@link BoardSnapshot}, which readers such as views and bots take without any
+ * locking. Once a board has an owner nothing else may change it directly.
+ */
+public final class BoardOwner implements BoardChangeObserver, AutoCloseable {
+  private static final long ANY = -1;
+
+  private final HexBoard board;
+  private final ExecutorService thread;
+  private final List<BoardChange> changes = new ArrayList<>();
+  private final List<Consumer<BoardSnapshot>> listeners = new CopyOnWriteArrayList<>();
+  private volatile BoardSnapshot snapshot;
+
+  /**
+   * Takes ownership of a board.
+   *
+   * @param board the board to own.
+   */
+  public BoardOwner(HexBoard board) {
+    this.board = board;
+    this.snapshot = BoardSnapshot.of(board, 0, null);
+    this.thread = Executors.newSingleThreadExecutor(task -> {
+      Thread owner = new Thread(task, "board-owner");
+      owner.setDaemon(true);
+      return owner;
+    });
+    board.addObserver(this);
+  }
+
+  /**
+   * Gets the latest snapshot of the board. This never blocks.
+   *
+   * @return the snapshot published after the last applied command.
+   */
+  public BoardSnapshot snapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Adds a listener which is given each new snapshot as soon as it is published. Listeners run
+   * on the owner's thread, so they should only hand work off to another thread. An exception
+   * thrown by a listener is reported and does not stop the others.
+   *
+   * @param listener the listener to add.
+   */
+  public void addSnapshotListener(Consumer<BoardSnapshot> listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a snapshot listener.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeSnapshotListener(Consumer<BoardSnapshot> listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Queues a move for the player whose turn it is.
+   *
+   * @param move the cell to play.
+   * @return the snapshot after the move, or a failed future if the move is not valid.
+   */
+  public CompletableFuture<BoardSnapshot> move(HexCoordinate move) {
+    return this.apply(ANY, board -> board.setCoordinateState(move), false);
+  }
+
+  /**
+   * Queues a move, or a pass if the move is null, which is only made if the board is still at
+   * the given version. A decision taken on an old snapshot is then never applied to a newer
+   * board; the future fails instead and no snapshot is published.
+   *
+   * @param version the version of the snapshot the decision was taken on.
+   * @param move the cell to play, or null to pass.
+   * @return the snapshot after the move, or a failed future if the board has moved on or the
+   *         move is not valid.
+   */
+  public CompletableFuture<BoardSnapshot> play(long version, HexCoordinate move) {
+    return this.apply(version, move == null ? HexBoard::pass
+            : board -> board.setCoordinateState(move), false);
+  }
+
+  /**
+   * Queues a pass for the player whose turn it is.
+   *
+   * @return the snapshot after the pass.
+   */
+  public CompletableFuture<BoardSnapshot> pass() {
+    return this.apply(ANY, HexBoard::pass, false);
+  }
+
+  /**
+   * Queues any command on the board. The next snapshot is copied from the whole board, since
+   * the command may change cells without making a move.
+   *
+   * @param command the command to run on the owner's thread.
+   * @return the snapshot after the command, or a failed future if the command threw.
+   */
+  public CompletableFuture<BoardSnapshot> submit(Consumer<HexBoard> command) {
+    return this.apply(ANY, command, true);
+  }
+
+  private CompletableFuture<BoardSnapshot> apply(long expected, Consumer<HexBoard> command,
+                                                 boolean full) {
+    CompletableFuture<BoardSnapshot> done = new CompletableFuture<>();
+    this.thread.execute(() -> {
+      if (expected != ANY && expected != this.snapshot.getVersion()) {
+        done.completeExceptionally(new IllegalStateException(
+                "Board has changed since version " + expected));
+        return;
+      }
+      RuntimeException failure = null;
+      try {
+        command.accept(this.board);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      BoardSnapshot previous = this.snapshot;
+      this.snapshot = full || failure != null
+              ? BoardSnapshot.of(this.board, previous.getVersion() + 1,
+                      this.changes.isEmpty() ? previous.getLastChange()
+                              : this.changes.get(this.changes.size() - 1))
+              : previous.next(this.board, this.changes);
+      this.changes.clear();
+      this.publish(this.snapshot);
+      if (failure == null) {
+        done.complete(this.snapshot);
+      } else {
+        done.completeExceptionally(failure);
+      }
+    });
+    return done;
+  }
+
+  /**
+   * Hands a snapshot to every listener. A listener which throws is reported to the owner
+   * thread's uncaught exception handler and skipped, so it neither keeps the snapshot from the
+   * listeners after it nor leaves the command's future incomplete.
+   */
+  private void publish(BoardSnapshot snapshot) {
+    for (Consumer<BoardSnapshot> listener : this.listeners) {
+      try {
+        listener.accept(snapshot);
+      } catch (RuntimeException e) {
+        Thread owner = Thread.currentThread();
+        owner.getUncaughtExceptionHandler().uncaughtException(owner, e);
+      }
+    }
+  }
+
+  /**
+   * Collects the moves a command makes. This runs on the owner's thread.
+   *
+   * @param change what the move placed and flipped.
+   */
+  @Override
+  public void onBoardChanged(BoardChange change) {
+    this.changes.add(change);
+  }
+
+  @Override
+  public void onBoardChanged() {
+    // Only moves are reported to the owner; other commands copy the whole board.
+  }
+
+  /**
+   * Stops the owner's thread once the queued commands have run.
+   */
+  @Override
+  public void close() {
+    this.thread.shutdown();
+  }
+}
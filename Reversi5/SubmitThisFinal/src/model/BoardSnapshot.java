@@ -0,0 +1,148 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable copy of a board at one point in its history, stamped with a version that goes up
+ * by one with each change made through its {@link BoardOwner}. Any thread may read a snapshot
+ * without locking, and never sees a move half applied.
+ */
+public final class BoardSnapshot {
+  private final long version;
+  private final CellIndex index;
+  private final Cell[] cells;
+  private final Cell current;
+  private final int blackScore;
+  private final int whiteScore;
+  private final BoardChange lastChange;
+
+  private BoardSnapshot(long version, CellIndex index, Cell[] cells, Cell current,
+                        int blackScore, int whiteScore, BoardChange lastChange) {
+    this.version = version;
+    this.index = index;
+    this.cells = cells;
+    this.current = current;
+    this.blackScore = blackScore;
+    this.whiteScore = whiteScore;
+    this.lastChange = lastChange;
+  }
+
+  /**
+   * Copies a board. Only the thread which owns the board may call this.
+   *
+   * @param board the board to copy.
+   * @param version the version to stamp the snapshot with.
+   * @param lastChange the last move made on the board, or null if there is none.
+   * @return the snapshot.
+   */
+  static BoardSnapshot of(HexBoard board, long version, BoardChange lastChange) {
+    CellIndex index = CellIndex.of(board.getRadius());
+    Cell[] cells = new Cell[index.size()];
+    for (int id = 0; id < cells.length; ++id) {
+      cells[id] = board.getCellState(index.coordinate(id));
+    }
+    return new BoardSnapshot(version, index, cells, board.getCurrentPlayer().getColor(),
+            board.userOne.getScore(), board.userTwo.getScore(), lastChange);
+  }
+
+  /**
+   * Makes the next snapshot by applying moves to this one, which only copies the cell array.
+   *
+   * @param board the board after the moves, for the player to move and the scores.
+   * @param changes the moves made since this snapshot, in order.
+   * @return the next snapshot.
+   */
+  BoardSnapshot next(HexBoard board, List<BoardChange> changes) {
+    Cell[] next = this.cells;
+    BoardChange last = this.lastChange;
+    if (!changes.isEmpty()) {
+      next = this.cells.clone();
+      for (BoardChange change : changes) {
+        next[this.index.indexOf(change.getPlaced())] = change.getMover();
+        for (HexCoordinate flipped : change.getFlipped()) {
+          next[this.index.indexOf(flipped)] = change.getMover();
+        }
+        last = change;
+      }
+    }
+    return new BoardSnapshot(this.version + 1, this.index, next,
+            board.getCurrentPlayer().getColor(), board.userOne.getScore(),
+            board.userTwo.getScore(), last);
+  }
+
+  /**
+   * Gets the version of this snapshot.
+   *
+   * @return the number of changes made through the owner before this snapshot was taken.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Gets the radius of the board.
+   *
+   * @return the board radius.
+   */
+  public int getRadius() {
+    return this.index.getRadius();
+  }
+
+  /**
+   * Gets the state of a cell.
+   *
+   * @param coordinate the coordinate of the cell.
+   * @return the state of the cell, or null if it is not on the board.
+   */
+  public Cell getCell(HexCoordinate coordinate) {
+    int id = this.index.indexOf(coordinate);
+    return id < 0 ? null : this.cells[id];
+  }
+
+  /**
+   * Gets the state of a cell by its id in the board's {@link CellIndex}.
+   *
+   * @param id the id of the cell.
+   * @return the state of the cell.
+   */
+  public Cell getCell(int id) {
+    return this.cells[id];
+  }
+
+  /**
+   * Gets the colour of the player to move.
+   *
+   * @return BLACK or WHITE.
+   */
+  public Cell getCurrentColor() {
+    return this.current;
+  }
+
+  /**
+   * Gets the last move made on the board.
+   *
+   * @return the last move, or null if none has been made through the owner.
+   */
+  public BoardChange getLastChange() {
+    return this.lastChange;
+  }
+
+  /**
+   * Builds a new board in the state of this snapshot, which the caller may search or play on
+   * freely, for example on a bot thread.
+   *
+   * @return a new board with the same cells, player to move and scores.
+   */
+  public HexBoard toHexBoard() {
+    HexBoard board = new HexBoard(this.index.getRadius());
+    for (int id = 0; id < this.cells.length; ++id) {
+      board.board.put(this.index.coordinate(id), this.cells[id]);
+    }
+    if (board.getCurrentPlayer().getColor() != this.current) {
+      board.switchPlayer();
+    }
+    board.userOne.score = this.blackScore;
+    board.userTwo.score = this.whiteScore;
+    return board;
+  }
+}
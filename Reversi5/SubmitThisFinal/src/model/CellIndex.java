@@ -0,0 +1,133 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers the cells of a hexagonal board of a given radius from 0, row by row: y from -radius
+ * to radius, and p from smallest to largest within a row. This is the same order the text view
+ * draws the board in. The numbering lets code store a board or a move as plain ints and arrays
+ * instead of {@link HexCoordinate} keys.
+ */
+public final class CellIndex {
+  private static final ConcurrentHashMap<Integer, CellIndex> CACHE = new ConcurrentHashMap<>();
+
+  private final int radius;
+  private final int[] rowStart;
+  private final HexCoordinate[] coordinates;
+
+  private CellIndex(int radius) {
+    this.radius = radius;
+    this.rowStart = new int[2 * radius + 2];
+    int size = 3 * radius * (radius + 1) + 1;
+    this.coordinates = new HexCoordinate[size];
+    int id = 0;
+    for (int y = -radius; y <= radius; ++y) {
+      this.rowStart[y + radius] = id;
+      for (int p = minP(radius, y); p <= maxP(radius, y); ++p) {
+        this.coordinates[id++] = new HexCoordinate(y, p, -y - p);
+      }
+    }
+    this.rowStart[2 * radius + 1] = id;
+  }
+
+  /**
+   * Gets the numbering for a radius. Numberings are shared, so this is cheap to call.
+   *
+   * @param radius the radius of the board.
+   * @return the numbering of the cells of that board.
+   * @throws IllegalArgumentException if the radius is negative.
+   */
+  public static CellIndex of(int radius) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius number is invalid");
+    }
+    return CACHE.computeIfAbsent(radius, CellIndex::new);
+  }
+
+  private static int minP(int radius, int y) {
+    return Math.max(-radius, -radius - y);
+  }
+
+  private static int maxP(int radius, int y) {
+    return Math.min(radius, radius - y);
+  }
+
+  /**
+   * Gets the radius this numbering is for.
+   *
+   * @return the board radius.
+   */
+  public int getRadius() {
+    return this.radius;
+  }
+
+  /**
+   * Gets the number of cells on the board.
+   *
+   * @return the number of cells, which is also one more than the largest id.
+   */
+  public int size() {
+    return this.coordinates.length;
+  }
+
+  /**
+   * Gets the id of the cell at the given components.
+   *
+   * @param y the y component.
+   * @param p the p component; n is implied as -y - p.
+   * @return the cell id, or -1 if the cell is not on the board.
+   */
+  public int indexOf(int y, int p) {
+    if (y < -this.radius || y > this.radius) {
+      return -1;
+    }
+    if (p < minP(this.radius, y) || p > maxP(this.radius, y)) {
+      return -1;
+    }
+    return this.rowStart[y + this.radius] + p - minP(this.radius, y);
+  }
+
+  /**
+   * Gets the id of the cell at a coordinate.
+   *
+   * @param coordinate the coordinate of the cell.
+   * @return the cell id, or -1 if the cell is not on the board.
+   */
+  public int indexOf(HexCoordinate coordinate) {
+    if (coordinate.getY() + coordinate.getP() + coordinate.getN() != 0) {
+      return -1;
+    }
+    return this.indexOf(coordinate.getY(), coordinate.getP());
+  }
+
+  /**
+   * Gets the coordinate of a cell id.
+   *
+   * @param id the cell id.
+   * @return the coordinate of that cell.
+   * @throws IndexOutOfBoundsException if the id is not on the board.
+   */
+  public HexCoordinate coordinate(int id) {
+    return this.coordinates[id];
+  }
+
+  /**
+   * Gets the id of the first cell of a row.
+   *
+   * @param y the row.
+   * @return the id of the cell with the smallest p in that row.
+   */
+  public int rowStart(int y) {
+    return this.rowStart[y + this.radius];
+  }
+
+  /**
+   * Gets the number of cells in a row.
+   *
+   * @param y the row.
+   * @return the number of cells with that y.
+   */
+  public int rowLength(int y) {
+    return this.rowStart[y + this.radius + 1] - this.rowStart[y + this.radius];
+  }
+}
@@ -0,0 +1,62 @@
+package model;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires the timeouts of many {@link GameClock}s from one thread. Each running clock has exactly
+ * one pending timeout, set for the moment its player would run out of time and replaced at every
+ * turn switch, so nothing polls and thousands of games can share one scheduler.
+ */
+public final class ClockScheduler implements AutoCloseable {
+  private static ClockScheduler shared;
+
+  private final ScheduledThreadPoolExecutor executor;
+
+  /**
+   * Constructs a scheduler with its own timeout thread.
+   */
+  public ClockScheduler() {
+    this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+      Thread timeouts = new Thread(task, "clock-timeouts");
+      timeouts.setDaemon(true);
+      return timeouts;
+    });
+    // Every turn switch cancels a timeout, so cancelled ones must not pile up in the queue.
+    this.executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Gets the scheduler shared by every clock which is not given one.
+   *
+   * @return the shared scheduler.
+   */
+  public static synchronized ClockScheduler shared() {
+    if (shared == null) {
+      shared = new ClockScheduler();
+    }
+    return shared;
+  }
+
+  ScheduledFuture<?> schedule(Runnable timeout, long delayNanos) {
+    return this.executor.schedule(timeout, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the number of timeouts waiting to fire.
+   *
+   * @return the number of pending timeouts.
+   */
+  public int getPending() {
+    return this.executor.getQueue().size();
+  }
+
+  /**
+   * Stops the timeout thread. Pending timeouts never fire.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+}
@@ -0,0 +1,230 @@
+package model;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * The clocks of both players in one game. Only the player to move is charged, measured with
+ * {@link System#nanoTime()} from the moment the turn passed to them. Once the clock is set on
+ * the board the turn passes on each move and {@link HexBoard#pass()}, but not on a bare
+ * {@link HexBoard#switchPlayer()}, and the board stops the clock when the game ends. A player
+ * who runs out of time is flagged by the clock's {@link ClockScheduler} as soon as it happens,
+ * whether or not they ever move again.
+ */
+public final class GameClock {
+  private final TimeControl control;
+  private final ClockScheduler scheduler;
+  private final Consumer<Cell> onTimeout;
+  private final long[] mainNanos = new long[2];
+  private final int[] periods = new int[2];
+  private final int[] moves = new int[2];
+  private Cell running = Cell.EMPTY;
+  private long turnStarted;
+  private long turn;
+  private Cell flagged = Cell.EMPTY;
+  private ScheduledFuture<?> timeout;
+
+  /**
+   * Constructs a stopped clock which times out on the shared scheduler.
+   *
+   * @param control the time each player is given.
+   * @param onTimeout told the colour which ran out of time, on the scheduler's thread.
+   */
+  public GameClock(TimeControl control, Consumer<Cell> onTimeout) {
+    this(control, ClockScheduler.shared(), onTimeout);
+  }
+
+  /**
+   * Constructs a stopped clock.
+   *
+   * @param control the time each player is given.
+   * @param scheduler the scheduler which fires the clock's timeouts.
+   * @param onTimeout told the colour which ran out of time, on the scheduler's thread.
+   */
+  public GameClock(TimeControl control, ClockScheduler scheduler, Consumer<Cell> onTimeout) {
+    this.control = control;
+    this.scheduler = scheduler;
+    this.onTimeout = onTimeout;
+    for (int i = 0; i < 2; ++i) {
+      this.mainNanos[i] = control.getMainNanos();
+      this.periods[i] = control.getPeriods();
+    }
+  }
+
+  private static int side(Cell color) {
+    if (color == Cell.EMPTY) {
+      throw new IllegalArgumentException("Clock only runs for BLACK or WHITE");
+    }
+    return color == Cell.BLACK ? 0 : 1;
+  }
+
+  /**
+   * Passes the turn to a player: the player who was moving is charged for their move and gets
+   * their increment, and the given player's time starts running. If the clock is stopped this
+   * just starts it. Nothing happens once a player has been flagged.
+   *
+   * @param next the colour now to move.
+   */
+  public synchronized void switchTo(Cell next) {
+    int side = side(next);
+    if (this.flagged != Cell.EMPTY) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (this.running != Cell.EMPTY && !this.charge(this.running, now - this.turnStarted)) {
+      return;
+    }
+    this.running = next;
+    this.turnStarted = now;
+    long generation = ++this.turn;
+    if (this.timeout != null) {
+      this.timeout.cancel(false);
+    }
+    this.timeout = this.scheduler.schedule(() -> this.expire(next, generation),
+            this.allowance(side));
+  }
+
+  /**
+   * Stops the clock, charging the player who was moving, for example when the game ends.
+   */
+  public synchronized void stop() {
+    if (this.running != Cell.EMPTY && this.flagged == Cell.EMPTY) {
+      this.charge(this.running, System.nanoTime() - this.turnStarted);
+    }
+    this.running = Cell.EMPTY;
+    if (this.timeout != null) {
+      this.timeout.cancel(false);
+      this.timeout = null;
+    }
+  }
+
+  private long allowance(int side) {
+    return this.mainNanos[side] + this.periods[side] * this.control.getPeriodNanos();
+  }
+
+  /**
+   * Charges a player for one move.
+   *
+   * @return false if the move took longer than all their time, in which case they are flagged.
+   */
+  private boolean charge(Cell color, long elapsed) {
+    int side = side(color);
+    ++this.moves[side];
+    if (elapsed >= this.allowance(side)) {
+      this.flag(side);
+      return false;
+    }
+    if (elapsed <= this.mainNanos[side]) {
+      this.mainNanos[side] -= elapsed;
+    } else {
+      long over = elapsed - this.mainNanos[side];
+      this.mainNanos[side] = 0;
+      this.periods[side] -= (int) (over / this.control.getPeriodNanos());
+    }
+    this.mainNanos[side] += this.control.getIncrementNanos();
+    return true;
+  }
+
+  private void flag(int side) {
+    this.mainNanos[side] = 0;
+    this.periods[side] = 0;
+    this.flagged = side == 0 ? Cell.BLACK : Cell.WHITE;
+    this.running = Cell.EMPTY;
+  }
+
+  private void expire(Cell color, long generation) {
+    synchronized (this) {
+      if (generation != this.turn || this.running != color || this.flagged != Cell.EMPTY) {
+        return;
+      }
+      this.flag(side(color));
+    }
+    if (this.onTimeout != null) {
+      this.onTimeout.accept(color);
+    }
+  }
+
+  /**
+   * Gets the player who ran out of time.
+   *
+   * @return the flagged colour, or EMPTY if nobody has run out of time.
+   */
+  public synchronized Cell getFlagged() {
+    return this.flagged;
+  }
+
+  /**
+   * Gets the player whose time is running.
+   *
+   * @return the colour to move, or EMPTY if the clock is stopped.
+   */
+  public synchronized Cell getRunning() {
+    return this.running;
+  }
+
+  /**
+   * Gets the main time a player has left, counting the move they are thinking about.
+   *
+   * @param color the player.
+   * @return the main time left in nanoseconds, never negative.
+   */
+  public synchronized long getRemainingNanos(Cell color) {
+    int side = side(color);
+    long left = this.mainNanos[side];
+    if (this.running == color) {
+      left -= System.nanoTime() - this.turnStarted;
+    }
+    return Math.max(0, left);
+  }
+
+  /**
+   * Gets the byoyomi periods a player has left at the start of their current or next move.
+   *
+   * @param color the player.
+   * @return the periods left.
+   */
+  public synchronized int getPeriods(Cell color) {
+    return this.periods[side(color)];
+  }
+
+  /**
+   * Gets the number of moves a player has been charged for.
+   *
+   * @param color the player.
+   * @return the number of moves.
+   */
+  public synchronized int getMoves(Cell color) {
+    return this.moves[side(color)];
+  }
+
+  /**
+   * Suggests how long a player should think about their next move: an even share of their main
+   * time over the moves they still expect to make, plus most of what they get back for a move
+   * (the increment, or a byoyomi period). It never reaches the time they actually have left.
+   *
+   * @param color the player to move.
+   * @param movesLeft the number of moves the player still expects to make.
+   * @return the time to think in nanoseconds.
+   */
+  public synchronized long budgetNanos(Cell color, int movesLeft) {
+    int side = side(color);
+    long elapsed = this.running == color ? System.nanoTime() - this.turnStarted : 0;
+    long main = Math.max(0, this.mainNanos[side] - elapsed);
+    long share = main / Math.max(1, movesLeft);
+    long spendable = this.mainNanos[side] - elapsed;
+    if (this.periods[side] > 0) {
+      // A move which ends within its first period costs no period.
+      share += this.control.getPeriodNanos() * 3 / 4;
+      spendable += this.control.getPeriodNanos();
+    } else {
+      share += this.control.getIncrementNanos() * 3 / 4;
+    }
+    return Math.max(0, Math.min(share, spendable * 9 / 10));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("black %.3fs white %.3fs",
+            this.getRemainingNanos(Cell.BLACK) / 1e9, this.getRemainingNanos(Cell.WHITE) / 1e9);
+  }
+}
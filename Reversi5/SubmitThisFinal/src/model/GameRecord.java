@@ -0,0 +1,128 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The moves of one game on a {@link HexBoard} of a given radius, in the order they were played.
+ * A pass is stored as a null move. A record is written as one line: the radius followed by each
+ * move as "y,p,n" or "pass", separated by spaces.
+ */
+public final class GameRecord {
+  private static final String PASS = "pass";
+
+  private final int radius;
+  private final List<HexCoordinate> moves;
+
+  /**
+   * Constructs a game record.
+   *
+   * @param radius the radius of the board the game was played on.
+   * @param moves the moves in order, with null for a pass.
+   * @throws IllegalArgumentException if the radius is negative.
+   */
+  public GameRecord(int radius, List<HexCoordinate> moves) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius number is invalid");
+    }
+    this.radius = radius;
+    this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+  }
+
+  /**
+   * Gets the radius of the board the game was played on.
+   *
+   * @return the board radius.
+   */
+  public int getRadius() {
+    return this.radius;
+  }
+
+  /**
+   * Gets the moves of the game.
+   *
+   * @return the moves in order, with null for a pass.
+   */
+  public List<HexCoordinate> getMoves() {
+    return this.moves;
+  }
+
+  /**
+   * Plays every move of this record on a new board.
+   *
+   * @return the board after the last move.
+   * @throws IllegalStateException if a move in the record is not valid.
+   */
+  public HexBoard replay() {
+    HexBoard board = new HexBoard(this.radius);
+    for (HexCoordinate move : this.moves) {
+      play(board, move);
+    }
+    return board;
+  }
+
+  /**
+   * Plays one move of a record on a board, where null is a pass.
+   *
+   * @param board the board to play on.
+   * @param move the move, or null to pass.
+   * @throws IllegalStateException if the move is not valid.
+   */
+  public static void play(HexBoard board, HexCoordinate move) {
+    if (move == null) {
+      board.pass();
+    } else if (board.getCellState(move) != Cell.EMPTY) {
+      throw new IllegalStateException("Not a valid move");
+    } else {
+      board.setCoordinateState(move);
+    }
+  }
+
+  /**
+   * Reads a record from the one-line format written by {@link #toString()}.
+   *
+   * @param line the line to read.
+   * @return the record.
+   * @throws IllegalArgumentException if the line is not a game record.
+   */
+  public static GameRecord parse(String line) {
+    String[] parts = line.trim().split("\\s+");
+    try {
+      int radius = Integer.parseInt(parts[0]);
+      List<HexCoordinate> moves = new ArrayList<>(parts.length - 1);
+      for (int i = 1; i < parts.length; ++i) {
+        if (PASS.equals(parts[i])) {
+          moves.add(null);
+        } else {
+          String[] c = parts[i].split(",");
+          moves.add(new HexCoordinate(Integer.parseInt(c[0]), Integer.parseInt(c[1]),
+                  Integer.parseInt(c[2])));
+        }
+      }
+      return new GameRecord(radius, moves);
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Not a game record: " + line);
+    }
+  }
+
+  /**
+   * Writes this record as one line.
+   *
+   * @return the radius followed by each move as "y,p,n" or "pass".
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append(this.radius);
+    for (HexCoordinate move : this.moves) {
+      builder.append(' ');
+      if (move == null) {
+        builder.append(PASS);
+      } else {
+        builder.append(move.getY()).append(',').append(move.getP()).append(',')
+                .append(move.getN());
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -1,11 +1,16 @@
 package model;
 
+import Controller.AsyncBoardObserver;
+import Controller.BoardChangeObserver;
 import Controller.BoardObserver;
 import Controller.IModelStatus;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Represents a hexagonal board for a two-player game. The board is composed of hexagonal cells
@@ -14,6 +19,14 @@ import java.util.List;
  */
 
 public class HexBoard implements Board, IModelStatus {
+  /**
+   * Orders moves by y, then p, then n. Searches sort the valid moves with it so that they try
+   * moves in the same order however the board happens to hash its cells.
+   */
+  public static final Comparator<HexCoordinate> MOVE_ORDER =
+          Comparator.comparingInt(HexCoordinate::getY).thenComparingInt(HexCoordinate::getP)
+                  .thenComparingInt(HexCoordinate::getN);
+
   public HashMap<Coordinate, Cell> board;
   public int radius;
   boolean startGameStatus = false;
@@ -21,8 +34,10 @@ public class HexBoard implements Board, IModelStatus {
   public Player userTwo;
   List<HexCoordinate> flankingDirections = new ArrayList();
   public Player currentPlayer;
-  public ArrayList<Coordinate> flippingList;
-  private List<BoardObserver> observers = new ArrayList();
+  public ArrayList<HexCoordinate> flippingList;
+  private List<BoardObserver> observers = new CopyOnWriteArrayList<>();
+  private long changeSequence = 0;
+  private GameClock clock;
 
   /**
    * Constructs a new HexBoard with the specified radius. Initializes the board with a mix of
@@ -82,12 +97,42 @@ public class HexBoard implements Board, IModelStatus {
     this.observers.add(observer);
   }
 
+  /**
+   * Adds a {@link BoardObserver} which is called on the given executor rather than on the thread
+   * changing the board. Changes made while a call is still waiting to run are merged into it.
+   *
+   * @param observer The {@link BoardObserver} to be added.
+   * @param executor The executor the observer is called on.
+   */
+  public void addObserver(BoardObserver observer, Executor executor) {
+    this.observers.add(new AsyncBoardObserver(observer, executor));
+  }
+
+  /**
+   * Removes a {@link BoardObserver}, however it was added. This is safe to call while observers
+   * are being notified; a removed asynchronous observer is not called again.
+   *
+   * @param observer The {@link BoardObserver} to be removed.
+   */
+  public void removeObserver(BoardObserver observer) {
+    for (BoardObserver o : this.observers) {
+      if (o == observer || o instanceof AsyncBoardObserver
+              && ((AsyncBoardObserver) o).getDelegate() == observer) {
+        if (o instanceof AsyncBoardObserver) {
+          ((AsyncBoardObserver) o).remove();
+        }
+        this.observers.remove(o);
+      }
+    }
+  }
+
   /**
    * Notifies all registered observers about a change in the board state.
    * <p>
    * This method iterates through all the registered observers and calls their
    * {@code onBoardChanged()} method, informing them about the board state change.
-   * It should be called whenever the board state is modified.
+   * It should be called whenever the board state is modified. Observers added with an executor
+   * only have a call scheduled here, so they cost the changing thread almost nothing.
    * </p>
    */
   public void notifyObservers() {
@@ -99,9 +144,27 @@ public class HexBoard implements Board, IModelStatus {
     }
   }
 
+  /**
+   * Notifies all registered observers about a move. Observers which take a
+   * {@link BoardChangeObserver change} are handed the change; the others are just told that the
+   * board changed.
+   *
+   * @param change what the move placed and flipped.
+   */
+  public void notifyObservers(BoardChange change) {
+    for (BoardObserver observer : this.observers) {
+      if (observer instanceof BoardChangeObserver) {
+        ((BoardChangeObserver) observer).onBoardChanged(change);
+      } else {
+        observer.onBoardChanged();
+      }
+    }
+  }
+
   /**
    * Constructs a new HexBoard by copying the state of an existing HexBoard.
-   * This includes the board's cells, players, and game status.
+   * This includes the board's cells, players, and game status. The copy gets its own players
+   * and no observers, so it can be played on another thread without touching the original.
    *
    * @param a The HexBoard to copy.
    */
@@ -118,10 +181,14 @@ public class HexBoard implements Board, IModelStatus {
     }
 
     this.startGameStatus = a.startGameStatus;
-    this.userOne = a.userOne;
-    this.userTwo = a.userTwo;
-    this.currentPlayer = this.userOne.equals(a.currentPlayer) ? this.userOne : this.userTwo;
+    this.userOne = new Player(Cell.BLACK);
+    this.userOne.score = a.userOne.score;
+    this.userTwo = new Player(Cell.WHITE);
+    this.userTwo.score = a.userTwo.score;
+    this.currentPlayer = a.userOne.equals(a.currentPlayer) ? this.userOne : this.userTwo;
     this.flankingDirections = new ArrayList(a.flankingDirections);
+    this.flippingList = new ArrayList();
+    this.changeSequence = a.changeSequence;
   }
 
   /**
@@ -158,8 +225,8 @@ public class HexBoard implements Board, IModelStatus {
   }
 
   /**
-   * Checks if the game is over. The game is over if there are no empty cells left or all non-empty
-   * cells are of the same color.
+   * Checks if the game is over. The game is over if there are no empty cells left, all non-empty
+   * cells are of the same color, or a player has run out of time on the game clock.
    *
    * @return true if the game is over, false otherwise.
    * @throws IllegalStateException If the game has not started yet.
@@ -168,7 +235,8 @@ public class HexBoard implements Board, IModelStatus {
     if (!this.startGameStatus) {
       throw new IllegalStateException("Game has not even started yet");
     } else {
-      return !this.containsEmptyCell() || this.allNonEmptyCellsSameColor();
+      return !this.containsEmptyCell() || this.allNonEmptyCellsSameColor()
+              || (this.clock != null && this.clock.getFlagged() != Cell.EMPTY);
     }
   }
 
@@ -214,10 +282,71 @@ public class HexBoard implements Board, IModelStatus {
       } else {
         this.currentPlayer = this.userOne;
       }
+    }
+  }
 
+  /**
+   * Passes: the player to move gives the turn to the opponent without placing a piece. This
+   * switches the player like {@link #switchPlayer()}, but it is a turn of the game, while a
+   * switch on its own may just be a look at the position from the other side, so the clock and
+   * subclasses which record the game count this and not the switch.
+   *
+   * @throws IllegalStateException If the game has not started yet.
+   */
+  public void pass() {
+    this.switchPlayer();
+    this.turnTaken();
+  }
+
+  /**
+   * Passes the clock on after a move or a pass, or stops it if that ended the game, so a
+   * finished game never times out.
+   */
+  private void turnTaken() {
+    if (this.clock == null) {
+      return;
+    }
+    boolean over = this.isGameOver();
+    if (!over && this.getAllValidMoves(this.currentPlayer).isEmpty()) {
+      // getAllValidMoves only looks at the player to move, so switch sides to ask about the
+      // other one.
+      this.switchPlayer();
+      over = this.getAllValidMoves(this.currentPlayer).isEmpty();
+      this.switchPlayer();
+    }
+    if (over) {
+      this.clock.stop();
+    } else {
+      this.clock.switchTo(this.currentPlayer.getColor());
     }
   }
 
+  /**
+   * Sets the clock for this game and starts it for the player to move. From then on every move
+   * and {@link #pass()} passes the clock over, and the move or pass which ends the game stops
+   * it. Copies of the board do not share the clock.
+   *
+   * @param clock the game clock, or null to stop timing the game.
+   */
+  public void setClock(GameClock clock) {
+    if (this.clock != null) {
+      this.clock.stop();
+    }
+    this.clock = clock;
+    if (clock != null) {
+      clock.switchTo(this.getCurrentPlayer().getColor());
+    }
+  }
+
+  /**
+   * Gets the clock for this game.
+   *
+   * @return the game clock, or null if the game is not timed.
+   */
+  public GameClock getClock() {
+    return this.clock;
+  }
+
   /**
    * Checks if there are any empty cells left on the board.
    *
@@ -408,12 +537,53 @@ public class HexBoard implements Board, IModelStatus {
           this.flipPieces((HexCoordinate) coordinate, flipCoord);
         }
 
-        this.notifyObservers();
+        // The change copies the flipped cells, so it is only built when someone will read it.
+        ++this.changeSequence;
+        if (!this.observers.isEmpty()) {
+          this.notifyObservers(new BoardChange(this.changeSequence,
+                  this.getCurrentPlayer().getColor(), (HexCoordinate) coordinate,
+                  this.flippingList));
+        }
         this.switchPlayer();
+        this.turnTaken();
       }
     }
   }
 
+  /**
+   * Plays a move for the current player, as {@link #setCoordinateState} does, and returns the
+   * cells it flipped so that {@link #undoMove} can take it back. Searches use the pair to walk
+   * the game tree on one board instead of copying the board at every ply.
+   *
+   * @param move the cell to play.
+   * @return the cells the move flipped.
+   * @throws IllegalStateException If the game has not started yet or if the move is not valid.
+   * @throws IllegalArgumentException If the coordinate is not valid.
+   */
+  public List<HexCoordinate> playMove(HexCoordinate move) {
+    this.setCoordinateState(move);
+    return new ArrayList<>(this.flippingList);
+  }
+
+  /**
+   * Takes back a move played by {@link #playMove}, including the mover's score, and gives the
+   * turn back to the mover. Observers are not told, so this is only meant for boards nothing
+   * else is watching, such as a search's own copy.
+   *
+   * @param move the cell that was played.
+   * @param flipped the cells the move flipped, as returned by {@link #playMove}.
+   * @throws IllegalStateException If the game has not started yet.
+   */
+  public void undoMove(HexCoordinate move, List<HexCoordinate> flipped) {
+    this.switchPlayer();
+    Cell opponent = this.getOpponentPlayer().getColor();
+    this.board.put(move, Cell.EMPTY);
+    for (HexCoordinate c : flipped) {
+      this.board.put(c, opponent);
+    }
+    this.getCurrentPlayer().score -= flipped.size();
+  }
+
   /**
    * Makes a list of pieces that need to be flipped after a certain move.
    * @return the list of moves possible.
@@ -441,6 +611,14 @@ public class HexBoard implements Board, IModelStatus {
     }
   }
 
+  /**
+   * Checks if the given components are a cell on the board, without making a coordinate.
+   */
+  private boolean isOnBoard(int y, int p, int n) {
+    return y + p + n == 0 && Math.abs(y) <= this.radius && Math.abs(p) <= this.radius
+            && Math.abs(n) <= this.radius;
+  }
+
   /**
    * Retrieves the current player in the game.
    *
@@ -550,8 +728,7 @@ public class HexBoard implements Board, IModelStatus {
     int p = h.getP() + dp;
     int n = h.getN() + dn;
 
-    for (boolean foundOpponent = false;
-         this.isValidCoordinate(new HexCoordinate(y, p, n)); n += dn) {
+    for (boolean foundOpponent = false; this.isOnBoard(y, p, n); n += dn) {
       Cell nextCell = this.getCoordinateState(new HexCoordinate(y, p, n));
       if (nextCell.equals(Cell.EMPTY) || nextCell.equals(currentPlayer) && !foundOpponent) {
         return false;
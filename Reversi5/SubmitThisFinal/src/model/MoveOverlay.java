@@ -0,0 +1,160 @@
+package model;
+
+/**
+ * The moves open to the player to move on one position, worked out for every cell at once: how
+ * many pieces a move on each cell would flip, with 0 for cells where the player cannot move.
+ * Built once per turn, it answers "is this a legal move" and "how many would it flip" with an
+ * array read instead of a scan of the six directions through the board.
+ */
+public final class MoveOverlay {
+  private static final int[][] DIRECTIONS = {{-1, 0}, {0, -1}, {1, -1}, {1, 0}, {0, 1}, {-1, 1}};
+
+  private final long version;
+  private final CellIndex index;
+  private final Cell color;
+  private final int[] flips;
+  private final int legalCount;
+
+  private MoveOverlay(long version, CellIndex index, Cell color, int[] flips, int legalCount) {
+    this.version = version;
+    this.index = index;
+    this.color = color;
+    this.flips = flips;
+    this.legalCount = legalCount;
+  }
+
+  /**
+   * Works out the moves on a snapshot.
+   *
+   * @param snapshot the position.
+   * @return the moves of the player to move, stamped with the snapshot's version.
+   */
+  public static MoveOverlay of(BoardSnapshot snapshot) {
+    Cell[] cells = new Cell[CellIndex.of(snapshot.getRadius()).size()];
+    for (int id = 0; id < cells.length; ++id) {
+      cells[id] = snapshot.getCell(id);
+    }
+    return compute(snapshot.getVersion(), snapshot.getRadius(), cells,
+            snapshot.getCurrentColor());
+  }
+
+  /**
+   * Works out the moves on a board. Only the thread which changes the board may call this.
+   *
+   * @param board the position.
+   * @return the moves of the player to move, with version -1.
+   */
+  public static MoveOverlay of(ReadOnlyBoard board) {
+    CellIndex index = CellIndex.of(board.getRadius());
+    Cell[] cells = new Cell[index.size()];
+    for (int id = 0; id < cells.length; ++id) {
+      cells[id] = board.getCoordinateState(index.coordinate(id));
+    }
+    return compute(-1, board.getRadius(), cells, board.getCurrentPlayer().getColor());
+  }
+
+  /**
+   * Counts the flips of a move on every empty cell. A direction flips the run of opponent
+   * pieces next to the cell if the run ends in one of the mover's pieces.
+   */
+  private static MoveOverlay compute(long version, int radius, Cell[] cells, Cell color) {
+    CellIndex index = CellIndex.of(radius);
+    Cell opponent = color == Cell.BLACK ? Cell.WHITE : Cell.BLACK;
+    int[] flips = new int[cells.length];
+    int legal = 0;
+    for (int id = 0; id < cells.length; ++id) {
+      if (cells[id] != Cell.EMPTY) {
+        continue;
+      }
+      HexCoordinate at = index.coordinate(id);
+      int total = 0;
+      for (int[] direction : DIRECTIONS) {
+        int y = at.getY() + direction[0];
+        int p = at.getP() + direction[1];
+        int run = 0;
+        int next = index.indexOf(y, p);
+        while (next >= 0 && cells[next] == opponent) {
+          ++run;
+          y += direction[0];
+          p += direction[1];
+          next = index.indexOf(y, p);
+        }
+        if (run > 0 && next >= 0 && cells[next] == color) {
+          total += run;
+        }
+      }
+      flips[id] = total;
+      if (total > 0) {
+        ++legal;
+      }
+    }
+    return new MoveOverlay(version, index, color, flips, legal);
+  }
+
+  /**
+   * Gets the version of the snapshot these moves were worked out on.
+   *
+   * @return the snapshot's version, or -1 if they were worked out on a board.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Gets the colour of the player these moves are for.
+   *
+   * @return BLACK or WHITE.
+   */
+  public Cell getColor() {
+    return this.color;
+  }
+
+  /**
+   * Gets the radius of the board.
+   *
+   * @return the radius.
+   */
+  public int getRadius() {
+    return this.index.getRadius();
+  }
+
+  /**
+   * Gets how many pieces a move on a cell would flip.
+   *
+   * @param id the cell id.
+   * @return the number of flips, or 0 if the move is not legal.
+   */
+  public int getFlips(int id) {
+    return this.flips[id];
+  }
+
+  /**
+   * Gets how many pieces a move on a coordinate would flip.
+   *
+   * @param coordinate the coordinate.
+   * @return the number of flips, or 0 if the move is not legal or not on the board.
+   */
+  public int getFlips(HexCoordinate coordinate) {
+    int id = this.index.indexOf(coordinate);
+    return id < 0 ? 0 : this.flips[id];
+  }
+
+  /**
+   * Checks whether the player to move may move on a cell.
+   *
+   * @param id the cell id.
+   * @return true if the cell is empty and a move there flips something.
+   */
+  public boolean isLegal(int id) {
+    return this.flips[id] > 0;
+  }
+
+  /**
+   * Gets the number of legal moves.
+   *
+   * @return the number of cells the player to move may move on.
+   */
+  public int getLegalCount() {
+    return this.legalCount;
+  }
+}
@@ -8,6 +8,7 @@ package model;
 import Controller.BoardObserver;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public interface ReadOnlyBoard {
   HashMap getBoard();
@@ -39,5 +40,10 @@ public interface ReadOnlyBoard {
   List getFlipPiecesList();
 
   void addObserver(BoardObserver var1);
+
+  void addObserver(BoardObserver var1, Executor var2);
+
+  void removeObserver(BoardObserver var1);
+
   int calculateFlipsIfMoved(Coordinate coordinate);
 }
@@ -2,6 +2,7 @@ package model;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import Controller.BoardObserver;
 
@@ -181,6 +182,16 @@ public class SquareBoard implements Board{
 
   }
 
+  @Override
+  public void addObserver(BoardObserver var1, Executor var2) {
+
+  }
+
+  @Override
+  public void removeObserver(BoardObserver var1) {
+
+  }
+
   @Override
   public int calculateFlipsIfMoved(Coordinate coordinate) {
     return 0;
@@ -0,0 +1,104 @@
+package model;
+
+/**
+ * The time each player is given for a game: a main time, plus either an increment added after
+ * every move (Fischer) or a number of byoyomi periods which are used up only when a move takes
+ * longer than a whole period. With neither it is sudden death. All times are kept in nanoseconds.
+ */
+public final class TimeControl {
+  private final long mainNanos;
+  private final long incrementNanos;
+  private final int periods;
+  private final long periodNanos;
+
+  private TimeControl(long mainNanos, long incrementNanos, int periods, long periodNanos) {
+    if (mainNanos < 0 || incrementNanos < 0 || periods < 0 || periodNanos < 0
+            || (periods > 0) != (periodNanos > 0)) {
+      throw new IllegalArgumentException("Time control is invalid");
+    }
+    this.mainNanos = mainNanos;
+    this.incrementNanos = incrementNanos;
+    this.periods = periods;
+    this.periodNanos = periodNanos;
+  }
+
+  /**
+   * Returns a sudden death control, where a player who runs out of time loses.
+   *
+   * @param mainMillis the time for the whole game, in milliseconds.
+   * @return the time control.
+   */
+  public static TimeControl suddenDeath(long mainMillis) {
+    return new TimeControl(mainMillis * 1_000_000L, 0, 0, 0);
+  }
+
+  /**
+   * Returns a Fischer control, which adds an increment to a player's time after each move.
+   *
+   * @param mainMillis the time at the start of the game, in milliseconds.
+   * @param incrementMillis the time added after each move, in milliseconds.
+   * @return the time control.
+   */
+  public static TimeControl fischer(long mainMillis, long incrementMillis) {
+    return new TimeControl(mainMillis * 1_000_000L, incrementMillis * 1_000_000L, 0, 0);
+  }
+
+  /**
+   * Returns a byoyomi control. Once the main time is spent, each move must be made within one
+   * period; a move which takes longer uses up one period for each whole period it took.
+   *
+   * @param mainMillis the main time, in milliseconds.
+   * @param periods the number of periods.
+   * @param periodMillis the length of each period, in milliseconds.
+   * @return the time control.
+   */
+  public static TimeControl byoyomi(long mainMillis, int periods, long periodMillis) {
+    return new TimeControl(mainMillis * 1_000_000L, 0, periods, periodMillis * 1_000_000L);
+  }
+
+  /**
+   * Gets the main time.
+   *
+   * @return the main time in nanoseconds.
+   */
+  public long getMainNanos() {
+    return this.mainNanos;
+  }
+
+  /**
+   * Gets the Fischer increment.
+   *
+   * @return the increment in nanoseconds, or 0 if there is none.
+   */
+  public long getIncrementNanos() {
+    return this.incrementNanos;
+  }
+
+  /**
+   * Gets the number of byoyomi periods.
+   *
+   * @return the number of periods, or 0 if there are none.
+   */
+  public int getPeriods() {
+    return this.periods;
+  }
+
+  /**
+   * Gets the length of a byoyomi period.
+   *
+   * @return the period length in nanoseconds, or 0 if there are no periods.
+   */
+  public long getPeriodNanos() {
+    return this.periodNanos;
+  }
+
+  @Override
+  public String toString() {
+    if (this.periods > 0) {
+      return String.format("%dms+%dx%dms", this.mainNanos / 1_000_000L, this.periods,
+              this.periodNanos / 1_000_000L);
+    }
+    return String.format("%dms+%dms", this.mainNanos / 1_000_000L,
+            this.incrementNanos / 1_000_000L);
+  }
+}
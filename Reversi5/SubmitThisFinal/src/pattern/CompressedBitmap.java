@@ -0,0 +1,340 @@
+package pattern;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative ints stored roaring style. The ints are split into chunks of 65536 by
+ * their high 16 bits, and each chunk keeps its low 16 bits either as a sorted array, while it
+ * has at most 4096 of them, or as a 65536 bit bitmap once it has more. Sparse and dense sets both
+ * stay small, and intersecting two sets only looks at the chunks they have in common.
+ * A bitmap is not safe for use by several threads while it is being changed.
+ */
+public final class CompressedBitmap {
+  private static final int ARRAY_MAX = 4096;
+  private static final int WORDS = 1024;
+
+  private char[] keys = new char[4];
+  private Object[] containers = new Object[4];
+  private int[] sizes = new int[4];
+  private int count;
+
+  /**
+   * Constructs an empty bitmap.
+   */
+  public CompressedBitmap() {
+  }
+
+  /**
+   * Constructs a bitmap holding the given ints.
+   *
+   * @param values the ints, in any order.
+   * @return the bitmap.
+   */
+  public static CompressedBitmap of(int... values) {
+    CompressedBitmap bitmap = new CompressedBitmap();
+    for (int value : values) {
+      bitmap.add(value);
+    }
+    return bitmap;
+  }
+
+  private int find(char key) {
+    // Ints are usually added in increasing order, so check the last chunk first.
+    if (this.count > 0 && this.keys[this.count - 1] == key) {
+      return this.count - 1;
+    }
+    return Arrays.binarySearch(this.keys, 0, this.count, key);
+  }
+
+  private void insertChunk(int at, char key, Object container, int size) {
+    if (this.count == this.keys.length) {
+      int capacity = this.count * 2;
+      this.keys = Arrays.copyOf(this.keys, capacity);
+      this.containers = Arrays.copyOf(this.containers, capacity);
+      this.sizes = Arrays.copyOf(this.sizes, capacity);
+    }
+    System.arraycopy(this.keys, at, this.keys, at + 1, this.count - at);
+    System.arraycopy(this.containers, at, this.containers, at + 1, this.count - at);
+    System.arraycopy(this.sizes, at, this.sizes, at + 1, this.count - at);
+    this.keys[at] = key;
+    this.containers[at] = container;
+    this.sizes[at] = size;
+    ++this.count;
+  }
+
+  /**
+   * Adds an int. Adding ints in increasing order is fastest.
+   *
+   * @param value the int to add.
+   * @throws IllegalArgumentException if the int is negative.
+   */
+  public void add(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Bitmap only holds non-negative ints");
+    }
+    char key = (char) (value >>> 16);
+    char low = (char) value;
+    int at = this.find(key);
+    if (at < 0) {
+      at = -at - 1;
+      this.insertChunk(at, key, new char[] {low, 0, 0, 0}, 1);
+      return;
+    }
+    Object container = this.containers[at];
+    int size = this.sizes[at];
+    if (container instanceof long[]) {
+      long[] words = (long[]) container;
+      long bit = 1L << low;
+      if ((words[low >>> 6] & bit) == 0) {
+        words[low >>> 6] |= bit;
+        ++this.sizes[at];
+      }
+      return;
+    }
+    char[] array = (char[]) container;
+    int slot = size > 0 && array[size - 1] < low ? -size - 1
+            : Arrays.binarySearch(array, 0, size, low);
+    if (slot >= 0) {
+      return;
+    }
+    slot = -slot - 1;
+    if (size == ARRAY_MAX) {
+      long[] words = toWords(array, size);
+      words[low >>> 6] |= 1L << low;
+      this.containers[at] = words;
+    } else {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.min(ARRAY_MAX, size * 2));
+        this.containers[at] = array;
+      }
+      System.arraycopy(array, slot, array, slot + 1, size - slot);
+      array[slot] = low;
+    }
+    ++this.sizes[at];
+  }
+
+  private static long[] toWords(char[] array, int size) {
+    long[] words = new long[WORDS];
+    for (int i = 0; i < size; ++i) {
+      words[array[i] >>> 6] |= 1L << array[i];
+    }
+    return words;
+  }
+
+  /**
+   * Checks whether an int is in the set.
+   *
+   * @param value the int to look for.
+   * @return true if it is in the set.
+   */
+  public boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int at = this.find((char) (value >>> 16));
+    if (at < 0) {
+      return false;
+    }
+    char low = (char) value;
+    Object container = this.containers[at];
+    if (container instanceof long[]) {
+      return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+    return Arrays.binarySearch((char[]) container, 0, this.sizes[at], low) >= 0;
+  }
+
+  /**
+   * Gets the number of ints in the set.
+   *
+   * @return the cardinality.
+   */
+  public long cardinality() {
+    long total = 0;
+    for (int i = 0; i < this.count; ++i) {
+      total += this.sizes[i];
+    }
+    return total;
+  }
+
+  /**
+   * Checks whether the set is empty.
+   *
+   * @return true if it holds no ints.
+   */
+  public boolean isEmpty() {
+    return this.count == 0;
+  }
+
+  /**
+   * Intersects this set with another.
+   *
+   * @param other the other set.
+   * @return a new set of the ints in both.
+   */
+  public CompressedBitmap and(CompressedBitmap other) {
+    CompressedBitmap result = new CompressedBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < this.count && j < other.count) {
+      if (this.keys[i] < other.keys[j]) {
+        ++i;
+      } else if (this.keys[i] > other.keys[j]) {
+        ++j;
+      } else {
+        result.appendAnd(this.keys[i], this.containers[i], this.sizes[i], other.containers[j],
+                other.sizes[j]);
+        ++i;
+        ++j;
+      }
+    }
+    return result;
+  }
+
+  private void appendAnd(char key, Object a, int sizeA, Object b, int sizeB) {
+    if (a instanceof long[] && b instanceof long[]) {
+      long[] words = new long[WORDS];
+      int size = 0;
+      for (int w = 0; w < WORDS; ++w) {
+        words[w] = ((long[]) a)[w] & ((long[]) b)[w];
+        size += Long.bitCount(words[w]);
+      }
+      if (size > ARRAY_MAX) {
+        this.insertChunk(this.count, key, words, size);
+      } else if (size > 0) {
+        this.insertChunk(this.count, key, toArray(words, size), size);
+      }
+      return;
+    }
+    if (a instanceof long[]) {
+      this.appendAnd(key, b, sizeB, a, sizeA);
+      return;
+    }
+    char[] left = (char[]) a;
+    char[] out = new char[Math.min(sizeA, b instanceof long[] ? sizeA : sizeB)];
+    int size = 0;
+    if (b instanceof long[]) {
+      long[] words = (long[]) b;
+      for (int i = 0; i < sizeA; ++i) {
+        if ((words[left[i] >>> 6] & (1L << left[i])) != 0) {
+          out[size++] = left[i];
+        }
+      }
+    } else {
+      char[] right = (char[]) b;
+      for (int i = 0, j = 0; i < sizeA && j < sizeB; ) {
+        if (left[i] < right[j]) {
+          ++i;
+        } else if (left[i] > right[j]) {
+          ++j;
+        } else {
+          out[size++] = left[i];
+          ++i;
+          ++j;
+        }
+      }
+    }
+    if (size > 0) {
+      this.insertChunk(this.count, key, out, size);
+    }
+  }
+
+  private static char[] toArray(long[] words, int size) {
+    char[] array = new char[size];
+    int at = 0;
+    for (int w = 0; w < WORDS; ++w) {
+      for (long word = words[w]; word != 0; word &= word - 1) {
+        array[at++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Adds every int of another set to this one.
+   *
+   * @param other the set to add.
+   * @return this set.
+   */
+  public CompressedBitmap or(CompressedBitmap other) {
+    for (int j = 0; j < other.count; ++j) {
+      char key = other.keys[j];
+      int at = this.find(key);
+      if (at < 0) {
+        Object copy = other.containers[j] instanceof long[]
+                ? ((long[]) other.containers[j]).clone()
+                : Arrays.copyOf((char[]) other.containers[j], other.sizes[j]);
+        this.insertChunk(-at - 1, key, copy, other.sizes[j]);
+      } else if (other.containers[j] instanceof long[]) {
+        long[] words = this.containers[at] instanceof long[] ? (long[]) this.containers[at]
+                : toWords((char[]) this.containers[at], this.sizes[at]);
+        long[] theirs = (long[]) other.containers[j];
+        int size = 0;
+        for (int w = 0; w < WORDS; ++w) {
+          words[w] |= theirs[w];
+          size += Long.bitCount(words[w]);
+        }
+        this.containers[at] = words;
+        this.sizes[at] = size;
+      } else {
+        char[] theirs = (char[]) other.containers[j];
+        int high = key << 16;
+        for (int i = 0; i < other.sizes[j]; ++i) {
+          this.add(high | theirs[i]);
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Calls an action with every int in the set, in increasing order.
+   *
+   * @param action the action to call.
+   */
+  public void forEach(IntConsumer action) {
+    for (int i = 0; i < this.count; ++i) {
+      int high = this.keys[i] << 16;
+      Object container = this.containers[i];
+      if (container instanceof long[]) {
+        long[] words = (long[]) container;
+        for (int w = 0; w < WORDS; ++w) {
+          for (long word = words[w]; word != 0; word &= word - 1) {
+            action.accept(high | (w * 64 + Long.numberOfTrailingZeros(word)));
+          }
+        }
+      } else {
+        char[] array = (char[]) container;
+        for (int j = 0; j < this.sizes[i]; ++j) {
+          action.accept(high | array[j]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Lists the ints in the set.
+   *
+   * @return the ints in increasing order.
+   */
+  public int[] toArray() {
+    int[] values = new int[(int) this.cardinality()];
+    int[] at = new int[1];
+    this.forEach(value -> values[at[0]++] = value);
+    return values;
+  }
+
+  /**
+   * Estimates the memory the set's contents take.
+   *
+   * @return the size in bytes of the chunk arrays.
+   */
+  public long sizeInBytes() {
+    long bytes = this.keys.length * 2L + this.sizes.length * 4L;
+    for (int i = 0; i < this.count; ++i) {
+      bytes += this.containers[i] instanceof long[] ? WORDS * 8L
+              : ((char[]) this.containers[i]).length * 2L;
+    }
+    return bytes;
+  }
+}
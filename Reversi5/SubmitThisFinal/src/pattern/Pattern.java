@@ -0,0 +1,150 @@
+package pattern;
+
+import model.Cell;
+
+/**
+ * Names the features of a position which the {@link PatternIndex} can find. Each feature is a
+ * long id made of a kind, the board radius, an argument such as which corner, and a value:
+ * <pre>
+ *   corner  the state of one of the six corners, numbered clockwise from (r, -r, 0)
+ *   edge    the states of every cell along one edge, from its corner to the next
+ *   black   the number of black discs
+ *   white   the number of white discs
+ *   empty   the number of empty cells
+ *   turn    the colour to move
+ * </pre>
+ * Cell states are written with the symbols of {@link Cell}: X, O and -.
+ */
+public final class Pattern {
+  static final int CORNER = 1;
+  static final int EDGE = 2;
+  static final int BLACK = 3;
+  static final int WHITE = 4;
+  static final int EMPTY = 5;
+  static final int TURN = 6;
+
+  private Pattern() {
+  }
+
+  static long id(int kind, int radius, int argument, int value) {
+    return ((long) kind << 48) | ((long) radius << 40) | ((long) argument << 32)
+            | (value & 0xFFFFFFFFL);
+  }
+
+  static int code(Cell cell) {
+    return cell == Cell.EMPTY ? 0 : cell == Cell.BLACK ? 1 : 2;
+  }
+
+  /**
+   * Names the state of a corner.
+   *
+   * @param radius the radius of the board.
+   * @param corner the corner, from 0 to 5.
+   * @param cell the state of the corner.
+   * @return the pattern id.
+   */
+  public static long corner(int radius, int corner, Cell cell) {
+    return id(CORNER, radius, corner, code(cell));
+  }
+
+  /**
+   * Names the states of the cells along an edge.
+   *
+   * @param radius the radius of the board.
+   * @param edge the edge, from 0 to 5, which runs from that corner to the next.
+   * @param cells the radius + 1 cell states along the edge, such as "X--O".
+   * @return the pattern id.
+   * @throws IllegalArgumentException if the cells are not one symbol per cell of the edge.
+   */
+  public static long edge(int radius, int edge, String cells) {
+    if (radius + 1 > 20) {
+      throw new IllegalArgumentException("Edges are only indexed up to radius 19");
+    }
+    if (cells.length() != radius + 1) {
+      throw new IllegalArgumentException("Edge has " + (radius + 1) + " cells: " + cells);
+    }
+    int value = 0;
+    for (int i = cells.length() - 1; i >= 0; --i) {
+      value = value * 3 + code(parseCell(cells.charAt(i)));
+    }
+    return id(EDGE, radius, edge, value);
+  }
+
+  /**
+   * Names a number of discs of one colour, or of empty cells.
+   *
+   * @param radius the radius of the board.
+   * @param cell BLACK or WHITE for disc counts, EMPTY for empty cells.
+   * @param count the number.
+   * @return the pattern id.
+   */
+  public static long count(int radius, Cell cell, int count) {
+    return id(cell == Cell.BLACK ? BLACK : cell == Cell.WHITE ? WHITE : EMPTY, radius, 0, count);
+  }
+
+  /**
+   * Names the colour to move.
+   *
+   * @param radius the radius of the board.
+   * @param cell BLACK or WHITE.
+   * @return the pattern id.
+   */
+  public static long turn(int radius, Cell cell) {
+    return id(TURN, radius, 0, code(cell));
+  }
+
+  /**
+   * Reads a pattern written as "corner2=X", "edge0=X--O", "black=12", "white=3", "empty=20" or
+   * "turn=O".
+   *
+   * @param radius the radius of the board.
+   * @param text the pattern.
+   * @return the pattern id.
+   * @throws IllegalArgumentException if the text is not a pattern.
+   */
+  public static long parse(int radius, String text) {
+    int equals = text.indexOf('=');
+    if (equals < 0) {
+      throw new IllegalArgumentException("Not a pattern: " + text);
+    }
+    String name = text.substring(0, equals);
+    String value = text.substring(equals + 1);
+    try {
+      if (name.startsWith("corner")) {
+        return corner(radius, Integer.parseInt(name.substring(6)), parseCell(single(value)));
+      } else if (name.startsWith("edge")) {
+        return edge(radius, Integer.parseInt(name.substring(4)), value);
+      }
+      switch (name) {
+        case "black":
+          return count(radius, Cell.BLACK, Integer.parseInt(value));
+        case "white":
+          return count(radius, Cell.WHITE, Integer.parseInt(value));
+        case "empty":
+          return count(radius, Cell.EMPTY, Integer.parseInt(value));
+        case "turn":
+          return turn(radius, parseCell(single(value)));
+        default:
+          throw new IllegalArgumentException("Not a pattern: " + text);
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a pattern: " + text);
+    }
+  }
+
+  private static char single(String value) {
+    if (value.length() != 1) {
+      throw new IllegalArgumentException("Not a cell: " + value);
+    }
+    return value.charAt(0);
+  }
+
+  private static Cell parseCell(char symbol) {
+    for (Cell cell : Cell.values()) {
+      if (cell.toString().charAt(0) == symbol) {
+        return cell;
+      }
+    }
+    throw new IllegalArgumentException("Not a cell: " + symbol);
+  }
+}
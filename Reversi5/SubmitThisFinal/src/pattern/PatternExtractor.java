@@ -0,0 +1,71 @@
+package pattern;
+
+import java.util.function.LongConsumer;
+
+import model.Cell;
+import model.CellIndex;
+import model.HexBoard;
+
+/**
+ * Lists the patterns of positions on boards of one radius. The corner and edge cells are looked
+ * up once, as cell ids, when the extractor is made.
+ */
+final class PatternExtractor {
+  private static final int[][] CORNERS = {
+      {1, -1, 0}, {1, 0, -1}, {0, 1, -1}, {-1, 1, 0}, {-1, 0, 1}, {0, -1, 1}};
+
+  private final int radius;
+  private final CellIndex cells;
+  private final int[][] edges = new int[6][];
+
+  PatternExtractor(int radius) {
+    this.radius = radius;
+    this.cells = CellIndex.of(radius);
+    for (int k = 0; k < 6; ++k) {
+      int[] from = CORNERS[k];
+      int[] to = CORNERS[(k + 1) % 6];
+      this.edges[k] = new int[radius + 1];
+      for (int i = 0; i <= radius; ++i) {
+        int y = from[0] * (radius - i) + to[0] * i;
+        int p = from[1] * (radius - i) + to[1] * i;
+        this.edges[k][i] = this.cells.indexOf(y, p);
+      }
+    }
+  }
+
+  /**
+   * Gives every pattern of a position to a consumer.
+   *
+   * @param board the position.
+   * @param out given each pattern id.
+   */
+  void extract(HexBoard board, LongConsumer out) {
+    Cell[] state = new Cell[this.cells.size()];
+    int black = 0;
+    int white = 0;
+    for (int id = 0; id < state.length; ++id) {
+      state[id] = board.getCellState(this.cells.coordinate(id));
+      if (state[id] == Cell.BLACK) {
+        ++black;
+      } else if (state[id] == Cell.WHITE) {
+        ++white;
+      }
+    }
+    for (int k = 0; k < 6; ++k) {
+      int[] edge = this.edges[k];
+      out.accept(Pattern.corner(this.radius, k, state[edge[0]]));
+      // Edges longer than 20 cells do not fit a base 3 int, so they are not indexed.
+      if (edge.length <= 20) {
+        int value = 0;
+        for (int i = edge.length - 1; i >= 0; --i) {
+          value = value * 3 + Pattern.code(state[edge[i]]);
+        }
+        out.accept(Pattern.id(Pattern.EDGE, this.radius, k, value));
+      }
+    }
+    out.accept(Pattern.count(this.radius, Cell.BLACK, black));
+    out.accept(Pattern.count(this.radius, Cell.WHITE, white));
+    out.accept(Pattern.count(this.radius, Cell.EMPTY, state.length - black - white));
+    out.accept(Pattern.turn(this.radius, board.getCurrentPlayer().getColor()));
+  }
+}
@@ -0,0 +1,315 @@
+package pattern;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import archive.ArchiveReader;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * An inverted index from {@link Pattern}s to the positions which have them. Every position after
+ * each move of each game in an archive gets a position id, numbered in game order, and each
+ * pattern maps to a {@link CompressedBitmap} of position ids. A query intersects the bitmaps of
+ * its patterns, smallest first, without replaying any game.
+ * <p>
+ * Games are indexed in parallel, each worker building bitmaps for its own range of games which
+ * are then merged. {@link #update} only indexes the games added to the archive since the last
+ * update. Queries may run on other threads while an update is being built, and see the new games
+ * once it is merged.
+ * </p>
+ */
+public final class PatternIndex {
+  private static final int CHUNK = 256;
+
+  private final Map<Long, CompressedBitmap> postings = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Integer, PatternExtractor> extractors = new HashMap<>();
+  private long[] gameStart = new long[1];
+  private int games;
+
+  /**
+   * Indexes the games of an archive which are not in the index yet.
+   *
+   * @param reader the archive, which must be the one indexed before, grown or not.
+   * @param threads the number of threads to index on.
+   * @return the number of games added.
+   * @throws IllegalStateException if the archive has more positions than position ids.
+   */
+  public int update(ArchiveReader reader, int threads) {
+    int from;
+    long[] starts;
+    this.lock.readLock().lock();
+    try {
+      from = this.games;
+      starts = this.gameStart;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+    int to = (int) Math.min(Integer.MAX_VALUE - 1, reader.size());
+    if (to <= from) {
+      return 0;
+    }
+    starts = Arrays.copyOf(starts, to + 1);
+    for (int game = from; game < to; ++game) {
+      starts[game + 1] = starts[game] + reader.getMoveCount(game);
+    }
+    if (starts[to] > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Too many positions to index");
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    Map<Long, CompressedBitmap> built;
+    try {
+      built = pool.invoke(new Build(reader, starts, from, to));
+    } finally {
+      pool.shutdown();
+    }
+
+    this.lock.writeLock().lock();
+    try {
+      for (Map.Entry<Long, CompressedBitmap> entry : built.entrySet()) {
+        this.postings.merge(entry.getKey(), entry.getValue(), CompressedBitmap::or);
+      }
+      this.gameStart = starts;
+      this.games = to;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+    return to - from;
+  }
+
+  private PatternExtractor extractor(int radius) {
+    synchronized (this.extractors) {
+      return this.extractors.computeIfAbsent(radius, PatternExtractor::new);
+    }
+  }
+
+  /**
+   * Indexes a range of games, splitting it in half until each part is small.
+   */
+  private final class Build extends RecursiveTask<Map<Long, CompressedBitmap>> {
+    private static final long serialVersionUID = 1L;
+
+    private final ArchiveReader reader;
+    private final long[] starts;
+    private final int from;
+    private final int to;
+
+    private Build(ArchiveReader reader, long[] starts, int from, int to) {
+      this.reader = reader;
+      this.starts = starts;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Map<Long, CompressedBitmap> compute() {
+      if (this.to - this.from > CHUNK) {
+        int middle = (this.from + this.to) >>> 1;
+        Build right = new Build(this.reader, this.starts, middle, this.to);
+        right.fork();
+        Map<Long, CompressedBitmap> left =
+                new Build(this.reader, this.starts, this.from, middle).compute();
+        for (Map.Entry<Long, CompressedBitmap> entry : right.join().entrySet()) {
+          left.merge(entry.getKey(), entry.getValue(), CompressedBitmap::or);
+        }
+        return left;
+      }
+
+      Map<Long, CompressedBitmap> local = new HashMap<>();
+      for (int game = this.from; game < this.to; ++game) {
+        GameRecord record = this.reader.read(game);
+        PatternExtractor extractor = PatternIndex.this.extractor(record.getRadius());
+        HexBoard board = new HexBoard(record.getRadius());
+        int position = (int) this.starts[game];
+        for (HexCoordinate move : record.getMoves()) {
+          GameRecord.play(board, move);
+          int id = position++;
+          extractor.extract(board, pattern ->
+                  local.computeIfAbsent(pattern, key -> new CompressedBitmap()).add(id));
+        }
+      }
+      return local;
+    }
+  }
+
+  /**
+   * Finds the positions which have every one of the given patterns.
+   *
+   * @param patterns the pattern ids, at least one.
+   * @return the ids of the matching positions.
+   * @throws IllegalArgumentException if no pattern is given.
+   */
+  public CompressedBitmap query(long... patterns) {
+    if (patterns.length == 0) {
+      throw new IllegalArgumentException("Query needs at least one pattern");
+    }
+    this.lock.readLock().lock();
+    try {
+      CompressedBitmap[] lists = new CompressedBitmap[patterns.length];
+      for (int i = 0; i < patterns.length; ++i) {
+        lists[i] = this.postings.get(patterns[i]);
+        if (lists[i] == null) {
+          return new CompressedBitmap();
+        }
+      }
+      // Starting from the rarest pattern keeps every intermediate result small.
+      Arrays.sort(lists, Comparator.comparingLong(CompressedBitmap::cardinality));
+      CompressedBitmap result = lists[0].and(lists[0]);
+      for (int i = 1; i < lists.length && !result.isEmpty(); ++i) {
+        result = result.and(lists[i]);
+      }
+      return result;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the game a position belongs to.
+   *
+   * @param position the position id.
+   * @return the id of the game in the archive.
+   * @throws IllegalArgumentException if no such position has been indexed.
+   */
+  public int gameOf(int position) {
+    this.lock.readLock().lock();
+    try {
+      if (position < 0 || position >= this.gameStart[this.games]) {
+        throw new IllegalArgumentException("No position with id " + position);
+      }
+      int game = Arrays.binarySearch(this.gameStart, 0, this.games + 1, position);
+      if (game < 0) {
+        return -game - 2;
+      }
+      // Games with no moves share a start, so take the last game starting here.
+      while (game < this.games && this.gameStart[game + 1] == position) {
+        ++game;
+      }
+      return game;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds how many moves into its game a position is.
+   *
+   * @param position the position id.
+   * @return the number of moves played to reach the position, at least one.
+   * @throws IllegalArgumentException if no such position has been indexed.
+   */
+  public int plyOf(int position) {
+    int game = this.gameOf(position);
+    this.lock.readLock().lock();
+    try {
+      return (int) (position - this.gameStart[game]) + 1;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of games indexed.
+   *
+   * @return the number of games.
+   */
+  public int getGameCount() {
+    this.lock.readLock().lock();
+    try {
+      return this.games;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of positions indexed.
+   *
+   * @return the number of positions.
+   */
+  public long getPositionCount() {
+    this.lock.readLock().lock();
+    try {
+      return this.gameStart[this.games];
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of distinct patterns seen.
+   *
+   * @return the number of patterns.
+   */
+  public int getPatternCount() {
+    this.lock.readLock().lock();
+    try {
+      return this.postings.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Indexes an archive and prints the positions matching a query.
+   * <pre>
+   *   PatternIndex archive radius pattern... [--threads N] [--limit 20]
+   * </pre>
+   * Patterns are written as described in {@link Pattern#parse}.
+   *
+   * @param args the arguments described above.
+   * @throws IOException if the archive cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.out.println("Usage: PatternIndex archive radius pattern... [--threads N] "
+              + "[--limit 20]");
+      return;
+    }
+    int radius = Integer.parseInt(args[1]);
+    int threads = Runtime.getRuntime().availableProcessors();
+    int limit = 20;
+    long[] patterns = new long[args.length];
+    int count = 0;
+    for (int i = 2; i < args.length; ++i) {
+      if (args[i].equals("--threads") && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--limit") && i + 1 < args.length) {
+        limit = Integer.parseInt(args[++i]);
+      } else {
+        patterns[count++] = Pattern.parse(radius, args[i]);
+      }
+    }
+
+    PatternIndex index = new PatternIndex();
+    try (ArchiveReader reader = new ArchiveReader(Paths.get(args[0]))) {
+      long start = System.nanoTime();
+      index.update(reader, threads);
+      System.out.printf("Indexed %d games, %d positions, %d patterns in %.2f s%n",
+              index.getGameCount(), index.getPositionCount(), index.getPatternCount(),
+              (System.nanoTime() - start) / 1e9);
+    }
+    long start = System.nanoTime();
+    CompressedBitmap matches = index.query(Arrays.copyOf(patterns, count));
+    System.out.printf("%d positions match in %.3f ms%n", matches.cardinality(),
+            (System.nanoTime() - start) / 1e6);
+    int[] shown = new int[1];
+    int max = limit;
+    matches.forEach(position -> {
+      if (shown[0]++ < max) {
+        System.out.println("game " + index.gameOf(position) + " move " + index.plyOf(position));
+      }
+    });
+  }
+}
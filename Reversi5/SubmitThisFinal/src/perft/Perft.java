@@ -0,0 +1,327 @@
+package perft;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * Counts the positions reachable from the starting position of a {@link HexBoard} in exactly N
+ * plies. The count is used both to check that move generation is correct, by comparing it with
+ * the known-good counts in {@code perft-counts.txt}, and to time it in nodes per second.
+ * <p>
+ * A pass is a ply of its own when the player to move has no valid move but the opponent does.
+ * A position where neither player can move ends the game and counts as one leaf, however many
+ * plies are left.
+ * </p>
+ */
+public final class Perft {
+  /**
+   * The label used for a pass in a divided count.
+   */
+  public static final String PASS = "pass";
+
+  private final ForkJoinPool pool;
+  private final int splitPlies;
+
+  /**
+   * Constructs a perft counter which works on the given number of threads. With one thread every
+   * count is made on the calling thread.
+   *
+   * @param threads the number of threads to count with.
+   * @throws IllegalArgumentException if threads is not positive.
+   */
+  public Perft(int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.pool = threads == 1 ? null : new ForkJoinPool(threads);
+    this.splitPlies = 2;
+  }
+
+  /**
+   * Counts the leaves at the given depth below the position, on the calling thread. The board is
+   * played on and put back exactly as it was.
+   *
+   * @param board the position to count from.
+   * @param depth the number of plies to look ahead.
+   * @return the number of leaves.
+   */
+  public static long count(HexBoard board, int depth) {
+    if (depth == 0) {
+      return 1;
+    }
+    List<HexCoordinate> moves = board.getAllValidMoves(board.getCurrentPlayer());
+    if (moves.isEmpty()) {
+      board.switchPlayer();
+      long nodes = board.getAllValidMoves(board.getCurrentPlayer()).isEmpty()
+              ? 1 : count(board, depth - 1);
+      board.switchPlayer();
+      return nodes;
+    }
+    if (depth == 1) {
+      return moves.size();
+    }
+
+    long nodes = 0;
+    for (HexCoordinate move : moves) {
+      List<HexCoordinate> flipped = board.playMove(move);
+      nodes += count(board, depth - 1);
+      board.undoMove(move, flipped);
+    }
+    return nodes;
+  }
+
+  /**
+   * Counts the leaves at the given depth, split by the first ply.
+   *
+   * @param board the position to count from, which is left unchanged.
+   * @param depth the number of plies to look ahead, at least one.
+   * @return the count below each first move in coordinate order, keyed by "y,p,n" or "pass".
+   * @throws IllegalArgumentException if depth is less than one.
+   */
+  public Map<String, Long> divide(HexBoard board, int depth) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth must be at least one to divide");
+    }
+    Map<String, Long> counts = new LinkedHashMap<>();
+    List<Child> children = children(board);
+    List<CountTask> tasks = new ArrayList<>();
+    for (Child child : children) {
+      tasks.add(new CountTask(child.board, depth - 1, this.splitPlies - 1));
+    }
+    for (int i = 0; i < children.size(); ++i) {
+      CountTask task = tasks.get(i);
+      counts.put(children.get(i).label, this.pool == null ? task.compute() : this.pool.invoke(task));
+    }
+    return counts;
+  }
+
+  /**
+   * Counts the leaves at the given depth, spreading the work over this counter's threads.
+   *
+   * @param board the position to count from, which is left unchanged.
+   * @param depth the number of plies to look ahead.
+   * @return the number of leaves.
+   */
+  public long perft(HexBoard board, int depth) {
+    CountTask task = new CountTask(new HexBoard(board), depth, this.splitPlies);
+    return this.pool == null ? task.compute() : this.pool.invoke(task);
+  }
+
+  /**
+   * Stops this counter's threads.
+   */
+  public void shutdown() {
+    if (this.pool != null) {
+      this.pool.shutdown();
+    }
+  }
+
+  /**
+   * Lists the positions one ply below the given one, each on its own copy of the board. The list
+   * is empty if the game is over.
+   */
+  private static List<Child> children(HexBoard board) {
+    List<Child> children = new ArrayList<>();
+    List<HexCoordinate> moves = board.getAllValidMoves(board.getCurrentPlayer());
+    if (moves.isEmpty()) {
+      HexBoard passed = new HexBoard(board);
+      passed.switchPlayer();
+      if (!passed.getAllValidMoves(passed.getCurrentPlayer()).isEmpty()) {
+        children.add(new Child(PASS, passed));
+      }
+      return children;
+    }
+    moves.sort(HexBoard.MOVE_ORDER);
+    for (HexCoordinate move : moves) {
+      HexBoard child = new HexBoard(board);
+      child.setCoordinateState(move);
+      children.add(new Child(label(move), child));
+    }
+    return children;
+  }
+
+  private static String label(HexCoordinate move) {
+    return move.getY() + "," + move.getP() + "," + move.getN();
+  }
+
+  /**
+   * A position one ply below another, with the label of the ply that led to it.
+   */
+  private static final class Child {
+    private final String label;
+    private final HexBoard board;
+
+    private Child(String label, HexBoard board) {
+      this.label = label;
+      this.board = board;
+    }
+  }
+
+  /**
+   * Counts one subtree, forking a task per child for the first few plies.
+   */
+  private static final class CountTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final HexBoard board;
+    private final int depth;
+    private final int splitPlies;
+
+    private CountTask(HexBoard board, int depth, int splitPlies) {
+      this.board = board;
+      this.depth = depth;
+      this.splitPlies = splitPlies;
+    }
+
+    @Override
+    protected Long compute() {
+      if (this.splitPlies <= 0 || this.depth <= 2) {
+        return count(this.board, this.depth);
+      }
+      List<Child> children = children(this.board);
+      if (children.isEmpty()) {
+        return 1L;
+      }
+      List<CountTask> tasks = new ArrayList<>();
+      for (Child child : children) {
+        tasks.add(new CountTask(child.board, this.depth - 1, this.splitPlies - 1));
+      }
+      invokeAll(tasks);
+      long nodes = 0;
+      for (CountTask task : tasks) {
+        nodes += task.join();
+      }
+      return nodes;
+    }
+  }
+
+  /**
+   * Reads the known-good counts, one "radius depth nodes" line each. Blank lines and lines
+   * starting with '#' are skipped.
+   *
+   * @return the known counts as arrays of radius, depth and node count.
+   * @throws IOException if the counts file cannot be read.
+   */
+  public static List<long[]> knownCounts() throws IOException {
+    List<long[]> known = new ArrayList<>();
+    InputStream in = Perft.class.getResourceAsStream("perft-counts.txt");
+    if (in == null) {
+      throw new IOException("perft-counts.txt is missing from the classpath");
+    }
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] parts = line.split("\\s+");
+        known.add(new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+            Long.parseLong(parts[2])});
+      }
+    }
+    return known;
+  }
+
+  /**
+   * Runs perft from the command line.
+   * <pre>
+   *   Perft radius depth [--divide] [--threads N]
+   *   Perft --verify [--max-nodes N] [--threads N]
+   * </pre>
+   * The verify mode counts every known position up to the node limit, prints the speed of each
+   * and exits with status 1 if any count disagrees.
+   *
+   * @param args the command line arguments described above.
+   * @throws IOException if the known counts cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    boolean verify = false;
+    boolean divide = false;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long maxNodes = 50_000_000L;
+    List<String> positional = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      switch (args[i]) {
+        case "--verify":
+          verify = true;
+          break;
+        case "--divide":
+          divide = true;
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "--max-nodes":
+          maxNodes = Long.parseLong(args[++i]);
+          break;
+        default:
+          positional.add(args[i]);
+      }
+    }
+
+    Perft perft = new Perft(threads);
+    try {
+      if (verify) {
+        boolean ok = true;
+        for (long[] known : knownCounts()) {
+          if (known[2] > maxNodes) {
+            continue;
+          }
+          long start = System.nanoTime();
+          long nodes = perft.perft(new HexBoard((int) known[0]), (int) known[1]);
+          long elapsed = System.nanoTime() - start;
+          boolean match = nodes == known[2];
+          ok &= match;
+          System.out.println((match ? "ok   " : "FAIL ") + "radius " + known[0] + " depth "
+                  + known[1] + ": " + nodes + (match ? "" : " expected " + known[2]) + " "
+                  + speed(nodes, elapsed));
+        }
+        if (!ok) {
+          System.exit(1);
+        }
+        return;
+      }
+
+      if (positional.size() != 2) {
+        System.out.println("Usage: Perft radius depth [--divide] [--threads N]"
+                + " | Perft --verify [--max-nodes N] [--threads N]");
+        return;
+      }
+      HexBoard board = new HexBoard(Integer.parseInt(positional.get(0)));
+      int depth = Integer.parseInt(positional.get(1));
+      long start = System.nanoTime();
+      long nodes;
+      if (divide) {
+        nodes = 0;
+        for (Map.Entry<String, Long> entry : perft.divide(board, depth).entrySet()) {
+          System.out.println(entry.getKey() + ": " + entry.getValue());
+          nodes += entry.getValue();
+        }
+      } else {
+        nodes = perft.perft(board, depth);
+      }
+      System.out.println("Nodes: " + nodes + " " + speed(nodes, System.nanoTime() - start));
+    } finally {
+      perft.shutdown();
+    }
+  }
+
+  private static String speed(long nodes, long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    return String.format("(%.3f s, %.0f nodes/s)", seconds, nodes / Math.max(seconds, 1e-9));
+  }
+}
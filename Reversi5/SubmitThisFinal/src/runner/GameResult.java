@@ -0,0 +1,99 @@
+package runner;
+
+import model.Cell;
+import model.GameRecord;
+
+/**
+ * The outcome of one finished game: its record, the final disc counts and, in a timed game,
+ * the player who ran out of time.
+ */
+public final class GameResult {
+  private final GameRecord record;
+  private final int blackDiscs;
+  private final int whiteDiscs;
+  private final Cell flagged;
+
+  /**
+   * Constructs the result of a game played to the end.
+   *
+   * @param record the moves of the game.
+   * @param blackDiscs the number of black discs at the end.
+   * @param whiteDiscs the number of white discs at the end.
+   */
+  public GameResult(GameRecord record, int blackDiscs, int whiteDiscs) {
+    this(record, blackDiscs, whiteDiscs, Cell.EMPTY);
+  }
+
+  /**
+   * Constructs a game result.
+   *
+   * @param record the moves of the game.
+   * @param blackDiscs the number of black discs at the end.
+   * @param whiteDiscs the number of white discs at the end.
+   * @param flagged the player who ran out of time, or EMPTY if nobody did.
+   */
+  public GameResult(GameRecord record, int blackDiscs, int whiteDiscs, Cell flagged) {
+    this.record = record;
+    this.blackDiscs = blackDiscs;
+    this.whiteDiscs = whiteDiscs;
+    this.flagged = flagged;
+  }
+
+  /**
+   * Gets the moves of the game.
+   *
+   * @return the game record.
+   */
+  public GameRecord getRecord() {
+    return this.record;
+  }
+
+  /**
+   * Gets the number of black discs at the end of the game.
+   *
+   * @return the black disc count.
+   */
+  public int getBlackDiscs() {
+    return this.blackDiscs;
+  }
+
+  /**
+   * Gets the number of white discs at the end of the game.
+   *
+   * @return the white disc count.
+   */
+  public int getWhiteDiscs() {
+    return this.whiteDiscs;
+  }
+
+  /**
+   * Gets the player who ran out of time.
+   *
+   * @return the flagged colour, or EMPTY if nobody ran out of time.
+   */
+  public Cell getFlagged() {
+    return this.flagged;
+  }
+
+  /**
+   * Gets the winner: the opponent of a player who ran out of time, or else the colour with more
+   * discs at the end.
+   *
+   * @return BLACK or WHITE, or EMPTY for a tie.
+   */
+  public Cell getWinner() {
+    if (this.flagged != Cell.EMPTY) {
+      return this.flagged == Cell.BLACK ? Cell.WHITE : Cell.BLACK;
+    }
+    if (this.blackDiscs == this.whiteDiscs) {
+      return Cell.EMPTY;
+    }
+    return this.blackDiscs > this.whiteDiscs ? Cell.BLACK : Cell.WHITE;
+  }
+
+  @Override
+  public String toString() {
+    return "X " + this.blackDiscs + " O " + this.whiteDiscs + " winner " + this.getWinner()
+            + (this.flagged == Cell.EMPTY ? "" : " on time");
+  }
+}
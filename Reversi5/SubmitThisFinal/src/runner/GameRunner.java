@@ -0,0 +1,244 @@
+package runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Cell;
+import model.GameClock;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+import model.TimeControl;
+import strategy.CancellationToken;
+import strategy.SearchLimit;
+import strategy.SearchListener;
+import strategy.Strategy;
+import strategy.StrategyFactory;
+
+/**
+ * Plays whole games between two strategies on a {@link HexBoard} without any view or
+ * controller. A player with no valid move passes, and the game ends when the board is over or
+ * both players pass in a row. Nothing is printed while a game is played, so many games can be
+ * run back to back for testing and for generating data.
+ * <p>
+ * With a time control each game is played on a {@link GameClock}: every move is searched within
+ * the budget the clock suggests, and a player who runs out of time loses.
+ * </p>
+ */
+public final class GameRunner {
+  private final StrategyFactory black;
+  private final StrategyFactory white;
+  private final TimeControl control;
+
+  /**
+   * Constructs a runner for two strategies, whose games are not timed.
+   *
+   * @param black the factory for the strategy which plays black and moves first.
+   * @param white the factory for the strategy which plays white.
+   */
+  public GameRunner(StrategyFactory black, StrategyFactory white) {
+    this(black, white, null);
+  }
+
+  /**
+   * Constructs a runner for two strategies.
+   *
+   * @param black the factory for the strategy which plays black and moves first.
+   * @param white the factory for the strategy which plays white.
+   * @param control the time each player gets for a game, or null to play without a clock.
+   */
+  public GameRunner(StrategyFactory black, StrategyFactory white, TimeControl control) {
+    this.black = black;
+    this.white = white;
+    this.control = control;
+  }
+
+  /**
+   * Plays a game from the starting position.
+   *
+   * @param radius the radius of the board.
+   * @return the result of the game.
+   */
+  public GameResult play(int radius) {
+    return this.play(new GameRecord(radius, Collections.emptyList()));
+  }
+
+  /**
+   * Plays the moves of an opening and lets the strategies finish the game from there.
+   *
+   * @param opening the moves to play before the strategies take over.
+   * @return the result of the game, whose record starts with the opening.
+   * @throws IllegalStateException if a strategy picks a move which is not valid, or passes
+   *                               while it has a valid move.
+   */
+  public GameResult play(GameRecord opening) {
+    return this.play(opening, this.control == null ? null : new GameClock(this.control, null));
+  }
+
+  /**
+   * Plays the moves of an opening and lets the strategies finish the game from there on a
+   * clock, which starts once the opening has been played.
+   *
+   * @param opening the moves to play before the strategies take over.
+   * @param clock the stopped clock to play on, or null to play without one.
+   * @return the result of the game, whose record starts with the opening.
+   * @throws IllegalStateException if a strategy picks a move which is not valid, or passes
+   *                               while it has a valid move.
+   */
+  public GameResult play(GameRecord opening, GameClock clock) {
+    HexBoard board = opening.replay();
+    Strategy blackStrategy = this.black.create(board, board.userOne);
+    Strategy whiteStrategy = this.white.create(board, board.userTwo);
+    List<HexCoordinate> moves = new ArrayList<>(opening.getMoves());
+    int passes = 0;
+    board.setClock(clock);
+
+    while (passes < 2 && !board.isGameOver()) {
+      Strategy toMove = board.getCurrentPlayer() == board.userOne ? blackStrategy : whiteStrategy;
+      HexCoordinate move = clock == null ? toMove.determineMove()
+              : toMove.search(budget(board, clock), new CancellationToken(), SearchListener.NONE)
+                      .getMove();
+      if (clock != null && clock.getFlagged() != Cell.EMPTY) {
+        // The move came too late to count.
+        break;
+      }
+      if (move == null) {
+        if (!board.getAllValidMoves(board.getCurrentPlayer()).isEmpty()) {
+          throw new IllegalStateException("Strategy passed with a valid move");
+        }
+        board.pass();
+        ++passes;
+      } else {
+        if (board.getCellState(move) != Cell.EMPTY) {
+          throw new IllegalStateException("Not a valid move");
+        }
+        board.setCoordinateState(move);
+        passes = 0;
+      }
+      moves.add(move);
+    }
+
+    // The passes which ended the game are not part of it.
+    while (!moves.isEmpty() && moves.get(moves.size() - 1) == null && passes > 0) {
+      moves.remove(moves.size() - 1);
+      --passes;
+    }
+    GameResult result = result(board, new GameRecord(board.getRadius(), moves));
+    if (clock == null) {
+      return result;
+    }
+    board.setClock(null);
+    return new GameResult(result.getRecord(), result.getBlackDiscs(), result.getWhiteDiscs(),
+            clock.getFlagged());
+  }
+
+  /**
+   * Gives the player to move the share of their time the clock suggests, as a bot does.
+   */
+  private static SearchLimit budget(HexBoard board, GameClock clock) {
+    int empty = 0;
+    for (Cell cell : board.board.values()) {
+      if (cell == Cell.EMPTY) {
+        ++empty;
+      }
+    }
+    // Each player fills about half of the cells which are left.
+    return SearchLimit.ofNanos(clock.budgetNanos(board.getCurrentPlayer().getColor(),
+            (empty + 1) / 2));
+  }
+
+  /**
+   * Counts the discs on a finished board.
+   *
+   * @param board the board at the end of the game.
+   * @param record the moves which led to it.
+   * @return the result of the game.
+   */
+  static GameResult result(HexBoard board, GameRecord record) {
+    int blackDiscs = 0;
+    int whiteDiscs = 0;
+    for (Cell cell : board.board.values()) {
+      if (cell == Cell.BLACK) {
+        ++blackDiscs;
+      } else if (cell == Cell.WHITE) {
+        ++whiteDiscs;
+      }
+    }
+    return new GameResult(record, blackDiscs, whiteDiscs);
+  }
+
+  /**
+   * Plays many games from the starting position on a fixed number of threads.
+   *
+   * @param radius the radius of the board.
+   * @param games the number of games to play.
+   * @param threads the number of threads to play on.
+   * @return the number of games won by black, won by white and tied, in that order.
+   * @throws InterruptedException if the calling thread is interrupted while waiting.
+   */
+  public int[] playMany(int radius, int games, int threads) throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    AtomicInteger next = new AtomicInteger();
+    List<Future<int[]>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; ++t) {
+      futures.add(pool.submit(() -> {
+        int[] tally = new int[3];
+        while (next.getAndIncrement() < games) {
+          Cell winner = this.play(radius).getWinner();
+          ++tally[winner == Cell.BLACK ? 0 : winner == Cell.WHITE ? 1 : 2];
+        }
+        return tally;
+      }));
+    }
+
+    int[] total = new int[3];
+    try {
+      for (Future<int[]> future : futures) {
+        int[] tally = future.get();
+        for (int i = 0; i < total.length; ++i) {
+          total[i] += tally[i];
+        }
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Game failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    return total;
+  }
+
+  /**
+   * Plays many games and prints the tally and the speed.
+   * <pre>
+   *   GameRunner radius games blackStrategy whiteStrategy [threads]
+   * </pre>
+   *
+   * @param args the command line arguments described above.
+   * @throws InterruptedException if interrupted while the games run.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    if (args.length < 4) {
+      System.out.println("Usage: GameRunner radius games blackStrategy whiteStrategy [threads]");
+      return;
+    }
+    int radius = Integer.parseInt(args[0]);
+    int games = Integer.parseInt(args[1]);
+    GameRunner runner = new GameRunner(StrategyFactory.byName(args[2]),
+            StrategyFactory.byName(args[3]));
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+
+    long start = System.nanoTime();
+    int[] tally = runner.playMany(radius, games, threads);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println("Black " + tally[0] + " White " + tally[1] + " Tie " + tally[2]);
+    System.out.printf("%d games in %.2f s (%.0f games/min)%n", games, seconds,
+            games / seconds * 60);
+  }
+}
@@ -0,0 +1,87 @@
+package runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Cell;
+import model.GameClock;
+import model.GameRecord;
+import model.HexBoard;
+import model.TimeControl;
+import strategy.StrategyFactory;
+
+/**
+ * Plays timed games and checks that the game clock follows the game: each move and pass is
+ * charged once, a bare {@code switchPlayer()} is not charged, and the clock is stopped when the
+ * game ends, so nobody can be flagged after it is over.
+ */
+public final class TimedGames {
+  private TimedGames() {
+  }
+
+  /**
+   * Plays timed games and exits with status 1 if the clock did not follow any of them.
+   * <pre>
+   *   TimedGames [radius] [games] [seconds] [blackStrategy] [whiteStrategy]
+   * </pre>
+   * Each player gets the given number of seconds for the whole game. Once the games are over
+   * this waits out that time again, to make sure no finished game is flagged.
+   *
+   * @param args the command line arguments described above.
+   * @throws InterruptedException if interrupted while waiting for the clocks.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int radius = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    long seconds = args.length > 2 ? Long.parseLong(args[2]) : 2;
+    StrategyFactory black = StrategyFactory.byName(args.length > 3 ? args[3] : "two");
+    StrategyFactory white = StrategyFactory.byName(args.length > 4 ? args[4] : "one");
+    TimeControl control = TimeControl.suddenDeath(seconds * 1000);
+    GameRunner runner = new GameRunner(black, white, control);
+    boolean ok = checkBareSwitch(radius, control);
+
+    List<GameClock> clocks = new ArrayList<>();
+    List<Cell> flagged = new ArrayList<>();
+    for (int game = 0; game < games; ++game) {
+      GameClock clock = new GameClock(control, null);
+      clocks.add(clock);
+      GameResult result = runner.play(new GameRecord(radius, new ArrayList<>()), clock);
+      int plies = result.getRecord().getMoves().size();
+      int charged = clock.getMoves(Cell.BLACK) + clock.getMoves(Cell.WHITE);
+      boolean match = clock.getRunning() == Cell.EMPTY
+              && (result.getFlagged() != Cell.EMPTY || charged == plies);
+      ok &= match;
+      flagged.add(result.getFlagged());
+      System.out.println((match ? "ok   " : "FAIL ") + "game " + game + ": " + result + ", "
+              + plies + " plies, " + charged + " charged, running " + clock.getRunning());
+    }
+
+    Thread.sleep(seconds * 1000 + 500);
+    for (int game = 0; game < clocks.size(); ++game) {
+      Cell now = clocks.get(game).getFlagged();
+      if (now != flagged.get(game)) {
+        System.out.println("FAIL game " + game + ": " + now + " flagged after the game");
+        ok = false;
+      }
+    }
+    if (!ok) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Checks that switching sides to look at the position does not charge either player.
+   */
+  private static boolean checkBareSwitch(int radius, TimeControl control) {
+    HexBoard board = new GameRecord(radius, new ArrayList<>()).replay();
+    GameClock clock = new GameClock(control, null);
+    board.setClock(clock);
+    board.switchPlayer();
+    board.switchPlayer();
+    int charged = clock.getMoves(Cell.BLACK) + clock.getMoves(Cell.WHITE);
+    board.setClock(null);
+    boolean match = charged == 0;
+    System.out.println((match ? "ok   " : "FAIL ") + "bare switch: " + charged + " charged");
+    return match;
+  }
+}
@@ -0,0 +1,219 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.HexCoordinate;
+
+/**
+ * Hosts many games at once over TCP. Each connection gets its own thread, a virtual thread when
+ * the JVM has them, and speaks a line protocol where every request line gets one reply line:
+ * <pre>
+ *   NEW radius            -&gt; OK id
+ *   MOVE id y p n         -&gt; OK turn blackDiscs whiteDiscs
+ *   PASS id               -&gt; OK turn blackDiscs whiteDiscs
+ *   STATE id              -&gt; OK turn blackDiscs whiteDiscs
+ *   CLOSE id              -&gt; OK
+ *   QUIT                  -&gt; closes the connection
+ * </pre>
+ * where turn is "X", "O" or "over". A bad request or an invalid move is answered with
+ * "ERR message". Any connection may send commands for any game, and each game's commands are
+ * applied one at a time by that game's single writer. A game is closed when the connection which
+ * opened it ends, however it ends, so clients which go away do not leave games behind.
+ */
+public final class GameServer implements AutoCloseable {
+  private final ServerSocket socket;
+  private final ExecutorService connections;
+  private final ExecutorService sessionPool;
+  private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+
+  /**
+   * Starts a server listening on the given address and port.
+   *
+   * @param address the address to listen on, for example the loopback address.
+   * @param port the port to listen on, or 0 for any free port.
+   * @throws IOException if the port cannot be opened.
+   */
+  public GameServer(InetAddress address, int port) throws IOException {
+    this.socket = new ServerSocket(port, 4096, address);
+    this.connections = newConnectionExecutor();
+    this.sessionPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    Thread acceptor = new Thread(this::acceptLoop, "game-server-accept");
+    acceptor.start();
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return the local port.
+   */
+  public int getPort() {
+    return this.socket.getLocalPort();
+  }
+
+  /**
+   * Gets the number of games being hosted.
+   *
+   * @return the number of open sessions.
+   */
+  public int getSessionCount() {
+    return this.sessions.size();
+  }
+
+  /**
+   * Creates an executor which runs each task on a new virtual thread when the JVM supports them
+   * (Java 21 and later), and on a cached pool of platform threads otherwise.
+   *
+   * @return the executor for per-connection tasks.
+   */
+  static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "game-connection");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private void acceptLoop() {
+    while (!this.socket.isClosed()) {
+      try {
+        Socket client = this.socket.accept();
+        this.connections.execute(() -> this.serve(client));
+      } catch (IOException e) {
+        // The server socket was closed.
+        return;
+      }
+    }
+  }
+
+  /**
+   * Answers the requests of one connection until it quits or disconnects, then closes the games
+   * it opened.
+   */
+  private void serve(Socket client) {
+    Set<Long> opened = new HashSet<>();
+    try (Socket s = client;
+         BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                 StandardCharsets.UTF_8));
+         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+                 StandardCharsets.UTF_8))) {
+      s.setTcpNoDelay(true);
+      String line;
+      while ((line = in.readLine()) != null && !line.trim().equalsIgnoreCase("QUIT")) {
+        out.write(this.handle(line, opened));
+        out.newLine();
+        out.flush();
+      }
+    } catch (SocketException e) {
+      // The client went away.
+    } catch (IOException e) {
+      // The connection failed.
+    } finally {
+      for (long id : opened) {
+        this.sessions.remove(id);
+      }
+    }
+  }
+
+  /**
+   * Answers one request line.
+   *
+   * @param line the request.
+   * @param opened the ids of the games the connection has opened, which a NEW adds to.
+   * @return the reply, without a line break.
+   */
+  String handle(String line, Set<Long> opened) {
+    String[] parts = line.trim().split("\\s+");
+    try {
+      switch (parts[0].toUpperCase()) {
+        case "NEW": {
+          long id = this.nextId.getAndIncrement();
+          this.sessions.put(id, new GameSession(id, Integer.parseInt(parts[1]),
+                  this.sessionPool));
+          opened.add(id);
+          return "OK " + id;
+        }
+        case "MOVE":
+          return "OK " + this.session(parts[1]).play(new HexCoordinate(
+                  Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                  Integer.parseInt(parts[4]))).get();
+        case "PASS":
+          return "OK " + this.session(parts[1]).play(null).get();
+        case "STATE":
+          return "OK " + this.session(parts[1]).state().get();
+        case "CLOSE": {
+          long id = Long.parseLong(parts[1]);
+          this.sessions.remove(id);
+          opened.remove(id);
+          return "OK";
+        }
+        default:
+          return "ERR unknown command " + parts[0];
+      }
+    } catch (ExecutionException e) {
+      return "ERR " + e.getCause().getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "ERR interrupted";
+    } catch (RuntimeException e) {
+      return "ERR " + (e.getMessage() == null ? "bad request" : e.getMessage());
+    }
+  }
+
+  private GameSession session(String id) {
+    GameSession session = this.sessions.get(Long.parseLong(id));
+    if (session == null) {
+      throw new IllegalArgumentException("no game " + id);
+    }
+    return session;
+  }
+
+  /**
+   * Stops accepting connections and stops the server's threads.
+   *
+   * @throws IOException if the server socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    this.socket.close();
+    this.connections.shutdownNow();
+    this.sessionPool.shutdownNow();
+  }
+
+  /**
+   * Runs a server until the process is stopped.
+   * <pre>
+   *   GameServer [port]
+   * </pre>
+   *
+   * @param args the port to listen on, 7777 by default.
+   * @throws IOException if the port cannot be opened.
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+    GameServer server = new GameServer(null, port);
+    System.out.println("Listening on port " + server.getPort());
+  }
+}
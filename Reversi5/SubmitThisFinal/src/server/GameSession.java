@@ -0,0 +1,115 @@
+package server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import model.Cell;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * One game hosted by the server. The board is only ever touched by the session's serial
+ * executor, so every command on a session, read or write, runs one at a time in arrival order
+ * no matter how many connections send them.
+ */
+final class GameSession {
+  private final long id;
+  private final HexBoard board;
+  private final SerialExecutor writer;
+
+  /**
+   * Constructs a session with a new board.
+   *
+   * @param id the id of the session.
+   * @param radius the radius of the board.
+   * @param pool the shared executor the session's commands run on.
+   */
+  GameSession(long id, int radius, Executor pool) {
+    this.id = id;
+    this.board = new HexBoard(radius);
+    this.writer = new SerialExecutor(pool);
+  }
+
+  /**
+   * Gets the id of the session.
+   *
+   * @return the session id.
+   */
+  long getId() {
+    return this.id;
+  }
+
+  /**
+   * Plays a move for the player whose turn it is. A pass is only allowed when that player has
+   * no valid move.
+   *
+   * @param move the move, or null to pass.
+   * @return the reply to send once the move is applied.
+   */
+  CompletableFuture<String> play(HexCoordinate move) {
+    return this.submit(board -> {
+      if (move == null && !board.getAllValidMoves(board.getCurrentPlayer()).isEmpty()) {
+        throw new IllegalStateException("Cannot pass with a valid move");
+      }
+      GameRecord.play(board, move);
+      return this.status();
+    });
+  }
+
+  /**
+   * Reads the state of the game.
+   *
+   * @return the reply describing the game.
+   */
+  CompletableFuture<String> state() {
+    return this.submit(board -> this.status());
+  }
+
+  /**
+   * Runs a command on the session's writer.
+   */
+  private CompletableFuture<String> submit(Function<HexBoard, String> command) {
+    CompletableFuture<String> reply = new CompletableFuture<>();
+    this.writer.execute(() -> {
+      try {
+        reply.complete(command.apply(this.board));
+      } catch (RuntimeException e) {
+        reply.completeExceptionally(e);
+      }
+    });
+    return reply;
+  }
+
+  /**
+   * Describes the game as "turn blackDiscs whiteDiscs", where turn is the colour to move or
+   * "over" once neither player can move.
+   */
+  private String status() {
+    int black = 0;
+    int white = 0;
+    for (Cell cell : this.board.board.values()) {
+      if (cell == Cell.BLACK) {
+        ++black;
+      } else if (cell == Cell.WHITE) {
+        ++white;
+      }
+    }
+    return (this.isOver() ? "over" : this.board.getCurrentPlayer().toString()) + " " + black
+            + " " + white;
+  }
+
+  private boolean isOver() {
+    if (this.board.isGameOver()) {
+      return true;
+    }
+    if (!this.board.getAllValidMoves(this.board.getCurrentPlayer()).isEmpty()) {
+      return false;
+    }
+    this.board.switchPlayer();
+    boolean over = this.board.getAllValidMoves(this.board.getCurrentPlayer()).isEmpty();
+    this.board.switchPlayer();
+    return over;
+  }
+}
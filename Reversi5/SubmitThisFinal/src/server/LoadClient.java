@@ -0,0 +1,206 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * Puts load on a {@link GameServer} and reports the round-trip latency of moves. Each connection
+ * plays random games of its own, mirroring each game on a local board so it only sends valid
+ * moves, and times every MOVE and PASS from sending the request to reading the reply.
+ */
+public final class LoadClient {
+  private final InetAddress host;
+  private final int port;
+  private final int radius;
+
+  /**
+   * Constructs a load client for a server.
+   *
+   * @param host the address of the server.
+   * @param port the port of the server.
+   * @param radius the radius of the games to play.
+   */
+  public LoadClient(InetAddress host, int port, int radius) {
+    this.host = host;
+    this.port = port;
+    this.radius = radius;
+  }
+
+  /**
+   * Opens the given number of connections at once and sends moves on each of them.
+   *
+   * @param connections the number of connections to open.
+   * @param moves the number of moves to send on each connection.
+   * @return every round-trip time in nanoseconds, sorted.
+   * @throws IllegalArgumentException if there are too many moves in all to hold their times.
+   * @throws InterruptedException if interrupted while waiting for the connections.
+   * @throws IOException if a connection fails.
+   */
+  public long[] run(int connections, int moves) throws InterruptedException, IOException {
+    long total = (long) connections * moves;
+    if (total > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many moves to time: " + total);
+    }
+    ExecutorService threads = GameServer.newConnectionExecutor();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<long[]>> results = new ArrayList<>();
+    for (int c = 0; c < connections; ++c) {
+      long seed = c;
+      results.add(threads.submit(() -> {
+        start.await();
+        return this.connection(moves, new Random(seed));
+      }));
+    }
+    start.countDown();
+
+    long[] all = new long[(int) total];
+    int at = 0;
+    try {
+      for (Future<long[]> result : results) {
+        long[] times = result.get();
+        System.arraycopy(times, 0, all, at, times.length);
+        at += times.length;
+      }
+    } catch (java.util.concurrent.ExecutionException e) {
+      throw new IOException("Connection failed", e.getCause());
+    } finally {
+      threads.shutdownNow();
+    }
+    Arrays.sort(all);
+    return all;
+  }
+
+  /**
+   * Plays random games on one connection until the given number of moves have been timed.
+   */
+  private long[] connection(int moves, Random random) throws IOException {
+    long[] times = new long[moves];
+    try (Socket socket = new Socket(this.host, this.port);
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                 StandardCharsets.UTF_8));
+         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                 StandardCharsets.UTF_8))) {
+      socket.setTcpNoDelay(true);
+      int sent = 0;
+      while (sent < moves) {
+        String id = request(in, out, "NEW " + this.radius).substring(3);
+        HexBoard board = new HexBoard(this.radius);
+        int passes = 0;
+        while (sent < moves && passes < 2) {
+          List<HexCoordinate> valid = board.getAllValidMoves(board.getCurrentPlayer());
+          HexCoordinate move = valid.isEmpty() ? null : valid.get(random.nextInt(valid.size()));
+          String command = move == null ? "PASS " + id
+                  : "MOVE " + id + " " + move.getY() + " " + move.getP() + " " + move.getN();
+          long begin = System.nanoTime();
+          request(in, out, command);
+          times[sent++] = System.nanoTime() - begin;
+          GameRecord.play(board, move);
+          passes = move == null ? passes + 1 : 0;
+        }
+        request(in, out, "CLOSE " + id);
+      }
+      out.write("QUIT");
+      out.newLine();
+      out.flush();
+    }
+    return times;
+  }
+
+  private static String request(BufferedReader in, BufferedWriter out, String command)
+          throws IOException {
+    out.write(command);
+    out.newLine();
+    out.flush();
+    String reply = in.readLine();
+    if (reply == null || !reply.startsWith("OK")) {
+      throw new IOException("Server refused " + command + ": " + reply);
+    }
+    return reply;
+  }
+
+  /**
+   * Runs the load client from the command line. Without a port it starts a server on the
+   * loopback address in the same process and measures against that.
+   * <pre>
+   *   LoadClient [--host h] [--port p] [--connections 100] [--moves 1000] [--radius 5]
+   * </pre>
+   *
+   * @param args the command line arguments described above.
+   * @throws Exception if the server or a connection fails.
+   */
+  public static void main(String[] args) throws Exception {
+    InetAddress host = InetAddress.getLoopbackAddress();
+    int port = -1;
+    int connections = 100;
+    int moves = 1000;
+    int radius = 5;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--host":
+          host = InetAddress.getByName(args[i + 1]);
+          break;
+        case "--port":
+          port = Integer.parseInt(args[i + 1]);
+          break;
+        case "--connections":
+          connections = Integer.parseInt(args[i + 1]);
+          break;
+        case "--moves":
+          moves = Integer.parseInt(args[i + 1]);
+          break;
+        case "--radius":
+          radius = Integer.parseInt(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    GameServer embedded = port < 0 ? new GameServer(InetAddress.getLoopbackAddress(), 0) : null;
+    try {
+      LoadClient client = new LoadClient(host, embedded == null ? port : embedded.getPort(),
+              radius);
+      long start = System.nanoTime();
+      long[] times = client.run(connections, moves);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("%d connections, %d moves in %.2f s (%.0f moves/s)%n", connections,
+              times.length, seconds, times.length / seconds);
+      System.out.printf("p50 %.1f us  p90 %.1f us  p99 %.1f us  p99.9 %.1f us  max %.1f us%n",
+              percentile(times, 50), percentile(times, 90), percentile(times, 99),
+              percentile(times, 99.9), times[times.length - 1] / 1e3);
+    } finally {
+      if (embedded != null) {
+        embedded.close();
+      }
+    }
+  }
+
+  /**
+   * Reads a percentile from sorted round-trip times.
+   *
+   * @param sorted the sorted times in nanoseconds.
+   * @param percent the percentile to read, between 0 and 100.
+   * @return the time at that percentile in microseconds.
+   */
+  static double percentile(long[] sorted, double percent) {
+    int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e3;
+  }
+}
@@ -0,0 +1,51 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one at a time in the order they were submitted, borrowing threads from a shared
+ * executor. Many serial executors can share one small pool, so thousands of sessions can each
+ * have a single writer without a thread of their own.
+ */
+final class SerialExecutor implements Executor {
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Executor pool;
+
+  /**
+   * Constructs a serial executor.
+   *
+   * @param pool the shared executor which runs the tasks.
+   */
+  SerialExecutor(Executor pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    this.tasks.add(task);
+    this.schedule();
+  }
+
+  private void schedule() {
+    if (!this.tasks.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+      this.pool.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    try {
+      Runnable task;
+      while ((task = this.tasks.poll()) != null) {
+        task.run();
+      }
+    } finally {
+      this.scheduled.set(false);
+      // A task added after the last poll but before the flag was cleared still gets run.
+      this.schedule();
+    }
+  }
+}
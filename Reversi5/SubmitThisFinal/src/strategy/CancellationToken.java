@@ -0,0 +1,32 @@
+package strategy;
+
+/**
+ * A flag that is shared between a search and whoever started it, so the search can be stopped
+ * from another thread. Once cancelled a token stays cancelled.
+ */
+public final class CancellationToken {
+  private volatile boolean cancelled;
+
+  /**
+   * Constructs a token which is not cancelled.
+   */
+  public CancellationToken() {
+    this.cancelled = false;
+  }
+
+  /**
+   * Cancels every search holding this token.
+   */
+  public void cancel() {
+    this.cancelled = true;
+  }
+
+  /**
+   * Checks whether this token has been cancelled.
+   *
+   * @return true if the search should stop.
+   */
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+}
@@ -0,0 +1,237 @@
+package strategy;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Cell;
+import model.Coordinate;
+import model.HexBoard;
+import model.HexCoordinate;
+import model.Player;
+
+/**
+ * Looks ahead with an iterative deepening alpha-beta search. Positions are scored by the disc
+ * difference for the player to move, with a bonus for each corner held, and a finished game
+ * scores {@link #WIN} on top of its disc difference. A pass is a ply of its own. The search
+ * runs on a private copy of the board, so the board given to it is never touched.
+ */
+public class MinimaxStrategy implements Strategy {
+  /**
+   * The score added to the disc difference of a won game, and taken from a lost one.
+   */
+  public static final int WIN = 1000;
+
+  /**
+   * The depth searched by {@link #determineMove()}, which has no other limit.
+   */
+  public static final int DEFAULT_DEPTH = 4;
+
+  private static final int CORNER = 5;
+  private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+  private final HexBoard board;
+  private final Player player;
+  private SearchLimit limit;
+  private CancellationToken token;
+  private long nodes;
+
+  /**
+   * Constructs the strategy.
+   *
+   * @param board the board to search, whose player to move is the one playing.
+   * @param player the player the strategy chooses moves for.
+   */
+  public MinimaxStrategy(HexBoard board, Player player) {
+    this.board = board;
+    this.player = player;
+  }
+
+  @Override
+  public HexCoordinate determineMove() {
+    return this.search(SearchLimit.infinite().withMaxDepth(DEFAULT_DEPTH),
+            new CancellationToken(), SearchListener.NONE).getMove();
+  }
+
+  /**
+   * Searches one ply deeper at a time until the limit's depth, or until its deadline or node
+   * budget is reached or the token is cancelled. The result of the deepest finished depth is
+   * returned, and each finished depth is reported to the listener.
+   *
+   * @param limit the deadline, node and depth budget for this search.
+   * @param token the token which stops the search early once cancelled.
+   * @param listener the listener receiving the result of each finished depth.
+   * @return the best move of the deepest finished depth, with its score.
+   */
+  @Override
+  public SearchInfo search(SearchLimit limit, CancellationToken token, SearchListener listener) {
+    long start = System.nanoTime();
+    this.limit = limit;
+    this.token = token;
+    this.nodes = 0;
+    HexBoard copy = new HexBoard(this.board);
+    List<HexCoordinate> moves = copy.getAllValidMoves(copy.getCurrentPlayer());
+    moves.sort(HexBoard.MOVE_ORDER);
+    SearchInfo best = new SearchInfo(moves.isEmpty() ? null : moves.get(0), 0, 0, 0, 0);
+
+    for (int depth = 1; depth <= limit.getMaxDepth(); ++depth) {
+      try {
+        HexCoordinate bestMove = null;
+        int bestScore;
+        if (moves.isEmpty()) {
+          bestScore = this.negamax(copy, depth, -INFINITY, INFINITY);
+        } else {
+          bestScore = -INFINITY;
+          for (HexCoordinate move : moves) {
+            List<HexCoordinate> flipped = copy.playMove(move);
+            int score = -this.negamax(copy, depth - 1, -INFINITY, -bestScore);
+            copy.undoMove(move, flipped);
+            if (score > bestScore) {
+              bestScore = score;
+              bestMove = move;
+            }
+          }
+          // The next depth looks at this depth's best move first, for earlier cutoffs.
+          moves.remove(bestMove);
+          moves.add(0, bestMove);
+        }
+        best = new SearchInfo(bestMove, bestScore, depth, this.nodes, System.nanoTime() - start);
+        listener.onProgress(best);
+      } catch (SearchStopped e) {
+        break;
+      }
+      if (depth >= copy.getNumberOfCells()) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Scores every move of the player to move by searching the position after each one to the
+   * same depth with a full window. Unlike {@link #search}, which only proves the best move best,
+   * every score is exact, so the moves can be compared with each other.
+   *
+   * @param depth the depth to search each move to, counting the move itself.
+   * @param limit the deadline and node budget for all the moves together.
+   * @param token the token which stops the search early once cancelled.
+   * @return the score of each move in move order, empty if the player must pass, or null if the
+   *         limit was reached or the token cancelled before every move was scored.
+   * @throws IllegalArgumentException if the depth is not positive.
+   */
+  public Map<HexCoordinate, Integer> scoreMoves(int depth, SearchLimit limit,
+                                                CancellationToken token) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive");
+    }
+    this.limit = limit;
+    this.token = token;
+    this.nodes = 0;
+    HexBoard copy = new HexBoard(this.board);
+    List<HexCoordinate> moves = copy.getAllValidMoves(copy.getCurrentPlayer());
+    moves.sort(HexBoard.MOVE_ORDER);
+    Map<HexCoordinate, Integer> scores = new LinkedHashMap<>();
+    try {
+      for (HexCoordinate move : moves) {
+        List<HexCoordinate> flipped = copy.playMove(move);
+        scores.put(move, -this.negamax(copy, depth - 1, -INFINITY, INFINITY));
+        copy.undoMove(move, flipped);
+      }
+    } catch (SearchStopped e) {
+      return null;
+    }
+    return scores;
+  }
+
+  /**
+   * Gets the number of positions the last search visited.
+   *
+   * @return the node count.
+   */
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  private int negamax(HexBoard board, int depth, int alpha, int beta) {
+    if ((++this.nodes & 255) == 0 && (this.limit.isReached(this.nodes)
+            || this.token.isCancelled())) {
+      throw SearchStopped.INSTANCE;
+    }
+    if (depth == 0) {
+      return evaluate(board);
+    }
+    List<HexCoordinate> moves = board.getAllValidMoves(board.getCurrentPlayer());
+    if (moves.isEmpty()) {
+      board.switchPlayer();
+      boolean over = board.getAllValidMoves(board.getCurrentPlayer()).isEmpty();
+      int score = over ? 0 : -this.negamax(board, depth - 1, -beta, -alpha);
+      board.switchPlayer();
+      return over ? evaluate(board) : score;
+    }
+    moves.sort(HexBoard.MOVE_ORDER);
+    for (HexCoordinate move : moves) {
+      List<HexCoordinate> flipped = board.playMove(move);
+      int score = -this.negamax(board, depth - 1, -beta, -alpha);
+      board.undoMove(move, flipped);
+      if (score >= beta) {
+        return score;
+      }
+      alpha = Math.max(alpha, score);
+    }
+    return alpha;
+  }
+
+  /**
+   * Scores a position statically for the player to move. If neither player can move the game
+   * is scored as finished. The board is left as it was given.
+   *
+   * @param board the position to score.
+   * @return the score, higher being better for the player to move.
+   */
+  public static int evaluate(HexBoard board) {
+    Cell me = board.getCurrentPlayer().getColor();
+    int radius = board.getRadius();
+    int discs = 0;
+    int corners = 0;
+    for (Map.Entry<Coordinate, Cell> entry : board.board.entrySet()) {
+      Cell cell = entry.getValue();
+      if (cell == Cell.EMPTY) {
+        continue;
+      }
+      int sign = cell == me ? 1 : -1;
+      discs += sign;
+      if (isCorner((HexCoordinate) entry.getKey(), radius)) {
+        corners += sign;
+      }
+    }
+    if (board.getAllValidMoves(board.getCurrentPlayer()).isEmpty()) {
+      // getAllValidMoves only looks at the player to move, so the opponent is asked about by
+      // switching sides and back, as in negamax.
+      board.switchPlayer();
+      boolean over = board.getAllValidMoves(board.getCurrentPlayer()).isEmpty();
+      board.switchPlayer();
+      if (over) {
+        return discs + Integer.signum(discs) * WIN;
+      }
+    }
+    return discs + CORNER * corners;
+  }
+
+  private static boolean isCorner(HexCoordinate c, int radius) {
+    int edges = (Math.abs(c.getY()) == radius ? 1 : 0) + (Math.abs(c.getP()) == radius ? 1 : 0)
+            + (Math.abs(c.getN()) == radius ? 1 : 0);
+    return edges >= 2;
+  }
+
+  /**
+   * Unwinds the search once the limit is reached or the token is cancelled.
+   */
+  private static final class SearchStopped extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private static final SearchStopped INSTANCE = new SearchStopped();
+
+    private SearchStopped() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package strategy;
+
+import model.HexCoordinate;
+
+/**
+ * An immutable report of a search: the best move found so far, its score, and how far and how
+ * wide the search went to find it.
+ */
+public final class SearchInfo {
+  private final HexCoordinate move;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final long elapsedNanos;
+
+  /**
+   * Constructs a search report.
+   *
+   * @param move the best move, or null if the player must pass.
+   * @param score the score of the move from the point of view of the player to move.
+   * @param depth the depth that was completely searched.
+   * @param nodes the number of positions visited.
+   * @param elapsedNanos the time spent searching.
+   */
+  public SearchInfo(HexCoordinate move, int score, int depth, long nodes, long elapsedNanos) {
+    this.move = move;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Gets the best move.
+   *
+   * @return the best move, or null if the player must pass.
+   */
+  public HexCoordinate getMove() {
+    return this.move;
+  }
+
+  /**
+   * Gets the score of the best move.
+   *
+   * @return the score from the point of view of the player to move.
+   */
+  public int getScore() {
+    return this.score;
+  }
+
+  /**
+   * Gets the depth that was completely searched.
+   *
+   * @return the search depth in plies.
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  /**
+   * Gets the number of positions visited.
+   *
+   * @return the node count.
+   */
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * Gets the time spent searching.
+   *
+   * @return the elapsed time in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "depth " + this.depth + " score " + this.score + " nodes " + this.nodes
+            + " move " + this.move;
+  }
+}
@@ -0,0 +1,127 @@
+package strategy;
+
+/**
+ * The budget given to a single search: a deadline, a maximum number of nodes and a maximum
+ * depth. The deadline is measured against {@link System#nanoTime()}.
+ */
+public final class SearchLimit {
+  private static final long NONE = Long.MAX_VALUE;
+
+  private final long deadlineNanos;
+  private final long maxNodes;
+  private final int maxDepth;
+
+  /**
+   * Constructs a search limit.
+   *
+   * @param deadlineNanos the {@link System#nanoTime()} value at which the search must stop, or
+   *                      {@link Long#MAX_VALUE} for no deadline.
+   * @param maxNodes the largest number of nodes the search may visit.
+   * @param maxDepth the deepest ply the search may reach.
+   * @throws IllegalArgumentException if the node or depth budget is not positive.
+   */
+  public SearchLimit(long deadlineNanos, long maxNodes, int maxDepth) {
+    if (maxNodes <= 0 || maxDepth <= 0) {
+      throw new IllegalArgumentException("Search limit must be positive");
+    }
+    this.deadlineNanos = deadlineNanos;
+    this.maxNodes = maxNodes;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Returns a limit which never stops a search.
+   *
+   * @return a limit with no deadline, node or depth budget.
+   */
+  public static SearchLimit infinite() {
+    return new SearchLimit(NONE, NONE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns a limit whose deadline is the given number of milliseconds from now.
+   *
+   * @param millis the time the search may take.
+   * @return a limit with only a deadline.
+   */
+  public static SearchLimit ofMillis(long millis) {
+    return new SearchLimit(System.nanoTime() + millis * 1_000_000L, NONE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns a limit whose deadline is the given number of nanoseconds from now, for example a
+   * budget from a {@link model.GameClock}.
+   *
+   * @param nanos the time the search may take.
+   * @return a limit with only a deadline.
+   */
+  public static SearchLimit ofNanos(long nanos) {
+    return new SearchLimit(System.nanoTime() + nanos, NONE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns a copy of this limit with the given node budget.
+   *
+   * @param nodes the largest number of nodes the search may visit.
+   * @return the new limit.
+   */
+  public SearchLimit withMaxNodes(long nodes) {
+    return new SearchLimit(this.deadlineNanos, nodes, this.maxDepth);
+  }
+
+  /**
+   * Returns a copy of this limit with the given depth budget.
+   *
+   * @param depth the deepest ply the search may reach.
+   * @return the new limit.
+   */
+  public SearchLimit withMaxDepth(int depth) {
+    return new SearchLimit(this.deadlineNanos, this.maxNodes, depth);
+  }
+
+  /**
+   * Gets the deadline of the search.
+   *
+   * @return the {@link System#nanoTime()} deadline, or {@link Long#MAX_VALUE} if there is none.
+   */
+  public long getDeadlineNanos() {
+    return this.deadlineNanos;
+  }
+
+  /**
+   * Gets the node budget of the search.
+   *
+   * @return the largest number of nodes the search may visit.
+   */
+  public long getMaxNodes() {
+    return this.maxNodes;
+  }
+
+  /**
+   * Gets the depth budget of the search.
+   *
+   * @return the deepest ply the search may reach.
+   */
+  public int getMaxDepth() {
+    return this.maxDepth;
+  }
+
+  /**
+   * Checks whether the deadline has passed.
+   *
+   * @return true if the search is out of time.
+   */
+  public boolean isTimeUp() {
+    return this.deadlineNanos != NONE && System.nanoTime() - this.deadlineNanos >= 0;
+  }
+
+  /**
+   * Checks whether a search which has visited the given number of nodes must stop.
+   *
+   * @param nodes the nodes visited so far.
+   * @return true if the node budget is spent or the deadline has passed.
+   */
+  public boolean isReached(long nodes) {
+    return nodes >= this.maxNodes || this.isTimeUp();
+  }
+}
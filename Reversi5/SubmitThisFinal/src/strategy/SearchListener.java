@@ -0,0 +1,20 @@
+package strategy;
+
+/**
+ * Receives the intermediate results of a search as they improve.
+ */
+public interface SearchListener {
+
+  /**
+   * A listener which ignores every result.
+   */
+  SearchListener NONE = info -> { };
+
+  /**
+   * Called each time the search has a new best move, for example after each finished depth.
+   * This is called on the searching thread and should return quickly.
+   *
+   * @param info the best move found so far together with its score and search statistics.
+   */
+  void onProgress(SearchInfo info);
+}
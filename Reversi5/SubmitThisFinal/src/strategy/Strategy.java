@@ -7,6 +7,22 @@ import model.HexCoordinate;
  */
 public interface Strategy {
 
+  /**
+   * Chooses the next move for the player this strategy plays for, with no limits.
+   *
+   * @return the chosen move, or null if the player has no legal move and must pass.
+   */
   HexCoordinate determineMove();
 
-}
\ No newline at end of file
+  /**
+   * Searches for the next move within the given limit. Intermediate best moves are reported to
+   * the listener as the search improves them. When the limit is reached or the token is
+   * cancelled the search stops and still returns the best legal move found so far.
+   *
+   * @param limit the deadline, node and depth budget for this search.
+   * @param token the token which stops the search early once cancelled.
+   * @param listener the listener receiving intermediate results.
+   * @return the final result, whose move is legal, or null only if the player must pass.
+   */
+  SearchInfo search(SearchLimit limit, CancellationToken token, SearchListener listener);
+}
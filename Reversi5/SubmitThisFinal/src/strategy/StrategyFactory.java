@@ -0,0 +1,40 @@
+package strategy;
+
+import model.HexBoard;
+import model.Player;
+
+/**
+ * Creates a strategy which plays for a player on a board. Every strategy constructor taking a
+ * board and a player fits, for example {@code StrategyOne::new}.
+ */
+public interface StrategyFactory {
+
+  /**
+   * Creates a strategy for a player.
+   *
+   * @param board the board the strategy looks at.
+   * @param player the player the strategy chooses moves for.
+   * @return the new strategy.
+   */
+  Strategy create(HexBoard board, Player player);
+
+  /**
+   * Finds a built-in strategy by its name, "one", "two" or "minimax".
+   *
+   * @param name the name of the strategy, ignoring case.
+   * @return the factory for that strategy.
+   * @throws IllegalArgumentException if there is no strategy with that name.
+   */
+  static StrategyFactory byName(String name) {
+    switch (name.toLowerCase()) {
+      case "one":
+        return StrategyOne::new;
+      case "two":
+        return StrategyTwo::new;
+      case "minimax":
+        return MinimaxStrategy::new;
+      default:
+        throw new IllegalArgumentException("Unknown strategy: " + name);
+    }
+  }
+}
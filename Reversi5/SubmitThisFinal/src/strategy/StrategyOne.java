@@ -3,7 +3,6 @@ package strategy;
 import model.HexBoard;
 import model.HexCoordinate;
 import model.Player;
-import model.Cell;
 
 import java.util.List;
 
@@ -32,38 +31,46 @@ public class StrategyOne implements Strategy {
    */
   @Override
   public HexCoordinate determineMove() {
-    List<HexCoordinate> validMoves = board.getAllValidMoves(botPlayer);
-
-    if (validMoves.isEmpty()) {
-      return null; // No valid moves available
-    }
-
-    return selectMoveForMaximumFlip(validMoves);
+    return this.search(SearchLimit.infinite(), new CancellationToken(), SearchListener.NONE)
+            .getMove();
   }
 
-  private HexCoordinate selectMoveForMaximumFlip(List<HexCoordinate> validMoves) {
+  /**
+   * Looks at every valid move once, so this search is instant and a depth of one. The limit and
+   * token are only checked between moves, and the move picked so far is always kept.
+   *
+   * @param limit the deadline, node and depth budget for this search.
+   * @param token the token which stops the search early once cancelled.
+   * @param listener the listener receiving the result.
+   * @return the move flipping the most cells, with the flip count as its score.
+   */
+  @Override
+  public SearchInfo search(SearchLimit limit, CancellationToken token, SearchListener listener) {
+    long start = System.nanoTime();
+    List<HexCoordinate> validMoves = board.getAllValidMoves(botPlayer);
     int maxFlips = 0;
     HexCoordinate bestMove = null;
+    long nodes = 0;
 
     for (HexCoordinate move : validMoves) {
       int flips = calculateFlips(move);
-      if (flips > maxFlips) {
+      ++nodes;
+      if (bestMove == null || flips > maxFlips) {
         maxFlips = flips;
         bestMove = move;
       }
+      if (token.isCancelled() || limit.isReached(nodes)) {
+        break;
+      }
     }
 
-    return bestMove;
+    SearchInfo info = new SearchInfo(bestMove, maxFlips, 1, nodes, System.nanoTime() - start);
+    listener.onProgress(info);
+    return info;
   }
 
   private int calculateFlips(HexCoordinate move) {
-    // Assuming the HexBoard class has a method like `getFlipPiecesList`
-    // that returns the list of pieces that would be flipped for a given move
-    // Temporarily make the move, calculate flips, and then undo the move
-    Cell originalState = board.getCellState(move);
-    board.setCoordinateState(move); // Temporarily make the move
-    int flips = board.getFlipPiecesList().size();
-    board.testSet(move, originalState); // Undo the move
-    return flips;
+    // Counts the flips without playing the move, so the shared board is left untouched.
+    return board.calculateFlipsIfMoved(move);
   }
 }
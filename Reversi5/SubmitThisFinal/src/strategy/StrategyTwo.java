@@ -28,7 +28,32 @@ public class StrategyTwo implements Strategy {
    * @return hexCoordiante of move.
    */
   public HexCoordinate determineMove() {
+    return this.search(SearchLimit.infinite(), new CancellationToken(), SearchListener.NONE)
+            .getMove();
+  }
+
+  /**
+   * Picks a move with the corner rules below in one pass, so this search is instant, is a depth
+   * of one and never needs to be stopped by the limit or the token.
+   *
+   * @param limit the deadline, node and depth budget for this search.
+   * @param token the token which stops the search early once cancelled.
+   * @param listener the listener receiving the result.
+   * @return the chosen move, with the number of cells it flips as its score.
+   */
+  @Override
+  public SearchInfo search(SearchLimit limit, CancellationToken token, SearchListener listener) {
+    long start = System.nanoTime();
     List<HexCoordinate> allPossibleMoves = board.getAllValidMoves(p);
+    HexCoordinate move = this.chooseMove(allPossibleMoves);
+    int score = move == null ? 0 : board.calculateFlipsIfMoved(move);
+    SearchInfo info = new SearchInfo(move, score, 1, allPossibleMoves.size(),
+            System.nanoTime() - start);
+    listener.onProgress(info);
+    return info;
+  }
+
+  private HexCoordinate chooseMove(List<HexCoordinate> allPossibleMoves) {
     List<HexCoordinate> cornerMoves = new ArrayList<>();
     List<HexCoordinate> nonCornerAdjacentMoves = new ArrayList<>();
     HexCoordinate bestMoveForMostCells = null;
@@ -0,0 +1,134 @@
+package tournament;
+
+/**
+ * The wins, draws and losses of one strategy against another, with the Elo difference they
+ * imply and the log-likelihood ratio of a sequential probability ratio test (SPRT).
+ * <p>
+ * The Elo error bars use the normal approximation of the mean game score, and the SPRT uses the
+ * usual trinomial approximation of the generalised SPRT, so both are accurate once a few dozen
+ * games have been played.
+ * </p>
+ */
+public final class MatchStats {
+  private int wins;
+  private int draws;
+  private int losses;
+
+  /**
+   * Adds one game to the tally.
+   *
+   * @param score 1 for a win, 0.5 for a draw and 0 for a loss.
+   */
+  public synchronized void add(double score) {
+    if (score > 0.5) {
+      ++this.wins;
+    } else if (score < 0.5) {
+      ++this.losses;
+    } else {
+      ++this.draws;
+    }
+  }
+
+  /**
+   * Gets the number of games in the tally.
+   *
+   * @return the number of games.
+   */
+  public synchronized int getGames() {
+    return this.wins + this.draws + this.losses;
+  }
+
+  /**
+   * Gets the mean score per game.
+   *
+   * @return the mean score between 0 and 1, or 0.5 if there are no games.
+   */
+  public synchronized double getScore() {
+    int games = this.getGames();
+    return games == 0 ? 0.5 : (this.wins + 0.5 * this.draws) / games;
+  }
+
+  /**
+   * Gets the variance of the score of a single game.
+   */
+  private double variance() {
+    int games = this.getGames();
+    double s = this.getScore();
+    return (this.wins * (1 - s) * (1 - s) + this.draws * (0.5 - s) * (0.5 - s)
+            + this.losses * s * s) / games;
+  }
+
+  /**
+   * Gets the Elo difference implied by the mean score.
+   *
+   * @return the Elo difference, infinite if every game was won or lost.
+   */
+  public synchronized double getElo() {
+    return elo(this.getScore());
+  }
+
+  /**
+   * Gets the half-width of the 95% confidence interval of the Elo difference.
+   *
+   * @return the error bar in Elo, or infinity if it cannot be estimated yet.
+   */
+  public synchronized double getEloError() {
+    int games = this.getGames();
+    if (games < 2) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double s = this.getScore();
+    double margin = 1.959964 * Math.sqrt(this.variance() / games);
+    return (elo(Math.min(s + margin, 1)) - elo(Math.max(s - margin, 0))) / 2;
+  }
+
+  /**
+   * Gets the log-likelihood ratio of the hypothesis that the difference is elo1 over the
+   * hypothesis that it is elo0.
+   *
+   * @param elo0 the Elo difference of the null hypothesis.
+   * @param elo1 the Elo difference of the alternative hypothesis.
+   * @return the log-likelihood ratio, or 0 if there is nothing to test yet.
+   */
+  public synchronized double llr(double elo0, double elo1) {
+    int games = this.getGames();
+    double variance = games == 0 ? 0 : this.variance();
+    if (variance == 0) {
+      return 0;
+    }
+    double s0 = expectedScore(elo0);
+    double s1 = expectedScore(elo1);
+    return games * (s1 - s0) * (2 * this.getScore() - s0 - s1) / (2 * variance);
+  }
+
+  /**
+   * Decides an SPRT of elo1 against elo0 with the given error rates.
+   *
+   * @param elo0 the Elo difference of the null hypothesis.
+   * @param elo1 the Elo difference of the alternative hypothesis.
+   * @param alpha the chance of accepting elo1 when elo0 is true.
+   * @param beta the chance of accepting elo0 when elo1 is true.
+   * @return 1 if elo1 is accepted, -1 if elo0 is accepted, and 0 to keep playing.
+   */
+  public synchronized int sprt(double elo0, double elo1, double alpha, double beta) {
+    double llr = this.llr(elo0, elo1);
+    if (llr >= Math.log((1 - beta) / alpha)) {
+      return 1;
+    }
+    return llr <= Math.log(beta / (1 - alpha)) ? -1 : 0;
+  }
+
+  private static double expectedScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  private static double elo(double score) {
+    return -400 * Math.log10(1 / score - 1);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("+%d =%d -%d  Elo %+.1f +/- %.1f", this.wins, this.draws, this.losses,
+            this.getElo(), this.getEloError());
+  }
+}
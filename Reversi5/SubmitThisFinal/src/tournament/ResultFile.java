@@ -0,0 +1,84 @@
+package tournament;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The file a tournament streams its results to, one tab-separated line per finished game:
+ * <pre>
+ *   key  radius  black  white  blackDiscs  whiteDiscs  record
+ * </pre>
+ * Each line is flushed as soon as it is written, so the file can be watched while the
+ * tournament runs, and a stopped tournament can be resumed by skipping the keys already in it.
+ */
+final class ResultFile implements AutoCloseable {
+  private final BufferedWriter writer;
+
+  /**
+   * Opens the file for appending, creating it if it does not exist.
+   *
+   * @param path the file to append to.
+   * @throws IOException if the file cannot be opened.
+   */
+  ResultFile(Path path) throws IOException {
+    this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Appends one finished game and flushes it to the file.
+   *
+   * @param key the key identifying the game within the tournament.
+   * @param radius the radius of the board.
+   * @param black the name of the strategy playing black.
+   * @param white the name of the strategy playing white.
+   * @param blackDiscs the number of black discs at the end.
+   * @param whiteDiscs the number of white discs at the end.
+   * @param record the moves of the game.
+   * @throws IOException if the line cannot be written.
+   */
+  synchronized void append(String key, int radius, String black, String white, int blackDiscs,
+                           int whiteDiscs, String record) throws IOException {
+    this.writer.write(key + "\t" + radius + "\t" + black + "\t" + white + "\t" + blackDiscs
+            + "\t" + whiteDiscs + "\t" + record);
+    this.writer.newLine();
+    this.writer.flush();
+  }
+
+  /**
+   * Reads the games already in a result file. A partly written last line is ignored.
+   *
+   * @param path the file to read.
+   * @return each finished game's fields keyed by its game key, in file order, or an empty map if
+   *         the file does not exist.
+   * @throws IOException if the file cannot be read.
+   */
+  static Map<String, String[]> read(Path path) throws IOException {
+    Map<String, String[]> games = new LinkedHashMap<>();
+    if (!Files.exists(path)) {
+      return games;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split("\t");
+        if (fields.length == 7) {
+          games.put(fields[0], fields);
+        }
+      }
+    }
+    return games;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.writer.close();
+  }
+}
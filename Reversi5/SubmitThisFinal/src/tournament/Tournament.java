@@ -0,0 +1,289 @@
+package tournament;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+import runner.GameResult;
+import runner.GameRunner;
+import strategy.StrategyFactory;
+
+/**
+ * Plays a round robin between strategies to tell which is stronger. Every pair of strategies
+ * plays the given number of game pairs on each radius. Both games of a pair start from the same
+ * random opening with the colours swapped, so neither strategy profits from a lucky opening or
+ * from moving first. Games run concurrently on a worker pool and every finished game is appended
+ * to a result file, which also lets a stopped tournament resume where it left off. A game's key
+ * names the seed and opening length as well as the game, so a file is only resumed by the same
+ * tournament, and games of other tournaments in it are neither skipped nor counted.
+ * <p>
+ * With an SPRT configured, the tournament stops as soon as the match between the first two
+ * strategies accepts one of the two hypotheses.
+ * </p>
+ */
+public final class Tournament {
+  private final List<String> names;
+  private final int[] radii;
+  private final int pairs;
+  private final int openingPlies;
+  private final long seed;
+  private final int threads;
+  private final double[] sprt;
+
+  /**
+   * Constructs a tournament.
+   *
+   * @param names the names of the strategies, as accepted by {@link StrategyFactory#byName}.
+   * @param radii the board radii to play on.
+   * @param pairs the number of colour-swapped game pairs per strategy pair and radius.
+   * @param openingPlies the number of random plies played before the strategies take over.
+   * @param seed the seed of the random openings.
+   * @param threads the number of games to play at once.
+   * @param sprt the SPRT as {elo0, elo1, alpha, beta}, or null to play every game.
+   * @throws IllegalArgumentException if there are fewer than two strategies, or a strategy name
+   *                                  is unknown.
+   */
+  public Tournament(List<String> names, int[] radii, int pairs, int openingPlies, long seed,
+                    int threads, double[] sprt) {
+    if (names.size() < 2) {
+      throw new IllegalArgumentException("A tournament needs at least two strategies");
+    }
+    for (String name : names) {
+      StrategyFactory.byName(name);
+    }
+    this.names = new ArrayList<>(names);
+    this.radii = radii.clone();
+    this.pairs = pairs;
+    this.openingPlies = openingPlies;
+    this.seed = seed;
+    this.threads = threads;
+    this.sprt = sprt == null ? null : sprt.clone();
+  }
+
+  /**
+   * Plays every game which is not already in the result file.
+   *
+   * @param out the result file to resume from and append to.
+   * @return the match statistics of each strategy pair, keyed by "first-second" and from the
+   *         first strategy's point of view.
+   * @throws IOException if the result file cannot be read or written.
+   * @throws InterruptedException if interrupted while waiting for the games.
+   * @throws IllegalStateException if a strategy breaks the rules; the first game which fails
+   *                               stops the tournament and its exception is the cause.
+   */
+  public Map<String, MatchStats> run(Path out) throws IOException, InterruptedException {
+    Map<String, MatchStats> stats = new LinkedHashMap<>();
+    for (int a = 0; a < this.names.size(); ++a) {
+      for (int b = a + 1; b < this.names.size(); ++b) {
+        stats.put(this.matchKey(a, b), new MatchStats());
+      }
+    }
+
+    Map<String, String[]> done = ResultFile.read(out);
+    AtomicBoolean stop = new AtomicBoolean();
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    try (ResultFile file = new ResultFile(out)) {
+      List<Callable<Void>> games = new ArrayList<>();
+      for (int pair = 0; pair < this.pairs; ++pair) {
+        for (int radius : this.radii) {
+          GameRecord opening = this.opening(radius, pair);
+          for (int a = 0; a < this.names.size(); ++a) {
+            for (int b = a + 1; b < this.names.size(); ++b) {
+              MatchStats match = stats.get(this.matchKey(a, b));
+              for (int swap = 0; swap < 2; ++swap) {
+                String key = this.gameKey(radius, a, b, pair, swap);
+                boolean firstIsBlack = swap == 0;
+                String[] fields = done.get(key);
+                if (fields != null) {
+                  double black = score(Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+                  match.add(firstIsBlack ? black : 1 - black);
+                  continue;
+                }
+                String black = this.names.get(firstIsBlack ? a : b);
+                String white = this.names.get(firstIsBlack ? b : a);
+                games.add(() -> {
+                  this.playGame(key, opening, black, white, firstIsBlack, match, stats, file,
+                          stop);
+                  return null;
+                });
+              }
+            }
+          }
+        }
+      }
+
+      stop.set(this.decided(stats));
+      for (Future<Void> game : pool.invokeAll(games)) {
+        try {
+          game.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+          }
+          throw new IllegalStateException("Game failed", e.getCause());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return stats;
+  }
+
+  /**
+   * Plays one game, streams it to the file and checks whether the SPRT is decided.
+   */
+  private void playGame(String key, GameRecord opening, String black, String white,
+                        boolean firstIsBlack, MatchStats match, Map<String, MatchStats> stats,
+                        ResultFile file, AtomicBoolean stop) {
+    if (stop.get()) {
+      return;
+    }
+    GameResult result;
+    try {
+      result = new GameRunner(StrategyFactory.byName(black), StrategyFactory.byName(white))
+              .play(opening);
+    } catch (RuntimeException e) {
+      // The games still waiting are skipped, and run() reports this one.
+      stop.set(true);
+      throw e;
+    }
+    try {
+      file.append(key, opening.getRadius(), black, white, result.getBlackDiscs(),
+              result.getWhiteDiscs(), result.getRecord().toString());
+    } catch (IOException e) {
+      stop.set(true);
+      throw new UncheckedIOException(e);
+    }
+    double blackScore = score(result.getBlackDiscs(), result.getWhiteDiscs());
+    match.add(firstIsBlack ? blackScore : 1 - blackScore);
+    if (this.decided(stats)) {
+      stop.set(true);
+    }
+  }
+
+  /**
+   * Checks whether the SPRT between the first two strategies has accepted a hypothesis.
+   */
+  private boolean decided(Map<String, MatchStats> stats) {
+    return this.sprt != null && stats.get(this.matchKey(0, 1))
+            .sprt(this.sprt[0], this.sprt[1], this.sprt[2], this.sprt[3]) != 0;
+  }
+
+  /**
+   * Plays random valid moves from the starting position. The moves only depend on the seed, the
+   * radius and the pair, so both games of a pair and every strategy pair share the opening.
+   */
+  private GameRecord opening(int radius, int pair) {
+    Random random = new Random(this.seed * 1_000_003L + radius * 8191L + pair);
+    HexBoard board = new HexBoard(radius);
+    List<HexCoordinate> moves = new ArrayList<>();
+    for (int ply = 0; ply < this.openingPlies && !board.isGameOver(); ++ply) {
+      List<HexCoordinate> valid = board.getAllValidMoves(board.getCurrentPlayer());
+      if (valid.isEmpty()) {
+        break;
+      }
+      valid.sort(HexBoard.MOVE_ORDER);
+      HexCoordinate move = valid.get(random.nextInt(valid.size()));
+      board.setCoordinateState(move);
+      moves.add(move);
+    }
+    return new GameRecord(radius, moves);
+  }
+
+  /**
+   * Names one game of the tournament: the seed and opening length, which pick the opening, then
+   * the radius, the strategy pair, the game pair and which strategy played black.
+   */
+  private String gameKey(int radius, int a, int b, int pair, int swap) {
+    return "s" + this.seed + "/o" + this.openingPlies + "/r" + radius + "/"
+            + this.matchKey(a, b) + "/" + pair + "/" + swap;
+  }
+
+  private String matchKey(int a, int b) {
+    return this.names.get(a) + "-" + this.names.get(b);
+  }
+
+  private static double score(int ownDiscs, int otherDiscs) {
+    return ownDiscs > otherDiscs ? 1 : ownDiscs < otherDiscs ? 0 : 0.5;
+  }
+
+  /**
+   * Runs a tournament from the command line and prints each match.
+   * <pre>
+   *   Tournament --strategies one,two [--radii 3,4,5] [--pairs 100] [--opening 4]
+   *              [--seed 1] [--threads N] [--out results.tsv]
+   *              [--sprt elo0,elo1,alpha,beta]
+   * </pre>
+   *
+   * @param args the command line arguments described above.
+   * @throws IOException if the result file cannot be read or written.
+   * @throws InterruptedException if interrupted while the games run.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    List<String> names = Arrays.asList("one", "two");
+    int[] radii = {3, 4, 5};
+    int pairs = 100;
+    int opening = 4;
+    long seed = 1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path out = Paths.get("results.tsv");
+    double[] sprt = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--strategies":
+          names = Arrays.asList(value.split(","));
+          break;
+        case "--radii":
+          radii = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+          break;
+        case "--pairs":
+          pairs = Integer.parseInt(value);
+          break;
+        case "--opening":
+          opening = Integer.parseInt(value);
+          break;
+        case "--seed":
+          seed = Long.parseLong(value);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(value);
+          break;
+        case "--out":
+          out = Paths.get(value);
+          break;
+        case "--sprt":
+          sprt = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Tournament tournament = new Tournament(names, radii, pairs, opening, seed, threads, sprt);
+    for (Map.Entry<String, MatchStats> entry : tournament.run(out).entrySet()) {
+      MatchStats match = entry.getValue();
+      String line = entry.getKey() + ": " + match;
+      if (sprt != null) {
+        line += String.format("  LLR %.2f", match.llr(sprt[0], sprt[1]));
+      }
+      System.out.println(line);
+    }
+  }
+}
@@ -0,0 +1,325 @@
+package view;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import javax.swing.JComponent;
+import model.Cell;
+
+/**
+ * The cached images a {@link Panel} paints from, picked by how large a hexagon is on screen.
+ * <p>
+ * When the whole board is shown at its laid-out size, the grey board is drawn once into its own
+ * image. Highlights and pieces each have a transparent layer on top, where only the hexagons that
+ * changed since the last paint are cleared and drawn again. The three layers are flattened into
+ * an opaque frame, again only where hexagons changed, so a paint is a few hexagons and one image
+ * copy however long the game has been going.
+ * </p>
+ * <p>
+ * When the viewport is zoomed or panned, the hexagons in view are drawn as shapes into a cached
+ * view image. Zooming draws the view again, but only the hexagons in view. Panning moves the
+ * cached pixels and draws just the strips that came into view, and a change draws just the
+ * changed hexagon's bounds.
+ * </p>
+ * <p>
+ * When hexagons shrink below {@link #DETAIL_RADIUS} pixels there are too many in view to draw
+ * them as shapes in a frame, and too few pixels each to show it. The board is then drawn from an
+ * occupancy raster instead: a small image with two pixels per cell, one row per board row,
+ * scaled onto the screen. A change sets a cell's two pixels, and a paint is one scaled image copy
+ * whatever the size of the board.
+ * </p>
+ * <p>
+ * Every change also asks the panel to repaint just the changed hexagon's bounds, unless one has
+ * been asked for since the last paint. Swing merges those requests into one clipped paint, which
+ * only draws inside the clip.
+ * </p>
+ */
+final class BoardLayers {
+  /**
+   * The radius in screen pixels below which hexagons are drawn from the occupancy raster.
+   */
+  static final double DETAIL_RADIUS = 12.0;
+
+  private static final int BLACK = Color.BLACK.getRGB();
+  private static final int WHITE = Color.white.getRGB();
+
+  private final JComponent target;
+  private final Viewport viewport;
+  private final HexGeometry geometry;
+  private final CellStates cells;
+  private final BufferedImage occupancy;
+  private final AffineTransform occupancyToLayout;
+  private final BitSet dirty = new BitSet();
+  private final BitSet requested = new BitSet();
+  private BufferedImage board;
+  private BufferedImage highlights;
+  private BufferedImage pieces;
+  private BufferedImage frame;
+  private BufferedImage view;
+  private boolean viewValid;
+  private double viewScale;
+  private double viewOffsetX;
+  private double viewOffsetY;
+  private final BitSet viewDirty = new BitSet();
+
+  /**
+   * Draws the occupancy raster and attaches the layers to the cells, so that they report every
+   * change of colour, number or piece. The full-size images are only drawn the first time they
+   * are painted.
+   *
+   * @param target the panel to repaint when a cell changes, or null for none.
+   * @param viewport the part of the board the panel shows.
+   * @param cells the state of the cells, laid out by their geometry.
+   */
+  BoardLayers(JComponent target, Viewport viewport, CellStates cells) {
+    HexGeometry geometry = cells.geometry;
+    this.target = target;
+    this.viewport = viewport;
+    this.geometry = geometry;
+    this.cells = cells;
+    int side = 2 * geometry.getBoardRadius() + 1;
+    this.occupancy = new BufferedImage(2 * side + 1, side, BufferedImage.TYPE_INT_ARGB);
+    this.occupancyToLayout = AffineTransform.getTranslateInstance(geometry.getLeft(),
+            geometry.getTop());
+    this.occupancyToLayout.scale(geometry.getHexWidth() / 2.0, geometry.getHexRadius() * 1.5);
+    for (int id = 0; id < cells.size(); ++id) {
+      this.occupy(id);
+    }
+    cells.layers = this;
+  }
+
+  /**
+   * Marks a cell to be drawn again and asks for a repaint of its bounds, if they are in view.
+   *
+   * @param id the cell which changed.
+   */
+  void invalidate(int id) {
+    this.occupy(id);
+    if (this.viewValid) {
+      this.viewDirty.set(id);
+    }
+    this.dirty.set(id);
+    // Whether the frame still has to draw the cell says nothing about whether a repaint is on its
+    // way: zoomed and raster paints leave the frame alone.
+    if (this.target != null && !this.requested.get(id)) {
+      Rectangle bounds = this.viewport.toScreen(this.geometry.bounds(id));
+      if (bounds.intersects(0, 0, this.viewport.getWidth(), this.viewport.getHeight())) {
+        this.requested.set(id);
+        this.target.repaint(bounds);
+      }
+    }
+  }
+
+  /**
+   * Paints the part of the board inside the clip.
+   *
+   * @param g2 the graphics to paint on.
+   */
+  void paint(Graphics2D g2) {
+    this.requested.clear();
+    if (this.geometry.getHexRadius() * this.viewport.getScale() < DETAIL_RADIUS) {
+      this.viewValid = false;
+      this.paintOccupancy(g2);
+    } else if (this.viewport.isIdentity()) {
+      this.viewValid = false;
+      this.paintFrame(g2);
+    } else {
+      this.paintVisible(g2);
+    }
+  }
+
+  /**
+   * Brings the layers and the frame up to date and copies the part of the frame inside the
+   * clip.
+   */
+  private void paintFrame(Graphics2D g2) {
+    if (this.frame == null) {
+      this.drawBoard();
+    }
+    if (!this.dirty.isEmpty()) {
+      Graphics2D highlight = this.highlights.createGraphics();
+      Graphics2D piece = this.pieces.createGraphics();
+      Graphics2D frame = this.frame.createGraphics();
+      try {
+        for (int id = this.dirty.nextSetBit(0); id >= 0; id = this.dirty.nextSetBit(id + 1)) {
+          this.clear(highlight, id);
+          if (this.cells.isMarked(id)) {
+            this.cells.drawHex(highlight, id);
+          }
+          this.clear(piece, id);
+          this.cells.drawPiece(piece, id);
+        }
+        for (int id = this.dirty.nextSetBit(0); id >= 0; id = this.dirty.nextSetBit(id + 1)) {
+          frame.setClip(this.geometry.bounds(id));
+          frame.drawImage(this.board, 0, 0, null);
+          frame.drawImage(this.highlights, 0, 0, null);
+          frame.drawImage(this.pieces, 0, 0, null);
+        }
+      } finally {
+        highlight.dispose();
+        piece.dispose();
+        frame.dispose();
+      }
+      this.dirty.clear();
+    }
+
+    Rectangle clip = this.clip(g2);
+    int right = clip.x + clip.width;
+    int bottom = clip.y + clip.height;
+    g2.drawImage(this.frame, clip.x, clip.y, right, bottom, clip.x, clip.y, right, bottom, null);
+  }
+
+  /**
+   * Brings the cached view up to date with the viewport and the changed hexagons, and copies the
+   * part of it inside the clip.
+   */
+  private void paintVisible(Graphics2D g2) {
+    int width = this.viewport.getWidth();
+    int height = this.viewport.getHeight();
+    if (this.view == null) {
+      this.view = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+    double dx = this.viewport.getOffsetX() - this.viewOffsetX;
+    double dy = this.viewport.getOffsetY() - this.viewOffsetY;
+    Graphics2D view = this.view.createGraphics();
+    try {
+      if (!this.viewValid || this.viewport.getScale() != this.viewScale || dx != Math.rint(dx)
+              || dy != Math.rint(dy) || Math.abs(dx) >= width || Math.abs(dy) >= height) {
+        this.drawVisible(view, new Rectangle(0, 0, width, height));
+      } else {
+        int shiftX = (int) dx;
+        int shiftY = (int) dy;
+        if (shiftX != 0 || shiftY != 0) {
+          view.copyArea(0, 0, width, height, shiftX, shiftY);
+          if (shiftX != 0) {
+            this.drawVisible(view, new Rectangle(shiftX > 0 ? 0 : width + shiftX, 0,
+                    Math.abs(shiftX), height));
+          }
+          if (shiftY != 0) {
+            this.drawVisible(view, new Rectangle(0, shiftY > 0 ? 0 : height + shiftY, width,
+                    Math.abs(shiftY)));
+          }
+        }
+        Rectangle screen = new Rectangle(0, 0, width, height);
+        for (int id = this.viewDirty.nextSetBit(0); id >= 0;
+             id = this.viewDirty.nextSetBit(id + 1)) {
+          Rectangle bounds = this.viewport.toScreen(this.geometry.bounds(id)).intersection(screen);
+          if (!bounds.isEmpty()) {
+            this.drawVisible(view, bounds);
+          }
+        }
+      }
+    } finally {
+      view.dispose();
+    }
+    this.viewDirty.clear();
+    this.viewValid = true;
+    this.viewScale = this.viewport.getScale();
+    this.viewOffsetX = this.viewport.getOffsetX();
+    this.viewOffsetY = this.viewport.getOffsetY();
+
+    Rectangle clip = this.clip(g2);
+    int right = clip.x + clip.width;
+    int bottom = clip.y + clip.height;
+    g2.drawImage(this.view, clip.x, clip.y, right, bottom, clip.x, clip.y, right, bottom, null);
+  }
+
+  /**
+   * Draws the hexagons in a rectangle of the screen as shapes, scaled and moved by the
+   * viewport. Only the rows and columns around the rectangle are visited.
+   */
+  private void drawVisible(Graphics2D g2, Rectangle area) {
+    g2.setClip(area);
+    g2.setColor(Color.DARK_GRAY);
+    g2.fillRect(area.x, area.y, area.width, area.height);
+    AffineTransform saved = g2.getTransform();
+    g2.transform(this.viewport.getTransform());
+    this.geometry.forEachIn(this.viewport.toWorldX(area.x), this.viewport.toWorldY(area.y),
+            this.viewport.toWorldX(area.x + area.width),
+            this.viewport.toWorldY(area.y + area.height), id -> {
+              this.cells.drawHex(g2, id);
+              this.cells.drawPiece(g2, id);
+            });
+    g2.setTransform(saved);
+  }
+
+  /**
+   * Draws the occupancy raster scaled onto the screen, one block of pixels per cell.
+   */
+  private void paintOccupancy(Graphics2D g2) {
+    Rectangle clip = this.clip(g2);
+    g2.setColor(Color.DARK_GRAY);
+    g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+    g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    AffineTransform transform = this.viewport.getTransform();
+    transform.concatenate(this.occupancyToLayout);
+    g2.drawImage(this.occupancy, transform, null);
+  }
+
+  /**
+   * Draws the grey board and sets up the layers above it. Every hexagon is then drawn into the
+   * layers on the next paint.
+   */
+  private void drawBoard() {
+    int width = this.viewport.getWidth();
+    int height = this.viewport.getHeight();
+    this.board = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    this.highlights = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    this.pieces = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    this.frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+    Graphics2D g2 = this.board.createGraphics();
+    try {
+      g2.setColor(Color.DARK_GRAY);
+      g2.fillRect(0, 0, width, height);
+      for (int id = 0; id < this.cells.size(); ++id) {
+        this.cells.drawPlain(g2, id, Color.lightGray);
+      }
+    } finally {
+      g2.dispose();
+    }
+    Graphics2D frame = this.frame.createGraphics();
+    frame.drawImage(this.board, 0, 0, null);
+    frame.dispose();
+    this.dirty.set(0, this.cells.size());
+  }
+
+  /**
+   * Sets the two raster pixels of a cell to the colour it shows from afar: its piece, or else
+   * its own colour.
+   */
+  private void occupy(int id) {
+    int row = this.geometry.rowOf(id);
+    int col = this.geometry.colOf(id);
+    int radius = this.geometry.getBoardRadius();
+    int x = 2 * (col + radius) + (row & 1);
+    Cell piece = this.cells.getPiece(id);
+    int argb = piece == Cell.BLACK ? BLACK : piece == Cell.WHITE ? WHITE : this.cells.getColor(id);
+    this.occupancy.setRGB(x, row + radius, argb);
+    this.occupancy.setRGB(x + 1, row + radius, argb);
+  }
+
+  private Rectangle clip(Graphics2D g2) {
+    Rectangle clip = g2.getClipBounds();
+    return clip != null ? clip
+            : new Rectangle(0, 0, this.viewport.getWidth(), this.viewport.getHeight());
+  }
+
+  /**
+   * Makes the inside of a cell's hexagon transparent again. Only the hexagon's own pixels are
+   * cleared, so its neighbours on the same layer are left alone.
+   */
+  private void clear(Graphics2D g2, int id) {
+    Composite composite = g2.getComposite();
+    g2.setComposite(AlphaComposite.Clear);
+    this.cells.fillShape(g2, id);
+    g2.setComposite(composite);
+  }
+}
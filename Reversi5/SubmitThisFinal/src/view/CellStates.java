@@ -0,0 +1,186 @@
+package view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import model.Cell;
+
+/**
+ * What a panel shows on each cell: the piece, the colour of the hexagon and the number written
+ * on it. The state is kept in parallel arrays indexed by cell id, a few bytes per cell, and the
+ * shapes come from the shared {@link HexGeometry}. A {@link Hexagon} is only a handle on one
+ * cell of these arrays.
+ */
+final class CellStates {
+  private static final Cell[] CELLS = Cell.values();
+  private static final Font NUMBER_FONT = new Font("Arial", Font.BOLD, 12);
+  private static final BasicStroke OUTLINE = new BasicStroke(1.0F);
+  private static final int EMPTY_COLOR = Color.lightGray.getRGB();
+
+  final HexGeometry geometry;
+  private final byte[] pieces;
+  private final int[] colors;
+  private final int[] numbers;
+  BoardLayers layers;
+
+  /**
+   * Constructs the state of an empty board, every hexagon grey.
+   *
+   * @param geometry the layout of the board.
+   */
+  CellStates(HexGeometry geometry) {
+    this.geometry = geometry;
+    this.pieces = new byte[geometry.size()];
+    this.colors = new int[geometry.size()];
+    this.numbers = new int[geometry.size()];
+    Arrays.fill(this.pieces, (byte) Cell.EMPTY.ordinal());
+    Arrays.fill(this.colors, EMPTY_COLOR);
+  }
+
+  int size() {
+    return this.pieces.length;
+  }
+
+  Cell getPiece(int id) {
+    return CELLS[this.pieces[id]];
+  }
+
+  /**
+   * Sets the piece on a cell. A null cell is taken as empty.
+   *
+   * @param id the cell id.
+   * @param cell the piece.
+   */
+  void setPiece(int id, Cell cell) {
+    byte piece = (byte) (cell == null ? Cell.EMPTY : cell).ordinal();
+    if (this.pieces[id] != piece) {
+      this.pieces[id] = piece;
+      this.changed(id);
+    }
+  }
+
+  int getColor(int id) {
+    return this.colors[id];
+  }
+
+  void setColor(int id, Color color) {
+    int rgb = color.getRGB();
+    if (this.colors[id] != rgb) {
+      this.colors[id] = rgb;
+      this.changed(id);
+    }
+  }
+
+  int getNumber(int id) {
+    return this.numbers[id];
+  }
+
+  void setNumber(int id, int number) {
+    if (this.numbers[id] != number) {
+      this.numbers[id] = number;
+      this.changed(id);
+    }
+  }
+
+  /**
+   * Checks whether a cell shows anything over the grey board: a colour or a number.
+   */
+  boolean isMarked(int id) {
+    return this.colors[id] != EMPTY_COLOR || this.numbers[id] != 0;
+  }
+
+  /**
+   * Draws a cell's hexagon in its colour, its border and its number if it has one.
+   *
+   * @param g2 the graphics to draw on.
+   * @param id the cell id.
+   */
+  void drawHex(Graphics2D g2, int id) {
+    double x = this.geometry.getX(id);
+    double y = this.geometry.getY(id);
+    g2.translate(x, y);
+    int rgb = this.colors[id];
+    g2.setColor(rgb == EMPTY_COLOR ? Color.lightGray : new Color(rgb, true));
+    g2.fill(this.geometry.getOutline());
+    this.drawOutline(g2);
+    g2.translate(-x, -y);
+
+    int number = this.numbers[id];
+    if (number != 0) {
+      g2.setFont(NUMBER_FONT);
+      g2.setColor(Color.BLACK);
+      // Centre the number in the hexagon.
+      String text = String.valueOf(number);
+      FontMetrics metrics = g2.getFontMetrics(NUMBER_FONT);
+      int textX = (int) x - metrics.stringWidth(text) / 2;
+      int textY = (int) y + metrics.getHeight() / 4;
+      g2.drawString(text, textX, textY);
+    }
+  }
+
+  /**
+   * Fills a cell's hexagon in a colour and draws its border.
+   *
+   * @param g2 the graphics to draw on.
+   * @param id the cell id.
+   * @param color the colour to fill with.
+   */
+  void drawPlain(Graphics2D g2, int id, Color color) {
+    double x = this.geometry.getX(id);
+    double y = this.geometry.getY(id);
+    g2.translate(x, y);
+    g2.setColor(color);
+    g2.fill(this.geometry.getOutline());
+    this.drawOutline(g2);
+    g2.translate(-x, -y);
+  }
+
+  /**
+   * Fills the inside of a cell's hexagon with whatever the graphics is set to paint.
+   *
+   * @param g2 the graphics to fill on.
+   * @param id the cell id.
+   */
+  void fillShape(Graphics2D g2, int id) {
+    double x = this.geometry.getX(id);
+    double y = this.geometry.getY(id);
+    g2.translate(x, y);
+    g2.fill(this.geometry.getOutline());
+    g2.translate(-x, -y);
+  }
+
+  /**
+   * Draws the piece on a cell, if there is one.
+   *
+   * @param g2 the graphics to draw on.
+   * @param id the cell id.
+   */
+  void drawPiece(Graphics2D g2, int id) {
+    Cell cell = this.getPiece(id);
+    if (cell != Cell.EMPTY) {
+      Piece.fill(g2, cell == Cell.BLACK ? Color.BLACK : Color.white, this.geometry.getX(id),
+              this.geometry.getY(id), this.geometry.getHexRadius());
+    }
+  }
+
+  /**
+   * Draws the border of the hexagon the graphics has been translated to.
+   */
+  private void drawOutline(Graphics2D g2) {
+    g2.setStroke(OUTLINE);
+    g2.setColor(Color.BLACK);
+    g2.draw(this.geometry.getOutline());
+  }
+
+  /**
+   * Tells the layers this board is drawn on that a cell has to be drawn again.
+   */
+  private void changed(int id) {
+    if (this.layers != null) {
+      this.layers.invalidate(id);
+    }
+  }
+}
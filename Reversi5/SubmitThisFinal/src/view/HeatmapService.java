@@ -0,0 +1,225 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import model.BoardOwner;
+import model.BoardSnapshot;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+import strategy.CancellationToken;
+import strategy.MinimaxStrategy;
+import strategy.SearchInfo;
+import strategy.SearchLimit;
+import strategy.SearchListener;
+
+/**
+ * Scores every legal move of the current position for a heatmap. Each move is a task of its own
+ * on a fork-join pool, which searches the position after the move, so the moves are scored in
+ * parallel and each score is handed out as soon as it is known. Scores reach the listeners on
+ * the EDT in batches: however many tasks finish while the EDT is busy, they arrive in one call.
+ * <p>
+ * The service only searches while some view shows the heatmap. A new snapshot cancels the tasks
+ * of the last one, and every score carries the version of the snapshot it was searched on.
+ * </p>
+ */
+public final class HeatmapService implements Consumer<BoardSnapshot>, AutoCloseable {
+  private final BoardOwner owner;
+  private final int depth;
+  private final long millis;
+  private final ForkJoinPool pool;
+  private final List<Consumer<List<Score>>> listeners = new CopyOnWriteArrayList<>();
+  private final ConcurrentLinkedQueue<Score> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private CancellationToken token = new CancellationToken();
+  private int viewers;
+  private boolean closed;
+
+  /**
+   * The score of one move.
+   *
+   * @param version the version of the snapshot the move was scored on.
+   * @param move the move.
+   * @param score the score from the point of view of the player to move.
+   */
+  public record Score(long version, HexCoordinate move, int score) {
+  }
+
+  /**
+   * Constructs a service for a board. It does nothing until a view asks for the heatmap.
+   *
+   * @param owner the owner of the board.
+   * @param depth the depth to score each move to, counting the move itself.
+   * @param millis the most time to spend on each move, in milliseconds.
+   * @param threads the number of moves to score at once.
+   * @throws IllegalArgumentException if the depth, time or number of threads is not positive.
+   */
+  public HeatmapService(BoardOwner owner, int depth, long millis, int threads) {
+    if (depth <= 0 || millis <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("Heatmap limit is invalid");
+    }
+    this.owner = owner;
+    this.depth = depth;
+    this.millis = millis;
+    this.pool = new ForkJoinPool(threads);
+  }
+
+  /**
+   * Adds a listener, which is called on the EDT with each batch of new scores.
+   *
+   * @param listener the listener.
+   */
+  public void addScoreListener(Consumer<List<Score>> listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeScoreListener(Consumer<List<Score>> listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Tells the service a view has started showing the heatmap. The first view starts the
+   * scoring, beginning with the current snapshot.
+   */
+  public void addViewer() {
+    synchronized (this) {
+      if (this.closed || this.viewers++ > 0) {
+        return;
+      }
+    }
+    this.owner.addSnapshotListener(this);
+    this.accept(this.owner.snapshot());
+  }
+
+  /**
+   * Tells the service a view has stopped showing the heatmap. Once no view shows it, the
+   * scoring stops.
+   */
+  public void removeViewer() {
+    synchronized (this) {
+      if (this.viewers == 0 || --this.viewers > 0) {
+        return;
+      }
+      this.token.cancel();
+    }
+    this.owner.removeSnapshotListener(this);
+  }
+
+  /**
+   * Cancels the scoring of the last position and starts scoring the new one. This runs on the
+   * owner's thread, so it only hands the work to the pool.
+   *
+   * @param snapshot the snapshot just published.
+   */
+  @Override
+  public synchronized void accept(BoardSnapshot snapshot) {
+    if (this.closed || this.viewers == 0) {
+      return;
+    }
+    this.token.cancel();
+    CancellationToken token = new CancellationToken();
+    this.token = token;
+    this.pool.execute(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        HeatmapService.this.scoreAll(snapshot, token);
+      }
+    });
+  }
+
+  /**
+   * Forks a task for each legal move of a position and waits for them all.
+   */
+  private void scoreAll(BoardSnapshot snapshot, CancellationToken token) {
+    if (token.isCancelled()) {
+      return;
+    }
+    HexBoard board = snapshot.toHexBoard();
+    List<RecursiveAction> moves = new ArrayList<>();
+    for (HexCoordinate move : board.getAllValidMoves(board.getCurrentPlayer())) {
+      moves.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          HeatmapService.this.score(snapshot.getVersion(), board, move, token);
+        }
+      });
+    }
+    RecursiveAction.invokeAll(moves);
+  }
+
+  /**
+   * Scores one move by searching the position after it one ply shallower, as the analyzer
+   * scores the moves of a game.
+   */
+  private void score(long version, HexBoard board, HexCoordinate move, CancellationToken token) {
+    if (token.isCancelled()) {
+      return;
+    }
+    HexBoard after = new HexBoard(board);
+    GameRecord.play(after, move);
+    int score;
+    if (this.depth == 1) {
+      score = -MinimaxStrategy.evaluate(after);
+    } else {
+      SearchLimit limit = SearchLimit.ofMillis(this.millis).withMaxDepth(this.depth - 1);
+      SearchInfo reply = new MinimaxStrategy(after, after.getCurrentPlayer())
+              .search(limit, token, SearchListener.NONE);
+      // A search stopped before its first depth has no score, so the move is scored as it stands.
+      score = reply.getDepth() == 0 ? -MinimaxStrategy.evaluate(after) : -reply.getScore();
+    }
+    if (token.isCancelled()) {
+      return;
+    }
+    this.pending.add(new Score(version, move, score));
+    if (this.scheduled.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(this::deliver);
+    }
+  }
+
+  /**
+   * Hands every waiting score to the listeners in one batch, leaving out scores for a position
+   * the board has already left.
+   */
+  private void deliver() {
+    this.scheduled.set(false);
+    long version = this.owner.snapshot().getVersion();
+    List<Score> batch = new ArrayList<>();
+    Score score;
+    while ((score = this.pending.poll()) != null) {
+      if (score.version() == version) {
+        batch.add(score);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    for (Consumer<List<Score>> listener : this.listeners) {
+      listener.accept(batch);
+    }
+  }
+
+  /**
+   * Cancels the scoring in progress and stops the pool for good.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+      this.token.cancel();
+    }
+    this.owner.removeSnapshotListener(this);
+    this.pool.shutdownNow();
+  }
+}
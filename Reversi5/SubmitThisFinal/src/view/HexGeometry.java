@@ -0,0 +1,347 @@
+package view;
+
+import java.awt.Rectangle;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import model.CellIndex;
+import model.HexCoordinate;
+
+/**
+ * The pixel layout of a board's hexagons, and an index from pixels and from coordinates to the
+ * cell there. Hexagons are pointy-topped and laid out in rows 1.5 radii apart, with odd rows
+ * shifted half a hexagon to the right. A pixel is turned into a row and column with the inverse
+ * of that layout and cube rounding, so finding the cell under the mouse takes the same time
+ * on any size of board. Each pixel belongs to exactly one cell: the one whose centre is
+ * nearest, with points on an edge going to the same side every time.
+ * <p>
+ * Cells are known by their {@link CellIndex} id. The layout keeps only the centre of each cell,
+ * in two arrays indexed by id, and a single outline centred on the origin which every cell
+ * shares by translating it. A layout never changes once built, so {@link #of} hands the same one
+ * to every panel of the same size showing the same board.
+ * </p>
+ */
+public final class HexGeometry {
+  private static final double SQRT3 = Math.sqrt(3.0);
+  private static final int CACHED_LAYOUTS = 4;
+  private static final Map<Key, HexGeometry> LAYOUTS =
+          new LinkedHashMap<Key, HexGeometry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, HexGeometry> eldest) {
+              return this.size() > CACHED_LAYOUTS;
+            }
+          };
+
+  private final double originX;
+  private final double originY;
+  private final double hexRadius;
+  private final double hexWidth;
+  private final int boardRadius;
+  private final CellIndex cells;
+  private final int[] grid;
+  private final double[] centerX;
+  private final double[] centerY;
+  private final Path2D outline;
+
+  /**
+   * Gets the layout of a board fitted to a panel. Panels of the same size showing the same
+   * board get the same layout.
+   *
+   * @param boardRadius the radius of the board in hexagons.
+   * @param width the width of the panel.
+   * @param height the height of the panel.
+   * @return the layout.
+   */
+  public static HexGeometry of(int boardRadius, int width, int height) {
+    synchronized (LAYOUTS) {
+      return LAYOUTS.computeIfAbsent(new Key(boardRadius, width, height),
+          key -> new HexGeometry(boardRadius, width, height));
+    }
+  }
+
+  /**
+   * Lays the board out around the middle of the panel, with hexagons as large as fit across
+   * its width.
+   */
+  private HexGeometry(int boardRadius, int width, int height) {
+    double hexRadius = (double)(width / ((boardRadius * 2 + 1) * 2));
+    if (hexRadius < 1.0) {
+      // Boards too large for whole pixels get fractional hexagons, drawn at a distance.
+      hexRadius = (double)width / ((boardRadius * 2 + 1) * 2);
+    }
+    this.originX = (double)width / 2.0;
+    this.originY = (double)height / 2.0;
+    this.hexRadius = hexRadius;
+    this.hexWidth = hexRadius * SQRT3;
+    this.boardRadius = boardRadius;
+    this.cells = CellIndex.of(boardRadius);
+    int side = 2 * boardRadius + 1;
+    this.grid = new int[side * side];
+    Arrays.fill(this.grid, -1);
+    this.centerX = new double[this.cells.size()];
+    this.centerY = new double[this.cells.size()];
+
+    int hexFromPRow = boardRadius;
+    int hexFromNRow = 0;
+    for (int row = -boardRadius; row <= boardRadius; ++row) {
+      int cols = boardRadius * 2 - Math.abs(row) + 1;
+      int count = 0;
+      for (int col = -cols / 2; col <= cols / 2; ++col) {
+        int id = this.cells.indexOf(row, -hexFromNRow + count);
+        this.grid[(row + boardRadius) * side + col + boardRadius] = id;
+        this.centerX[id] = this.centerX(row, col);
+        this.centerY[id] = this.centerY(row);
+        if ((row & 1) != 0 && col == cols / 2 - 1) {
+          break;
+        }
+        ++count;
+      }
+      if (row >= 0) {
+        --hexFromPRow;
+      }
+      if (row < 0) {
+        ++hexFromNRow;
+      }
+    }
+
+    this.outline = new Path2D.Double();
+    this.outline.moveTo(0.0, -hexRadius);
+    this.outline.lineTo(this.hexWidth / 2.0, -hexRadius / 2.0);
+    this.outline.lineTo(this.hexWidth / 2.0, hexRadius / 2.0);
+    this.outline.lineTo(0.0, hexRadius);
+    this.outline.lineTo(-this.hexWidth / 2.0, hexRadius / 2.0);
+    this.outline.lineTo(-this.hexWidth / 2.0, -hexRadius / 2.0);
+    this.outline.closePath();
+  }
+
+  /**
+   * Gets the x of the centre of a hexagon.
+   *
+   * @param row the row, from -radius to radius.
+   * @param col the column, from -radius to radius.
+   * @return the x in pixels.
+   */
+  public double centerX(int row, int col) {
+    return this.originX + col * this.hexWidth + ((row & 1) != 0 ? this.hexWidth / 2.0 : 0.0);
+  }
+
+  /**
+   * Gets the y of the centre of the hexagons in a row.
+   *
+   * @param row the row, from -radius to radius.
+   * @return the y in pixels.
+   */
+  public double centerY(int row) {
+    return this.originY + row * this.hexRadius * 1.5;
+  }
+
+  /**
+   * Gets the x of the centre of a cell.
+   *
+   * @param id the cell id.
+   * @return the x in pixels.
+   */
+  public double getX(int id) {
+    return this.centerX[id];
+  }
+
+  /**
+   * Gets the y of the centre of a cell.
+   *
+   * @param id the cell id.
+   * @return the y in pixels.
+   */
+  public double getY(int id) {
+    return this.centerY[id];
+  }
+
+  /**
+   * Gets the radius of each hexagon.
+   *
+   * @return the radius in pixels.
+   */
+  public double getHexRadius() {
+    return this.hexRadius;
+  }
+
+  /**
+   * Gets the number of cells on the board.
+   *
+   * @return the number of cells.
+   */
+  public int size() {
+    return this.centerX.length;
+  }
+
+  /**
+   * Gets the radius of the board.
+   *
+   * @return the radius in hexagons.
+   */
+  public int getBoardRadius() {
+    return this.boardRadius;
+  }
+
+  /**
+   * Finds the cell under a pixel.
+   *
+   * @param x the x of the pixel.
+   * @param y the y of the pixel.
+   * @return the cell id, or -1 if the pixel is off the board.
+   */
+  public int cellAt(double x, double y) {
+    double px = (x - this.originX) / this.hexRadius;
+    double py = (y - this.originY) / this.hexRadius;
+    // Fractional axial coordinates of a pointy-topped layout, then cube rounding.
+    double q = SQRT3 / 3.0 * px - py / 3.0;
+    double r = 2.0 / 3.0 * py;
+    double s = -q - r;
+    long rq = Math.round(q);
+    long rr = Math.round(r);
+    long rs = Math.round(s);
+    double dq = Math.abs(rq - q);
+    double dr = Math.abs(rr - r);
+    double ds = Math.abs(rs - s);
+    if (dq > dr && dq > ds) {
+      rq = -rr - rs;
+    } else if (dr > ds) {
+      rr = -rq - rs;
+    }
+    if (Math.abs(rr) > this.boardRadius) {
+      return -1;
+    }
+    int row = (int) rr;
+    // Odd rows are shifted right, so the column is the axial q plus half the row, rounded down.
+    long col = rq + ((row - (row & 1)) / 2);
+    if (Math.abs(col) > this.boardRadius) {
+      return -1;
+    }
+    return this.cellAt(row, (int) col);
+  }
+
+  /**
+   * Finds the cell of a coordinate.
+   *
+   * @param coordinate the coordinate.
+   * @return the cell id, or -1 if the coordinate is not on the board.
+   */
+  public int cellOf(HexCoordinate coordinate) {
+    return this.cells.indexOf(coordinate);
+  }
+
+  /**
+   * Gets the coordinate of a cell.
+   *
+   * @param id the cell id.
+   * @return the coordinate.
+   */
+  public HexCoordinate coordinate(int id) {
+    return this.cells.coordinate(id);
+  }
+
+  /**
+   * Visits the cells which may overlap a rectangle. Only the rows and columns around the
+   * rectangle are looked at, so the cost follows the number of hexagons in view rather than the
+   * size of the board.
+   *
+   * @param minX the left of the rectangle.
+   * @param minY the top of the rectangle.
+   * @param maxX the right of the rectangle.
+   * @param maxY the bottom of the rectangle.
+   * @param action what to do with each cell id.
+   */
+  public void forEachIn(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+    double rowHeight = this.hexRadius * 1.5;
+    int rowFrom = Math.max(-this.boardRadius,
+            (int) Math.floor((minY - this.originY) / rowHeight) - 1);
+    int rowTo = Math.min(this.boardRadius, (int) Math.ceil((maxY - this.originY) / rowHeight) + 1);
+    int colFrom = Math.max(-this.boardRadius,
+            (int) Math.floor((minX - this.originX) / this.hexWidth) - 1);
+    int colTo = Math.min(this.boardRadius,
+            (int) Math.ceil((maxX - this.originX) / this.hexWidth) + 1);
+    for (int row = rowFrom; row <= rowTo; ++row) {
+      for (int col = colFrom; col <= colTo; ++col) {
+        int id = this.cellAt(row, col);
+        if (id >= 0) {
+          action.accept(id);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the outline every hexagon shares, centred on the origin. It is drawn at a cell by
+   * translating the graphics to the cell's centre, and must not be changed.
+   *
+   * @return the outline.
+   */
+  Path2D getOutline() {
+    return this.outline;
+  }
+
+  /**
+   * Finds the pixels a cell may draw on. The outline reaches a pixel past the path, so the
+   * bounds get a margin.
+   */
+  Rectangle bounds(int id) {
+    double halfWidth = this.hexWidth / 2.0;
+    int x0 = (int) Math.floor(this.centerX[id] - halfWidth) - 2;
+    int y0 = (int) Math.floor(this.centerY[id] - this.hexRadius) - 2;
+    int x1 = (int) Math.ceil(this.centerX[id] + halfWidth) + 2;
+    int y1 = (int) Math.ceil(this.centerY[id] + this.hexRadius) + 2;
+    return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+  }
+
+  /**
+   * Finds the cell at a row and column of the layout.
+   */
+  int cellAt(int row, int col) {
+    int side = 2 * this.boardRadius + 1;
+    return this.grid[(row + this.boardRadius) * side + col + this.boardRadius];
+  }
+
+  /**
+   * Finds the row of a cell from its centre.
+   */
+  int rowOf(int id) {
+    return (int) Math.round((this.centerY[id] - this.originY) / (this.hexRadius * 1.5));
+  }
+
+  /**
+   * Finds the column of a cell from its centre.
+   */
+  int colOf(int id) {
+    double shift = (this.rowOf(id) & 1) != 0 ? this.hexWidth / 2.0 : 0.0;
+    return (int) Math.round((this.centerX[id] - this.originX - shift) / this.hexWidth);
+  }
+
+  /**
+   * Gets the left of the layout: the left edge of column -radius in an even row.
+   *
+   * @return the x in pixels.
+   */
+  double getLeft() {
+    return this.originX - (this.boardRadius + 0.5) * this.hexWidth;
+  }
+
+  /**
+   * Gets the top of the layout: half a row above the centres of row -radius.
+   *
+   * @return the y in pixels.
+   */
+  double getTop() {
+    return this.originY - (this.boardRadius + 0.5) * this.hexRadius * 1.5;
+  }
+
+  double getHexWidth() {
+    return this.hexWidth;
+  }
+
+  /**
+   * The board and panel size a layout was built for.
+   */
+  private record Key(int boardRadius, int width, int height) {
+  }
+}
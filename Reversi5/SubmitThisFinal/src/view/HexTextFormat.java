@@ -0,0 +1,303 @@
+package view;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import model.BoardSnapshot;
+import model.Cell;
+import model.CellIndex;
+import model.HexBoard;
+
+/**
+ * The text form of a hexagonal board which {@link TextView} prints: one line per row, indented
+ * two spaces for each row away from the middle, with each cell's symbol followed by three
+ * spaces. Every symbol is one character, so the text of a board of a given radius always has
+ * the same length and every cell is always at the same place in it. A format works that layout
+ * out once, as the text of an empty board and the offset of each cell's symbol, and then writes
+ * and reads boards without allocating anything.
+ * <p>
+ * Cells are taken in {@link CellIndex} order, which is the order they appear in the text.
+ * Writing to a {@link ByteBuffer} copies the empty board in one go and puts each symbol over
+ * its placeholder; reading looks only at the symbols, and at the line ends to check the layout.
+ * </p>
+ */
+public final class HexTextFormat {
+  private static final ConcurrentHashMap<Integer, HexTextFormat> CACHE =
+          new ConcurrentHashMap<>();
+  private static final Cell[] CELLS = Cell.values();
+  private static final char[] SYMBOLS = new char[CELLS.length];
+  private static final Cell[] BY_SYMBOL = new Cell[128];
+
+  static {
+    for (Cell cell : CELLS) {
+      SYMBOLS[cell.ordinal()] = cell.toString().charAt(0);
+      BY_SYMBOL[SYMBOLS[cell.ordinal()]] = cell;
+    }
+  }
+
+  private final CellIndex index;
+  private final byte[] template;
+  private final int[] offsets;
+  private final int[] lineEnds;
+
+  private HexTextFormat(int radius) {
+    this.index = CellIndex.of(radius);
+    this.offsets = new int[this.index.size()];
+    this.lineEnds = new int[2 * radius + 1];
+    int length = 0;
+    for (int y = -radius; y <= radius; ++y) {
+      length += 2 * Math.abs(y) + 4 * this.index.rowLength(y) + 1;
+    }
+    this.template = new byte[length];
+    int at = 0;
+    for (int y = -radius; y <= radius; ++y) {
+      for (int i = 0; i < 2 * Math.abs(y); ++i) {
+        this.template[at++] = ' ';
+      }
+      int start = this.index.rowStart(y);
+      for (int id = start; id < start + this.index.rowLength(y); ++id) {
+        this.offsets[id] = at;
+        this.template[at++] = (byte) SYMBOLS[Cell.EMPTY.ordinal()];
+        this.template[at++] = ' ';
+        this.template[at++] = ' ';
+        this.template[at++] = ' ';
+      }
+      this.lineEnds[y + radius] = at;
+      this.template[at++] = '\n';
+    }
+  }
+
+  /**
+   * Gets the format for a radius. Formats are shared, so this is cheap to call, but a caller
+   * writing many boards should keep the format rather than look it up for each one.
+   *
+   * @param radius the radius of the board.
+   * @return the format of boards of that radius.
+   * @throws IllegalArgumentException if the radius is negative.
+   */
+  public static HexTextFormat of(int radius) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius number is invalid");
+    }
+    return CACHE.computeIfAbsent(radius, HexTextFormat::new);
+  }
+
+  /**
+   * Gets the radius this format is for.
+   *
+   * @return the board radius.
+   */
+  public int getRadius() {
+    return this.index.getRadius();
+  }
+
+  /**
+   * Gets the length of the text of a board, which is the same for every board of this radius.
+   *
+   * @return the number of characters, which is also the number of bytes.
+   */
+  public int length() {
+    return this.template.length;
+  }
+
+  /**
+   * Writes a board as text.
+   *
+   * @param board the board, whose radius must be this format's.
+   * @param out where to write the text.
+   * @throws IOException if the output fails.
+   * @throws IllegalArgumentException if the board has another radius.
+   */
+  public void write(HexBoard board, Appendable out) throws IOException {
+    this.checkRadius(board.getRadius());
+    int radius = this.index.getRadius();
+    int id = 0;
+    for (int y = -radius; y <= radius; ++y) {
+      for (int i = 2 * Math.abs(y); i > 0; --i) {
+        out.append(' ');
+      }
+      for (int end = id + this.index.rowLength(y); id < end; ++id) {
+        Cell cell = board.getCoordinateState(this.index.coordinate(id));
+        out.append(SYMBOLS[cell.ordinal()]).append(' ').append(' ').append(' ');
+      }
+      out.append('\n');
+    }
+  }
+
+  /**
+   * Writes a board as text to a builder.
+   *
+   * @param board the board, whose radius must be this format's.
+   * @param out the builder to append the text to.
+   * @throws IllegalArgumentException if the board has another radius.
+   */
+  public void write(HexBoard board, StringBuilder out) {
+    try {
+      this.write(board, (Appendable) out);
+    } catch (IOException e) {
+      // A StringBuilder never throws.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes a board as ASCII text into a buffer, at its position, and moves the position past
+   * the text.
+   *
+   * @param board the board, whose radius must be this format's.
+   * @param out the buffer, with at least {@link #length()} bytes remaining.
+   * @throws java.nio.BufferOverflowException if the buffer has too little room.
+   * @throws IllegalArgumentException if the board has another radius.
+   */
+  public void write(HexBoard board, ByteBuffer out) {
+    this.checkRadius(board.getRadius());
+    int start = out.position();
+    out.put(this.template);
+    for (int id = 0; id < this.offsets.length; ++id) {
+      Cell cell = board.getCoordinateState(this.index.coordinate(id));
+      if (cell != Cell.EMPTY) {
+        out.put(start + this.offsets[id], (byte) SYMBOLS[cell.ordinal()]);
+      }
+    }
+  }
+
+  /**
+   * Writes a snapshot as ASCII text into a buffer, at its position, and moves the position past
+   * the text.
+   *
+   * @param snapshot the snapshot, whose radius must be this format's.
+   * @param out the buffer, with at least {@link #length()} bytes remaining.
+   * @throws java.nio.BufferOverflowException if the buffer has too little room.
+   * @throws IllegalArgumentException if the snapshot has another radius.
+   */
+  public void write(BoardSnapshot snapshot, ByteBuffer out) {
+    this.checkRadius(snapshot.getRadius());
+    int start = out.position();
+    out.put(this.template);
+    for (int id = 0; id < this.offsets.length; ++id) {
+      Cell cell = snapshot.getCell(id);
+      if (cell != Cell.EMPTY) {
+        out.put(start + this.offsets[id], (byte) SYMBOLS[cell.ordinal()]);
+      }
+    }
+  }
+
+  /**
+   * Reads the cells of a board from text and sets them on a board.
+   *
+   * @param text the text.
+   * @param start where the board starts in the text.
+   * @param board the board to set the cells on, whose radius must be this format's.
+   * @return where the text after the board starts.
+   * @throws IllegalArgumentException if the text is not a board of this radius, or the board
+   *                                  has another radius.
+   */
+  public int read(CharSequence text, int start, HexBoard board) {
+    this.checkRadius(board.getRadius());
+    if (text.length() - start < this.template.length) {
+      throw new IllegalArgumentException("Text is too short for a board of radius "
+              + this.index.getRadius());
+    }
+    for (int end : this.lineEnds) {
+      if (text.charAt(start + end) != '\n') {
+        throw new IllegalArgumentException("Row does not end at " + (start + end));
+      }
+    }
+    for (int id = 0; id < this.offsets.length; ++id) {
+      board.testSet(this.index.coordinate(id), cellOf(text.charAt(start + this.offsets[id]),
+              start + this.offsets[id]));
+    }
+    return start + this.template.length;
+  }
+
+  /**
+   * Reads the cells of a board from ASCII text in a buffer, at its position, sets them on a
+   * board, and moves the position past the text.
+   *
+   * @param in the buffer.
+   * @param board the board to set the cells on, whose radius must be this format's.
+   * @throws IllegalArgumentException if the text is not a board of this radius, or the board
+   *                                  has another radius.
+   */
+  public void read(ByteBuffer in, HexBoard board) {
+    this.checkRadius(board.getRadius());
+    int start = in.position();
+    if (in.remaining() < this.template.length) {
+      throw new IllegalArgumentException("Text is too short for a board of radius "
+              + this.index.getRadius());
+    }
+    for (int end : this.lineEnds) {
+      if (in.get(start + end) != '\n') {
+        throw new IllegalArgumentException("Row does not end at " + (start + end));
+      }
+    }
+    for (int id = 0; id < this.offsets.length; ++id) {
+      int at = start + this.offsets[id];
+      board.testSet(this.index.coordinate(id), cellOf((char) (in.get(at) & 0xFF), at));
+    }
+    in.position(start + this.template.length);
+  }
+
+  /**
+   * Reads a board printed by {@link TextView#hexRenderBoard}. The radius is taken from the
+   * indent of the first row. If the text goes on with the player to move and the scores, they
+   * are read too.
+   *
+   * @param text the text.
+   * @return a new board with the cells of the text.
+   * @throws IllegalArgumentException if the text is not a board.
+   */
+  public static HexBoard parse(CharSequence text) {
+    int indent = 0;
+    while (indent < text.length() && text.charAt(indent) == ' ') {
+      ++indent;
+    }
+    if (indent % 2 != 0) {
+      throw new IllegalArgumentException("First row is not indented by whole rows");
+    }
+    HexBoard board = new HexBoard(indent / 2);
+    int end = of(indent / 2).read(text, 0, board);
+    String rest = text.subSequence(end, text.length()).toString();
+    for (String line : rest.split("\n")) {
+      if (line.startsWith("Current Player: ")) {
+        Cell cell = cellOf(line.charAt("Current Player: ".length()), end);
+        if (cell == Cell.EMPTY) {
+          throw new IllegalArgumentException("Current player must be BLACK or WHITE");
+        }
+        if (board.getCurrentPlayer().getColor() != cell) {
+          board.switchPlayer();
+        }
+      } else if (line.startsWith("Current Player Score: ")) {
+        board.getCurrentPlayer().score = parseScore(line, "Current Player Score: ");
+      } else if (line.startsWith("Opponent Player Score: ")) {
+        board.getOpponentPlayer().score = parseScore(line, "Opponent Player Score: ");
+      } else if (!line.isBlank()) {
+        throw new IllegalArgumentException("Unexpected line after the board: " + line);
+      }
+    }
+    return board;
+  }
+
+  private static int parseScore(String line, String label) {
+    try {
+      return Integer.parseInt(line.substring(label.length()).trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Score is not a number: " + line);
+    }
+  }
+
+  private static Cell cellOf(char symbol, int at) {
+    Cell cell = symbol < BY_SYMBOL.length ? BY_SYMBOL[symbol] : null;
+    if (cell == null) {
+      throw new IllegalArgumentException("No cell symbol at " + at);
+    }
+    return cell;
+  }
+
+  private void checkRadius(int radius) {
+    if (radius != this.index.getRadius()) {
+      throw new IllegalArgumentException("Board radius " + radius + " does not match format "
+              + this.index.getRadius());
+    }
+  }
+}
@@ -1,90 +1,60 @@
 package view;
 
-import java.awt.*;
-import java.awt.geom.Path2D;
+import java.awt.Color;
+import java.awt.Graphics2D;
 import model.Cell;
 import model.HexCoordinate;
 
 /**
  * Represents a hexagonal shape on the board.
  * <p>
- * This class encapsulates the properties and behaviors of a hexagonal cell in the game board.
- * It includes methods for drawing the hexagon, setting its color, and managing a game piece on it.
+ * A hexagon is a handle on one cell of a panel's {@link CellStates}: it holds no state of its
+ * own beyond the cell id, so any number of them can be made and dropped while the board itself
+ * stays a few arrays. It includes methods for drawing the hexagon, setting its color, and
+ * managing a game piece on it. Two hexagons are equal when they name the same cell of the same
+ * panel.
  * </p>
  */
 public class Hexagon {
-  public double x;
-  public double y;
-  public Color color;
-  public Path2D hexagon;
-  public double radius;
-  public Piece piece;
-  public HexCoordinate hc;
-  public int number;
+  private final CellStates cells;
+  private final int id;
 
   /**
-   * Constructs a Hexagon at a specified location with a given radius.
+   * Constructs a handle on a cell.
    *
-   * @param x      The x-coordinate of the hexagon's center.
-   * @param y      The y-coordinate of the hexagon's center.
-   * @param radius The radius of the hexagon.
+   * @param cells the state of the panel's cells.
+   * @param id    the cell id.
    */
-  public Hexagon(double x, double y, double radius) {
-    this.x = x;
-    this.y = y;
-    this.color = Color.lightGray;
-    this.hexagon = new Path2D.Double();
-    this.radius = radius;
-    this.piece = null;
-    this.number = 0;
+  Hexagon(CellStates cells, int id) {
+    this.cells = cells;
+    this.id = id;
   }
+
   /**
    * Draws the hexagon on a given Graphics2D context.
    *
    * @param g2 The Graphics2D context to draw on.
    */
   public void draw(Graphics2D g2) {
-    this.hexagon.moveTo(this.x, this.y - this.radius);
-    double rightX = this.x + this.radius * (Math.sqrt(3.0) / 2.0);
-    double leftX = this.x - this.radius * (Math.sqrt(3.0) / 2.0);
-    double topY = this.y - this.radius / 2.0;
-    double bottomY = this.y + this.radius / 2.0;
-    this.hexagon.lineTo(rightX, topY);
-    this.hexagon.lineTo(rightX, bottomY);
-    this.hexagon.lineTo(this.x, this.y + this.radius);
-    this.hexagon.lineTo(leftX, bottomY);
-    this.hexagon.lineTo(leftX, topY);
-    this.hexagon.closePath();
-    g2.setColor(this.color);
-    g2.fill(this.hexagon);
-    g2.setStroke(new BasicStroke(1.0F));
-    g2.setColor(Color.BLACK);
-    g2.draw(this.hexagon);
-
-    if (number == 0) {
-      return;
-    }
-    else {
-      // Set font
-      Font font = new Font("Arial", Font.BOLD, 12);
-      g2.setFont(font);
-      g2.setColor(Color.BLACK); // Choose an appropriate color for the text
-
-      // Calculate the position for the text (center of the hexagon)
-      String text = String.valueOf(number);
-      FontMetrics metrics = g2.getFontMetrics(font);
-      int textWidth = metrics.stringWidth(text);
-      int textHeight = metrics.getHeight();
-      int textX = (int) this.x - (textWidth / 2);
-      int textY = (int) this.y + (textHeight / 4); // Adjust this to better center the text vertically
-
-      // Draw the number
-      g2.drawString(text, textX, textY);
-    }
+    this.cells.drawHex(g2, this.id);
   }
 
+  /**
+   * Sets the number written on the hexagon, or 0 for none.
+   *
+   * @param num the number.
+   */
   public void setNumber(int num) {
-    this.number = num;
+    this.cells.setNumber(this.id, num);
+  }
+
+  /**
+   * Gets the number written on the hexagon.
+   *
+   * @return the number, or 0 for none.
+   */
+  public int getNumber() {
+    return this.cells.getNumber(this.id);
   }
 
   /**
@@ -92,7 +62,7 @@ public class Hexagon {
    * @return the x coordinate of the hex.
    */
   public double getX() {
-    return this.x;
+    return this.cells.geometry.getX(this.id);
   }
 
   /**
@@ -100,7 +70,7 @@ public class Hexagon {
    * @return the y coordinate of the hex.
    */
   public double getY() {
-    return this.y;
+    return this.cells.geometry.getY(this.id);
   }
 
   /**
@@ -108,15 +78,15 @@ public class Hexagon {
    * @return the radius of hexagon diagram.
    */
   public double getRadius() {
-    return this.radius;
+    return this.cells.geometry.getHexRadius();
   }
 
   /**
    * Sets color of cell to shift.
-   * @return the color.
+   * @param color the color.
    */
   public void setColor(Color color) {
-    this.color = color;
+    this.cells.setColor(this.id, color);
   }
 
   /**
@@ -124,34 +94,25 @@ public class Hexagon {
    * @return gets the colors.
    */
   public Color getColor() {
-    return this.color;
+    return new Color(this.cells.getColor(this.id), true);
   }
 
   /**
-   * Gets the pieces that are selected.
-   * @return the selected pieces.
+   * Gets the piece on the hexagon.
+   * @return the piece, or null if the hexagon is empty.
    */
   public Piece getPiece() {
-    return this.piece;
+    Cell cell = this.cells.getPiece(this.id);
+    return cell == Cell.EMPTY ? null : new Piece(this, cell);
   }
 
-//  public void setPiece(Cell cell) {
-//    this.piece = new Piece(this, cell);
-//  }
   /**
    * Sets the game piece on the hexagon based on the specified cell state.
    *
    * @param cell The cell state to determine the piece.
    */
-
   public void setPiece(Cell cell) {
-    if (cell == Cell.BLACK) {
-      this.piece = new Piece(this, cell); // Create a black piece
-    } else if (cell == Cell.WHITE) {
-      this.piece = new Piece(this, cell); // Create a white piece
-    } else {
-      this.piece = null; // No piece for empty cells
-    }
+    this.cells.setPiece(this.id, cell);
   }
 
   /**
@@ -159,9 +120,8 @@ public class Hexagon {
    *
    * @return {@code true} if the hexagon contains a piece, {@code false} otherwise.
    */
-
   public boolean containsCell() {
-    return piece != null;
+    return this.cells.getPiece(this.id) != Cell.EMPTY;
   }
 
   /**
@@ -172,25 +132,34 @@ public class Hexagon {
    * @return {@code true} if the point is within the hexagon, {@code false} otherwise.
    */
   public boolean contains(double pointX, double pointY) {
-    double rightX = this.x + this.radius * (Math.sqrt(3.0) / 2.0);
-    double leftX = this.x - this.radius * (Math.sqrt(3.0) / 2.0);
-    return leftX < pointX && pointX < rightX && this.y + this.radius > pointY && this.y - this.radius < pointY;
+    return this.cells.geometry.cellAt(pointX, pointY) == this.id;
   }
 
   /**
-   * Sets a hex coordinate for the cell.
-   * @param hc the hexcoordinate which needs to be set.
+   * getter for the hexcoordinate.
+   * @return the hexcoordinate.
    */
-  public void setHexCoordinate(HexCoordinate hc) {
-    this.hc = hc;
+  public HexCoordinate getHexCoordinate() {
+    return this.cells.geometry.coordinate(this.id);
   }
 
   /**
-   * getter for the hexcoordinate.
-   * @return the hexcoordinate.
+   * Gets the id of the cell.
+   * @return the cell id.
    */
-  public HexCoordinate getHexCoordinate() {
-    return this.hc;
+  int getId() {
+    return this.id;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Hexagon && ((Hexagon) o).cells == this.cells
+            && ((Hexagon) o).id == this.id;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this.cells) * 31 + this.id;
   }
 
   /**
@@ -198,7 +167,6 @@ public class Hexagon {
    * @return the in string.
    */
   public String toString() {
-    double var10000 = this.getX();
-    return "" + var10000 + " ," + this.getY();
+    return "" + this.getX() + " ," + this.getY();
   }
-}
\ No newline at end of file
+}
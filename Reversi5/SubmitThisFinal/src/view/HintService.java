@@ -0,0 +1,183 @@
+package view;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import model.BoardOwner;
+import model.BoardSnapshot;
+import model.HexBoard;
+import model.HexCoordinate;
+import strategy.CancellationToken;
+import strategy.MinimaxStrategy;
+import strategy.SearchLimit;
+
+/**
+ * Searches the current position for hints on a background thread: the best move and the score
+ * of every move of the player to move. The search goes one ply deeper at a time and hands each
+ * finished depth to the listeners on the EDT, so the hints get better while the player thinks.
+ * A newer snapshot cancels the search and starts one on the new position. Every hint carries
+ * the version of the snapshot it was searched on, and a hint for a position the board has
+ * already left is never handed out.
+ */
+public final class HintService implements Consumer<BoardSnapshot>, AutoCloseable {
+  private final BoardOwner owner;
+  private final int maxDepth;
+  private final long millis;
+  private final ExecutorService thread;
+  private final List<Consumer<Hint>> listeners = new CopyOnWriteArrayList<>();
+  private CancellationToken token = new CancellationToken();
+  private boolean closed;
+
+  /**
+   * The hints for one position, as far as the search has got.
+   *
+   * @param version the version of the snapshot the hints are for.
+   * @param depth the depth every move was searched to.
+   * @param best the move with the highest score, or null if the player must pass.
+   * @param scores the score of each move from the point of view of the player to move.
+   * @param nodes the number of positions visited for this depth.
+   */
+  public record Hint(long version, int depth, HexCoordinate best,
+                     Map<HexCoordinate, Integer> scores, long nodes) {
+
+    /**
+     * Gets the score of a move.
+     *
+     * @param move the move.
+     * @return the score, or null if the move is not legal.
+     */
+    public Integer scoreOf(HexCoordinate move) {
+      return this.scores.get(move);
+    }
+  }
+
+  /**
+   * Constructs a service for a board. It does nothing until {@link #start()} is called.
+   *
+   * @param owner the owner of the board.
+   * @param maxDepth the deepest to search each position.
+   * @param millis the most time to spend on each position, in milliseconds.
+   * @throws IllegalArgumentException if the depth or the time is not positive.
+   */
+  public HintService(BoardOwner owner, int maxDepth, long millis) {
+    if (maxDepth <= 0 || millis <= 0) {
+      throw new IllegalArgumentException("Hint limit is invalid");
+    }
+    this.owner = owner;
+    this.maxDepth = maxDepth;
+    this.millis = millis;
+    this.thread = Executors.newSingleThreadExecutor(task -> {
+      Thread hints = new Thread(task, "hints");
+      hints.setDaemon(true);
+      return hints;
+    });
+  }
+
+  /**
+   * Adds a listener, which is called on the EDT with each new hint.
+   *
+   * @param listener the listener.
+   */
+  public void addHintListener(Consumer<Hint> listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeHintListener(Consumer<Hint> listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Starts searching, beginning with the current snapshot.
+   */
+  public void start() {
+    this.owner.addSnapshotListener(this);
+    this.accept(this.owner.snapshot());
+  }
+
+  /**
+   * Cancels the search of the last position and schedules one of the new position. This runs on
+   * the owner's thread, so it only hands the search off.
+   *
+   * @param snapshot the snapshot just published.
+   */
+  @Override
+  public synchronized void accept(BoardSnapshot snapshot) {
+    if (this.closed) {
+      return;
+    }
+    this.token.cancel();
+    CancellationToken token = new CancellationToken();
+    this.token = token;
+    this.thread.execute(() -> this.search(snapshot, token));
+  }
+
+  private void search(BoardSnapshot snapshot, CancellationToken token) {
+    if (token.isCancelled()) {
+      return;
+    }
+    HexBoard board = snapshot.toHexBoard();
+    MinimaxStrategy strategy = new MinimaxStrategy(board, board.getCurrentPlayer());
+    if (board.getAllValidMoves(board.getCurrentPlayer()).isEmpty()) {
+      this.publish(new Hint(snapshot.getVersion(), 0, null, Collections.emptyMap(), 0), token);
+      return;
+    }
+    SearchLimit limit = SearchLimit.ofMillis(this.millis);
+    for (int depth = 1; depth <= this.maxDepth && depth <= board.getNumberOfCells(); ++depth) {
+      Map<HexCoordinate, Integer> scores = strategy.scoreMoves(depth, limit, token);
+      if (scores == null || token.isCancelled()) {
+        return;
+      }
+      HexCoordinate best = null;
+      int bestScore = Integer.MIN_VALUE;
+      for (Map.Entry<HexCoordinate, Integer> entry : scores.entrySet()) {
+        if (entry.getValue() > bestScore) {
+          bestScore = entry.getValue();
+          best = entry.getKey();
+        }
+      }
+      this.publish(new Hint(snapshot.getVersion(), depth, best,
+              Collections.unmodifiableMap(scores), strategy.getNodes()), token);
+      if (limit.isTimeUp()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Hands a hint to the listeners on the EDT, unless its search has been cancelled or the board
+   * has moved on by the time it gets there.
+   */
+  private void publish(Hint hint, CancellationToken token) {
+    SwingUtilities.invokeLater(() -> {
+      if (token.isCancelled() || this.owner.snapshot().getVersion() != hint.version()) {
+        return;
+      }
+      for (Consumer<Hint> listener : this.listeners) {
+        listener.accept(hint);
+      }
+    });
+  }
+
+  /**
+   * Cancels the search in progress and stops searching for good.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+      this.token.cancel();
+    }
+    this.owner.removeSnapshotListener(this);
+    this.thread.shutdownNow();
+  }
+}
@@ -0,0 +1,139 @@
+package view;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import model.BoardOwner;
+import model.BoardSnapshot;
+import model.MoveOverlay;
+
+/**
+ * Works out the {@link MoveOverlay} of every snapshot a board's owner publishes, on a background
+ * thread, and hands it to the listeners on the EDT. Only the newest snapshot is worked on: if
+ * several are published while one is being worked out, the ones in between are skipped. The
+ * views then answer hovers, clicks and move checks from the overlay without touching the model.
+ */
+public final class MoveOverlayService implements Consumer<BoardSnapshot>, AutoCloseable {
+  private final BoardOwner owner;
+  private final ExecutorService thread;
+  private final AtomicReference<BoardSnapshot> pending = new AtomicReference<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final List<Consumer<MoveOverlay>> listeners = new CopyOnWriteArrayList<>();
+  private volatile MoveOverlay latest;
+  private boolean closed;
+
+  /**
+   * Constructs a service for a board. It does nothing until {@link #start()} is called.
+   *
+   * @param owner the owner of the board.
+   */
+  public MoveOverlayService(BoardOwner owner) {
+    this.owner = owner;
+    this.thread = Executors.newSingleThreadExecutor(task -> {
+      Thread overlay = new Thread(task, "move-overlay");
+      overlay.setDaemon(true);
+      return overlay;
+    });
+  }
+
+  /**
+   * Adds a listener, which is called on the EDT with each new overlay.
+   *
+   * @param listener the listener.
+   */
+  public void addOverlayListener(Consumer<MoveOverlay> listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeOverlayListener(Consumer<MoveOverlay> listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Starts working out overlays, beginning with the current snapshot.
+   */
+  public void start() {
+    this.owner.addSnapshotListener(this);
+    this.accept(this.owner.snapshot());
+  }
+
+  /**
+   * Gets the newest overlay worked out so far.
+   *
+   * @return the overlay, or null if none has been worked out yet.
+   */
+  public MoveOverlay getLatest() {
+    return this.latest;
+  }
+
+  /**
+   * Queues a snapshot to be worked out. This runs on the owner's thread, so it only hands the
+   * work off.
+   *
+   * @param snapshot the snapshot just published.
+   */
+  @Override
+  public void accept(BoardSnapshot snapshot) {
+    this.pending.set(snapshot);
+    if (this.scheduled.compareAndSet(false, true)) {
+      // The flag is checked under the same lock close() sets it under, so the thread is never
+      // handed work after it has been shut down.
+      synchronized (this) {
+        if (!this.closed) {
+          this.thread.execute(this::drain);
+        }
+      }
+    }
+  }
+
+  /**
+   * Works out the newest pending snapshot until there is none left.
+   */
+  private void drain() {
+    BoardSnapshot snapshot;
+    while (true) {
+      snapshot = this.pending.getAndSet(null);
+      if (snapshot == null) {
+        this.scheduled.set(false);
+        // A snapshot may have arrived after the last check but before the flag was cleared.
+        if (this.pending.get() == null || !this.scheduled.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      MoveOverlay current = this.latest;
+      if (current != null && current.getVersion() >= snapshot.getVersion()) {
+        continue;
+      }
+      MoveOverlay overlay = MoveOverlay.of(snapshot);
+      this.latest = overlay;
+      SwingUtilities.invokeLater(() -> {
+        for (Consumer<MoveOverlay> listener : this.listeners) {
+          listener.accept(overlay);
+        }
+      });
+    }
+  }
+
+  /**
+   * Stops listening to the owner and stops the background thread.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+    }
+    this.owner.removeSnapshotListener(this);
+    this.thread.shutdownNow();
+  }
+}
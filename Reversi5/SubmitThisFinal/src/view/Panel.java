@@ -1,6 +1,6 @@
 package view;
 
-import Controller.BoardObserver;
+import Controller.BoardChangeObserver;
 import Controller.Controller;
 import Controller.IPlayerAction;
 import java.awt.Color;
@@ -12,13 +12,21 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.BitSet;
 import java.util.List;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import model.BoardChange;
+import model.BoardOwner;
+import model.BoardSnapshot;
 import model.Cell;
 import model.HexCoordinate;
+import model.MoveOverlay;
 import model.Player;
 import model.ReadOnlyBoard;
 import javax.swing.JOptionPane;
@@ -26,22 +34,60 @@ import javax.swing.JOptionPane;
 /**
  * A custom JPanel that acts as the main view for a hex-based board game.
  * It listens to mouse, component, and key events, and implements game-specific player actions.
- * and board updates.
+ * and board updates. The mouse wheel zooms in around the cursor, dragging pans the zoomed board
+ * and '0' shows the whole board again. Move checks and flip counts are read from the turn's
+ * {@link MoveOverlay}, and 'l' shades every legal move of the player to move. Hints from a
+ * {@link HintService} shade the best move and add each move's score to its tooltip, and 'h'
+ * colours every legal move by its score from a {@link HeatmapService}.
  */
 public class Panel extends JPanel implements IView, MouseListener, ComponentListener, KeyListener,
-        IPlayerAction, BoardObserver {
+        IPlayerAction, BoardChangeObserver, MouseMotionListener, MouseWheelListener {
+  /**
+   * How far in the mouse wheel zooms: until a hexagon's radius is this many pixels.
+   */
+  private static final double MAX_ZOOM_RADIUS = 48.0;
+  /**
+   * The colour of the empty hexagons the player to move may move on, when they are shown.
+   */
+  private static final Color LEGAL_COLOR = new Color(190, 225, 190);
+  /**
+   * The colour of the empty hexagon the hints find best.
+   */
+  private static final Color HINT_COLOR = new Color(245, 215, 130);
+  /**
+   * The score at which the heatmap is fully red or fully green; scores beyond it are clamped.
+   */
+  private static final int HEAT_RANGE = 24;
+  private static final Color[] HEAT_COLORS = heatColors();
+
   public static int dimensionWidth = 1000;
   public static int dimensionHeight = 1000;
   public int radius;
   public ReadOnlyBoard board;
-  public ArrayList<Hexagon> hexList;
-  public ArrayList<HexCoordinate> hcList;
   private Player blackPlayer;
   private Player whitePlayer;
   public Player currentPlayer;
   public Player opponentPlayer;
   public Hexagon highlightedHex;
   public Controller controller;
+  private HexGeometry geometry;
+  private CellStates cells;
+  private BoardLayers layers;
+  private Viewport viewport;
+  private int dragX;
+  private int dragY;
+  private final List<Hexagon> highlighted = new ArrayList<>();
+  private BoardOwner owner;
+  private MoveOverlay overlay;
+  private boolean showLegal;
+  private final BitSet legalShown = new BitSet();
+  private HintService.Hint hint;
+  private int hintShown = -1;
+  private HeatmapService heatmap;
+  private boolean showHeat;
+  private int[] heat;
+  private final BitSet heatShown = new BitSet();
+  private long heatVersion = -1;
 
   /**
    * Constructs a Panel with a given game board model.
@@ -54,15 +100,16 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
     this.whitePlayer = new Player(Cell.WHITE);
     this.board = board;
     this.addMouseListener(this);
+    this.addMouseMotionListener(this);
+    this.addMouseWheelListener(this);
     this.addComponentListener(this);
     this.addKeyListener(this);
     this.setFocusable(true);
     this.requestFocusInWindow();
-    this.hexList = new ArrayList();
-    this.hcList = new ArrayList();
     this.currentPlayer = blackPlayer;
     this.opponentPlayer = whitePlayer;
-    this.board.addObserver(this);
+    // Board changes reach the panel on the EDT, merged into one update per burst of moves.
+    this.board.addObserver(this, SwingUtilities::invokeLater);
   }
 
   /**
@@ -75,62 +122,272 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
   }
 
   /**
-   * Sets the radius for hexagons in the game board.
+   * Sets the owner of the board. From then on the panel reads the owner's snapshots rather than
+   * the live board, which the owner's thread may be changing.
    *
-   * @param radius The radius of hexagons.
+   * @param owner the board's owner.
    */
-  public void inputtedRadius(int radius) {
-    this.radius = radius;
+  public void setOwner(BoardOwner owner) {
+    this.owner = owner;
   }
 
   /**
-   * Generates and lays out hexagons on the board based on the current radius and panel size.
+   * Hands the panel the moves of a turn, worked out off the EDT. An overlay older than the one
+   * the panel already has is ignored.
+   *
+   * @param overlay the moves of the player to move.
    */
-  public void createHex() {
-    this.hexList.clear();
-    double middleX = (double)this.getWidth() / 2.0;
-    double middleY = (double)this.getHeight() / 2.0;
-    double hexRadius = (double)(this.getWidth() / ((this.radius * 2 + 1) * 2));
-    double hexWidth = hexRadius * Math.sqrt(3.0);
-    int hexFromPRow = this.radius;
-    int hexFromNRow = 0;
-
-    for(int row = -this.radius; row <= this.radius; ++row) {
-      int cols = this.radius * 2 - Math.abs(row) + 1;
-      int count = 0;
-
-      for(int col = -cols / 2; col <= cols / 2; ++col) {
-        double offsetX = row % 2 != 0 ? hexWidth / 2.0 : 0.0;
-        double x = middleX + (double)col * hexWidth + offsetX;
-        double y = middleY + (double)row * hexRadius * 1.5;
-        Hexagon hex = new Hexagon(x, y, hexRadius);
-        this.hexList.add(hex);
-        HexCoordinate hc = new HexCoordinate(row, -hexFromNRow + count, hexFromPRow - count);
-        hex.setHexCoordinate(hc);
-        if ((row % 2 == 1 || row % 2 == -1) && col == cols / 2 - 1) {
-          break;
-        }
+  public void setOverlay(MoveOverlay overlay) {
+    if (overlay.getRadius() != this.radius) {
+      return;
+    }
+    if (this.overlay != null && this.overlay.getVersion() >= overlay.getVersion()) {
+      return;
+    }
+    this.overlay = overlay;
+    this.showLegalMoves();
+  }
 
-        if (row == 1 && col == -1 || row == 0 && col == 1 || row == -1 && col == -1) {
-          hex.setPiece(Cell.BLACK);
-        }
+  /**
+   * Gets the moves of the current turn. With an owner, the overlay is the one for the latest
+   * snapshot, worked out here only if it has not arrived yet; without one, it is worked out once
+   * after each change to the board.
+   *
+   * @return the moves of the player to move.
+   */
+  private MoveOverlay overlay() {
+    if (this.owner != null) {
+      BoardSnapshot snapshot = this.owner.snapshot();
+      if (this.overlay == null || this.overlay.getVersion() != snapshot.getVersion()) {
+        this.overlay = MoveOverlay.of(snapshot);
+      }
+    } else if (this.overlay == null) {
+      this.overlay = MoveOverlay.of(this.board);
+    }
+    return this.overlay;
+  }
 
-        if (row == 1 && col == 0 || row == 0 && col == -1 || row == -1 && col == 0) {
-          hex.setPiece(Cell.WHITE);
-        }
+  /**
+   * Forgets the overlay of a board without an owner, whose changes carry no version.
+   */
+  private void boardMoved() {
+    if (this.owner == null) {
+      this.overlay = null;
+    }
+  }
 
-        ++count;
+  /**
+   * Shades the legal moves of the player to move, or turns the shaded hexagons back when they
+   * are no longer legal or no longer shown.
+   */
+  private void showLegalMoves() {
+    if (this.cells == null || (!this.showLegal && this.legalShown.isEmpty())) {
+      return;
+    }
+    MoveOverlay moves = this.showLegal ? this.overlay() : null;
+    BitSet changed = (BitSet) this.legalShown.clone();
+    this.legalShown.clear();
+    if (moves != null) {
+      for (int id = 0; id < this.cells.size(); ++id) {
+        if (moves.isLegal(id)) {
+          this.legalShown.set(id);
+        }
       }
+    }
+    changed.xor(this.legalShown);
+    this.rest(changed);
+  }
 
-      if (row >= 0) {
-        --hexFromPRow;
+  /**
+   * Hands the panel a hint searched off the EDT. A hint for any position but the latest is
+   * ignored.
+   *
+   * @param hint the hint.
+   */
+  public void setHint(HintService.Hint hint) {
+    if (this.owner == null || hint.version() != this.owner.snapshot().getVersion()) {
+      return;
+    }
+    this.hint = hint;
+    this.showBest();
+  }
+
+  /**
+   * Forgets the hint once the board has moved on from the position it was searched on.
+   */
+  private void clearHint() {
+    if (this.hint != null && this.owner != null
+            && this.hint.version() == this.owner.snapshot().getVersion()) {
+      return;
+    }
+    this.hint = null;
+    this.showBest();
+  }
+
+  /**
+   * Shades the best move of the current hint, and turns the last one back.
+   */
+  private void showBest() {
+    if (this.cells == null) {
+      return;
+    }
+    int id = this.hint == null || this.hint.best() == null ? -1
+            : this.geometry.cellOf(this.hint.best());
+    int old = this.hintShown;
+    this.hintShown = id;
+    if (old >= 0) {
+      this.rest(old);
+    }
+    if (id >= 0) {
+      this.rest(id);
+    }
+  }
+
+  /**
+   * Gives the panel the heatmap service whose scores 'h' shows.
+   *
+   * @param heatmap the service.
+   */
+  public void setHeatmap(HeatmapService heatmap) {
+    this.heatmap = heatmap;
+    heatmap.addScoreListener(this::addHeat);
+  }
+
+  /**
+   * Colours the cells of newly scored moves. Scores for any position but the latest are
+   * ignored, and the first score of a new position clears the old heatmap.
+   *
+   * @param scores the scores which arrived since the last batch.
+   */
+  private void addHeat(List<HeatmapService.Score> scores) {
+    if (this.cells == null || this.owner == null) {
+      return;
+    }
+    long version = this.owner.snapshot().getVersion();
+    for (HeatmapService.Score score : scores) {
+      if (score.version() != version) {
+        continue;
+      }
+      if (this.heatVersion != version) {
+        this.clearHeat();
+        this.heatVersion = version;
       }
+      int id = this.geometry.cellOf(score.move());
+      if (id >= 0) {
+        this.heat[id] = Math.max(-HEAT_RANGE, Math.min(HEAT_RANGE, score.score()));
+        this.heatShown.set(id);
+        this.rest(id);
+      }
+    }
+  }
+
+  /**
+   * Forgets the heatmap once the board has moved on from the position it was scored on.
+   */
+  private void clearHeat() {
+    if (this.heatShown.isEmpty() || (this.owner != null
+            && this.heatVersion == this.owner.snapshot().getVersion())) {
+      return;
+    }
+    BitSet changed = (BitSet) this.heatShown.clone();
+    this.heatShown.clear();
+    this.rest(changed);
+  }
 
-      if (row < 0) {
-        ++hexFromNRow;
+  /**
+   * Turns the heatmap on or off.
+   */
+  private void toggleHeat() {
+    this.showHeat = !this.showHeat;
+    if (this.heatmap != null) {
+      if (this.showHeat) {
+        this.heatmap.addViewer();
+      } else {
+        this.heatmap.removeViewer();
       }
     }
+    this.rest((BitSet) this.heatShown.clone());
+  }
 
+  /**
+   * Gets the colour a hexagon shows when it is not selected: its heat when the heatmap is shown,
+   * then the hint's shade, then the legal moves' shade, and grey otherwise.
+   */
+  private Color restingColor(int id) {
+    if (this.showHeat && this.heatShown.get(id)) {
+      return HEAT_COLORS[this.heat[id] + HEAT_RANGE];
+    }
+    if (id == this.hintShown) {
+      return HINT_COLOR;
+    }
+    return this.legalShown.get(id) ? LEGAL_COLOR : Color.lightGray;
+  }
+
+  /**
+   * Gives a hexagon its resting colour, unless it is selected.
+   */
+  private void rest(int id) {
+    if (this.cells != null && this.cells.getColor(id) != Color.cyan.getRGB()) {
+      this.cells.setColor(id, this.restingColor(id));
+    }
+  }
+
+  private void rest(BitSet ids) {
+    for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+      this.rest(id);
+    }
+  }
+
+  /**
+   * Makes the colour lookup table of the heatmap: red for the worst scores through yellow to
+   * green for the best, one colour for each score from -HEAT_RANGE to HEAT_RANGE.
+   */
+  private static Color[] heatColors() {
+    Color[] colors = new Color[2 * HEAT_RANGE + 1];
+    for (int i = 0; i < colors.length; ++i) {
+      float t = (float) i / (colors.length - 1);
+      colors[i] = Color.getHSBColor(t / 3.0F, 0.65F, 0.95F);
+    }
+    return colors;
+  }
+
+  /**
+   * Sets the radius for hexagons in the game board.
+   *
+   * @param radius The radius of hexagons.
+   */
+  public void inputtedRadius(int radius) {
+    this.radius = radius;
+  }
+
+  /**
+   * Lays out the hexagons for the current radius and panel size, and shows the model on them.
+   * Panels of the same size share one layout; each keeps only a few bytes of state per cell.
+   */
+  public void createHex() {
+    this.highlighted.clear();
+    if (this.getWidth() <= 0 || this.getHeight() <= 0) {
+      this.geometry = null;
+      this.cells = null;
+      this.viewport = null;
+      this.layers = null;
+      return;
+    }
+    this.geometry = HexGeometry.of(this.radius, this.getWidth(), this.getHeight());
+    this.cells = new CellStates(this.geometry);
+    this.updateBoardStateFromModel();
+    if (this.heat == null || this.heat.length != this.cells.size()) {
+      this.heat = new int[this.cells.size()];
+      this.heatShown.clear();
+    }
+    this.rest(this.heatShown);
+    this.legalShown.clear();
+    this.showLegalMoves();
+    this.hintShown = -1;
+    this.showBest();
+    this.viewport = new Viewport(this.getWidth(), this.getHeight(),
+            MAX_ZOOM_RADIUS / this.geometry.getHexRadius());
+    this.layers = new BoardLayers(this, this.viewport, this.cells);
     this.repaint();
   }
 
@@ -141,20 +398,17 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * @return The HexCoordinate at the event location, or null if none.
    */
   public HexCoordinate getHexCoordinateAt(MouseEvent e) {
-    int clickedX = e.getX();
-    int clickedY = e.getY();
-    Iterator var4 = this.hexList.iterator();
-
-    Hexagon hex;
-    do {
-      if (!var4.hasNext()) {
-        return null;
-      }
-
-      hex = (Hexagon)var4.next();
-    } while(!hex.contains((double)clickedX, (double)clickedY));
+    Hexagon hex = this.hexagonAt(e);
+    return hex == null ? null : hex.getHexCoordinate();
+  }
 
-    return hex.getHexCoordinate();
+  private Hexagon hexagonAt(MouseEvent e) {
+    if (this.geometry == null) {
+      return null;
+    }
+    int id = this.geometry.cellAt(this.viewport.toWorldX(e.getX()),
+            this.viewport.toWorldY(e.getY()));
+    return id < 0 ? null : new Hexagon(this.cells, id);
   }
 
   /**
@@ -167,25 +421,20 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
   }
 
   /**
-   * Paints the board itself.
+   * Paints the board itself from the cached layers, drawing again only the hexagons which
+   * changed since the last paint. Changed hexagons ask for a repaint of their own bounds, so
+   * usually only a small clip is painted.
    * @param g the <code>Graphics</code> object to protect.
    */
   public void paintComponent(Graphics g) {
-    super.paintComponent(g);
     Graphics2D g2d = (Graphics2D)g;
-    g2d.setColor(Color.DARK_GRAY);
-    g2d.fillRect(0, 0, this.getWidth(), this.getHeight());
-    g2d.setColor(Color.BLACK);
-    Iterator var3 = this.hexList.iterator();
-
-    while(var3.hasNext()) {
-      Hexagon hex = (Hexagon)var3.next();
-      hex.draw(g2d);
-      if (hex.getPiece() != null) {
-        hex.getPiece().draw(g2d);
-      }
+    if (this.layers == null) {
+      super.paintComponent(g);
+      g2d.setColor(Color.DARK_GRAY);
+      g2d.fillRect(0, 0, this.getWidth(), this.getHeight());
+      return;
     }
-
+    this.layers.paint(g2d);
   }
 
   /**
@@ -195,18 +444,25 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * @return The corresponding Hexagon, or null if not found.
    */
   private Hexagon getHexagonByCoordinate(HexCoordinate coord) {
-    Iterator var2 = this.hexList.iterator();
+    int id = this.geometry == null ? -1 : this.geometry.cellOf(coord);
+    return id < 0 ? null : new Hexagon(this.cells, id);
+  }
 
-    Hexagon hex;
-    do {
-      if (!var2.hasNext()) {
-        return null;
+  /**
+   * Turns every highlighted hexagon but one back to grey.
+   *
+   * @param keep the hexagon to leave highlighted, or null for none.
+   */
+  private void clearHighlights(Hexagon keep) {
+    for (Hexagon hex : this.highlighted) {
+      if (!hex.equals(keep) && hex.getColor().equals(Color.cyan)) {
+        hex.setColor(this.restingColor(hex.getId()));
       }
-
-      hex = (Hexagon)var2.next();
-    } while(!hex.getHexCoordinate().equals(coord));
-
-    return hex;
+    }
+    this.highlighted.clear();
+    if (keep != null) {
+      this.highlighted.add(keep);
+    }
   }
 
   /**
@@ -216,59 +472,28 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * @param e The MouseEvent triggered by the user.
    */
   public void mouseClicked(MouseEvent e) {
-    int clickedX = e.getX();
-    int clickedY = e.getY();
-    boolean isClickInRange = false;
-    Iterator var5 = this.hexList.iterator();
-
-    while(true) {
-      Hexagon hex;
-      do {
-        if (!var5.hasNext()) {
-          if (!isClickInRange) {
-            var5 = this.hexList.iterator();
-
-            while(var5.hasNext()) {
-              hex = (Hexagon)var5.next();
-              if (hex.getColor().equals(Color.cyan)) {
-                hex.setColor(Color.lightGray);
-                this.repaint();
-              }
-            }
-          }
-
-          return;
-        }
-
-        hex = (Hexagon)var5.next();
-      } while(!hex.contains((double)clickedX, (double)clickedY));
-
-      isClickInRange = true;
-      if (hex.getColor().equals(Color.cyan)) {
-        hex.setColor(Color.lightGray);
-        this.highlightedHex = null;
-      } else {
-        hex.setColor(Color.cyan);
-        this.highlightedHex = hex;
-        hex.setNumber(board.calculateFlipsIfMoved(hex.getHexCoordinate()));
-        Iterator var7 = this.hexList.iterator();
-
-        while(var7.hasNext()) {
-          Hexagon hexagon = (Hexagon)var7.next();
-          if (hexagon.getColor().equals(Color.cyan) && !hexagon.equals(hex)) {
-            hexagon.setColor(Color.lightGray);
-            this.repaint();
-          }
-        }
-      }
+    Hexagon hex = this.hexagonAt(e);
+    if (hex == null) {
+      this.clearHighlights(null);
+      return;
+    }
 
-      PrintStream var10000 = System.out;
-      int var10001 = hex.getHexCoordinate().getY();
-      var10000.println("Highlighted Hex HexCoordinate: " + var10001 + ", " +
-              hex.getHexCoordinate().getP() + ", " + hex.getHexCoordinate().getN());
-      var10000.println(board.calculateFlipsIfMoved(hex.getHexCoordinate()));
-      this.repaint();
+    int flips = this.overlay().getFlips(hex.getId());
+    if (hex.getColor().equals(Color.cyan)) {
+      hex.setColor(this.restingColor(hex.getId()));
+      this.highlightedHex = null;
+    } else {
+      hex.setColor(Color.cyan);
+      this.highlightedHex = hex;
+      hex.setNumber(flips);
+      this.clearHighlights(hex);
     }
+
+    PrintStream var10000 = System.out;
+    int var10001 = hex.getHexCoordinate().getY();
+    var10000.println("Highlighted Hex HexCoordinate: " + var10001 + ", " +
+            hex.getHexCoordinate().getP() + ", " + hex.getHexCoordinate().getN());
+    var10000.println(flips);
   }
 
   /**
@@ -278,6 +503,8 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * @param e The MouseEvent when the mouse is pressed.
    */
   public void mousePressed(MouseEvent e) {
+    this.dragX = e.getX();
+    this.dragY = e.getY();
   }
 
   /**
@@ -307,6 +534,67 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
   public void mouseExited(MouseEvent e) {
   }
 
+  /**
+   * Pans the board by as far as the mouse was dragged.
+   *
+   * @param e The MouseEvent when the mouse is dragged.
+   */
+  public void mouseDragged(MouseEvent e) {
+    int dx = e.getX() - this.dragX;
+    int dy = e.getY() - this.dragY;
+    if (this.viewport != null && this.viewport.panBy(dx, dy)) {
+      this.repaint();
+    }
+    this.dragX = e.getX();
+    this.dragY = e.getY();
+  }
+
+  /**
+   * Shows how many pieces a move under the cursor would flip, and its score once the hints have
+   * one, as a tooltip.
+   *
+   * @param e The MouseEvent when the mouse is moved.
+   */
+  public void mouseMoved(MouseEvent e) {
+    Hexagon hex = this.hexagonAt(e);
+    MoveOverlay moves = this.overlay();
+    int flips = hex == null ? 0 : moves.getFlips(hex.getId());
+    if (flips == 0) {
+      this.setToolTipText(null);
+      return;
+    }
+    String text = "Flips " + flips;
+    if (this.hint != null && this.hint.version() == moves.getVersion()) {
+      Integer score = this.hint.scoreOf(hex.getHexCoordinate());
+      if (score != null) {
+        text += ", score " + score + " at depth " + this.hint.depth();
+      }
+    }
+    this.setToolTipText(text);
+  }
+
+  /**
+   * Zooms in or out around the cursor.
+   *
+   * @param e The MouseWheelEvent when the wheel is turned.
+   */
+  public void mouseWheelMoved(MouseWheelEvent e) {
+    double factor = Math.pow(1.25, -e.getPreciseWheelRotation());
+    if (this.viewport != null && this.viewport.zoomAt(factor, e.getX(), e.getY())) {
+      this.repaint();
+    }
+  }
+
+  /**
+   * Shows the whole board again after zooming or panning.
+   */
+  public void resetView() {
+    if (this.viewport != null && !this.viewport.isIdentity()) {
+      this.viewport.reset();
+      this.repaint();
+    }
+  }
+
   /**
    * Responds to component resized events by recreating the hex layout.
    *
@@ -359,11 +647,23 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * @param e The KeyEvent when a key is pressed.
    */
   public void keyPressed(KeyEvent e) {
+    if (e.getKeyChar() == '0') {
+      this.resetView();
+      return;
+    }
+    if (e.getKeyChar() == 'l' || e.getKeyChar() == 'L') {
+      this.showLegal = !this.showLegal;
+      this.showLegalMoves();
+      return;
+    }
+    if (e.getKeyChar() == 'h' || e.getKeyChar() == 'H') {
+      this.toggleHeat();
+      return;
+    }
     if (e.getKeyChar() != 'p' && e.getKeyChar() != 'P') {
       if ((e.getKeyChar() == 'm' || e.getKeyChar() == 'M') && !e.isConsumed()) {
         System.out.println("Move called for " + currentPlayer.getColor().toString());
         onMove();
-        onPass();
         e.consume();
       }
     } else if (!e.isConsumed()) {
@@ -388,6 +688,14 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    */
   public void onPass() {
     this.controller.onPass();
+    this.boardMoved();
+    this.nextPlayer();
+  }
+
+  /**
+   * Moves the player this view shows as being to move on to the other one.
+   */
+  private void nextPlayer() {
     if (this.currentPlayer.equals(this.blackPlayer)) {
       this.currentPlayer = this.whitePlayer;
       this.opponentPlayer = this.blackPlayer;
@@ -404,18 +712,19 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * selected hexagon.
    */
   public void onMove() {
-    if (this.board.isValidMove(this.highlightedHex.getHexCoordinate())
-            && !highlightedHex.containsCell()) {
-      this.highlightedHex.setPiece(this.board.getCurrentPlayer().getColor());
+    MoveOverlay moves = this.overlay();
+    boolean legal = moves.isLegal(this.highlightedHex.getId());
+    if (legal && !highlightedHex.containsCell()) {
+      this.highlightedHex.setPiece(moves.getColor());
       this.controller.onMove();
-      this.repaint();
+      this.nextPlayer();
     }
     else {
       JOptionPane.showMessageDialog(this, "Invalid move!",
               "Move Error", JOptionPane.ERROR_MESSAGE);
     }
 
-    System.out.println(this.board.isValidMove(this.highlightedHex.getHexCoordinate()));
+    System.out.println(legal);
   }
 
   /**
@@ -423,29 +732,30 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    * switching players.
    */
   public void updateBoard() {
+    this.boardMoved();
+    this.clearHint();
+    this.clearHeat();
+    MoveOverlay moves = this.overlay();
     List hcl = this.board.getFlipPiecesList();
-    Iterator var2 = this.hexList.iterator();
-
-    while(var2.hasNext()) {
-      Hexagon hex = (Hexagon)var2.next();
-      Iterator var4 = hcl.iterator();
-
-      while(var4.hasNext()) {
-        Object o = var4.next();
-        if (hex.getHexCoordinate().equals(o) &&
-                board.isValidMove(hex.getHexCoordinate())) {
-          hex.setColor(Color.CYAN);
-          this.repaint();
-        }
-        if (hex.getHexCoordinate().equals(o)) {
-          hex.setPiece(this.board.getCurrentPlayer().getColor());
-          this.repaint();
-        }
+    if (this.owner != null) {
+      BoardChange last = this.owner.snapshot().getLastChange();
+      hcl = last == null ? List.of() : last.getFlipped();
+    }
+
+    for (Object o : hcl) {
+      Hexagon hex = this.getHexagonByCoordinate((HexCoordinate) o);
+      if (hex == null) {
+        continue;
       }
+      if (moves.isLegal(hex.getId())) {
+        hex.setColor(Color.CYAN);
+        this.highlighted.add(hex);
+      }
+      hex.setPiece(moves.getColor());
     }
 
+    this.showLegalMoves();
     controller.changeCurrent();
-    repaint();
   }
 
   /**
@@ -453,19 +763,52 @@ public class Panel extends JPanel implements IView, MouseListener, ComponentList
    */
   @Override
   public void onBoardChanged() {
+    this.boardMoved();
+    this.clearHint();
+    this.clearHeat();
     updateBoardStateFromModel();
-    repaint();
+    this.showLegalMoves();
+  }
+
+  /**
+   * Called after each move with what it changed. Only the placed and flipped hexagons are
+   * updated and repainted, so the cost follows the size of the move rather than the size of the
+   * board.
+   *
+   * @param change the cells the move placed and flipped.
+   */
+  @Override
+  public void onBoardChanged(BoardChange change) {
+    Hexagon placed = this.getHexagonByCoordinate(change.getPlaced());
+    if (placed != null) {
+      placed.setPiece(change.getMover());
+    }
+    for (HexCoordinate flipped : change.getFlipped()) {
+      Hexagon hex = this.getHexagonByCoordinate(flipped);
+      if (hex != null) {
+        hex.setPiece(change.getMover());
+      }
+    }
+    this.boardMoved();
+    this.clearHint();
+    this.clearHeat();
+    this.showLegalMoves();
   }
 
   /**
    * Updates the board's visual state to match the current state of the game model.
    */
   private void updateBoardStateFromModel() {
-    for (Hexagon hex : hexList) {
-      Cell cell = board.getCoordinateState(hex.getHexCoordinate());
+    if (this.cells == null) {
+      return;
+    }
+    BoardSnapshot snapshot = this.owner == null ? null : this.owner.snapshot();
+    for (int id = 0; id < this.cells.size(); ++id) {
+      HexCoordinate hc = this.geometry.coordinate(id);
+      Cell cell = snapshot == null ? board.getCoordinateState(hc) : snapshot.getCell(hc);
       if(cell != null) {
         // Only update hexagon if the corresponding cell state is not null
-        hex.setPiece(cell); // Assuming setPiece method correctly sets the appearance based on Cell state
+        this.cells.setPiece(id, cell);
       }
     }
   }
@@ -2,7 +2,6 @@ package view;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Path2D;
 import model.Cell;
 
 /**
@@ -11,7 +10,6 @@ import model.Cell;
 public class Piece {
   public Cell cellStatus;
   public Color color;
-  public Path2D piece;
   Hexagon hex;
 
   /**
@@ -21,7 +19,6 @@ public class Piece {
    */
   public Piece(Hexagon hex, Cell cellStatus) {
     this.cellStatus = cellStatus;
-    this.piece = new Path2D.Double();
     this.hex = hex;
     if (cellStatus.equals(Cell.BLACK)) {
       this.color = Color.BLACK;
@@ -38,10 +35,15 @@ public class Piece {
    * @param g2 Graphics2D constructor.
    */
   public void draw(Graphics2D g2) {
-    g2.setColor(this.color);
-    double x = this.hex.getX();
-    double y = this.hex.getY();
-    double radius = this.hex.getRadius() / 2.0;
+    fill(g2, this.color, this.hex.getX(), this.hex.getY(), this.hex.getRadius());
+  }
+
+  /**
+   * Draws a piece of a colour on the hexagon centred at a point.
+   */
+  static void fill(Graphics2D g2, Color color, double x, double y, double hexRadius) {
+    g2.setColor(color);
+    double radius = hexRadius / 2.0;
     g2.fillOval((int)(x - radius), (int)(y - radius), (int)radius * 2, (int)radius * 2);
   }
 
@@ -0,0 +1,371 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+import model.Cell;
+import model.CellIndex;
+import model.GameRecord;
+import model.HexBoard;
+import model.HexCoordinate;
+
+/**
+ * Draws games off screen, one image per position, with the same hexagons and pieces a
+ * {@link Panel} draws. A game is replayed on the calling thread, which only copies out the
+ * pieces of each position; drawing and PNG encoding run on a fork-join pool, one task per
+ * image. At most a fixed number of images are waiting or in progress at once, so replaying
+ * blocks when the pool falls behind and memory stays flat however many games are drawn.
+ * <p>
+ * Each position can go to a PNG file of its own, or all the positions of a game to one contact
+ * sheet, laid out in rows with the number of moves played written on each.
+ * </p>
+ */
+public final class ReplayRenderer implements AutoCloseable {
+  private static final Cell[] CELLS = Cell.values();
+  private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 12);
+
+  private final int width;
+  private final int height;
+  private final int window;
+  private final ForkJoinPool pool;
+  private final Semaphore inFlight;
+  private final AtomicReference<IOException> failure = new AtomicReference<>();
+  private final AtomicLong frames = new AtomicLong();
+
+  /**
+   * One position to draw: the pieces on each cell by cell id, and the cell just played.
+   */
+  private record Frame(int radius, byte[] pieces, int last, int ply) {
+  }
+
+  /**
+   * Constructs a renderer.
+   *
+   * @param width the width of each image, or of each position on a contact sheet.
+   * @param height the height of each image, or of each position on a contact sheet.
+   * @param threads the number of threads to draw and encode on.
+   * @throws IllegalArgumentException if the size or the thread count is not positive.
+   */
+  public ReplayRenderer(int width, int height, int threads) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Image size must be positive");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.window = threads * 2;
+    this.pool = new ForkJoinPool(threads);
+    this.inFlight = new Semaphore(this.window);
+  }
+
+  /**
+   * Draws a position.
+   *
+   * @param board the position.
+   * @param last the move just played, to be shown selected, or null for none.
+   * @return the image.
+   */
+  public BufferedImage render(HexBoard board, HexCoordinate last) {
+    return this.draw(capture(board, last, 0), false);
+  }
+
+  /**
+   * Queues every position of a game, from the start to after the last move, to be written to a
+   * PNG file of its own, named after the game and the number of moves played. This returns once
+   * the last position is queued; {@link #finish()} waits for the files.
+   *
+   * @param record the game.
+   * @param directory the directory to write to.
+   * @param name the start of each file name.
+   * @throws IllegalArgumentException if the game cannot be replayed.
+   * @throws InterruptedException if interrupted while waiting for room in the pipeline.
+   */
+  public void writeFrames(GameRecord record, Path directory, String name)
+          throws InterruptedException {
+    FrameTask png = frame -> write(this.draw(frame, false),
+            directory.resolve(String.format("%s-%04d.png", name, frame.ply())));
+    HexBoard board = new HexBoard(record.getRadius());
+    this.submit(capture(board, null, 0), png);
+    int ply = 0;
+    for (HexCoordinate move : record.getMoves()) {
+      play(board, move);
+      this.submit(capture(board, move, ++ply), png);
+    }
+  }
+
+  /**
+   * Queues every position of a game to be drawn on one contact sheet, in rows of the given
+   * length, and the sheet to be written as a PNG file once the last position is drawn. This
+   * returns once the last position is queued; {@link #finish()} waits for the file.
+   *
+   * @param record the game.
+   * @param columns the number of positions in each row.
+   * @param file the file to write.
+   * @throws IllegalArgumentException if the game cannot be replayed or columns is not positive.
+   * @throws InterruptedException if interrupted while waiting for room in the pipeline.
+   */
+  public void writeContactSheet(GameRecord record, int columns, Path file)
+          throws InterruptedException {
+    if (columns <= 0) {
+      throw new IllegalArgumentException("Column count must be positive");
+    }
+    int count = record.getMoves().size() + 1;
+    int rows = (count + columns - 1) / columns;
+    BufferedImage sheet = new BufferedImage(Math.min(count, columns) * this.width,
+            rows * this.height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D background = sheet.createGraphics();
+    background.setColor(Color.DARK_GRAY);
+    background.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+    background.dispose();
+    AtomicInteger remaining = new AtomicInteger(count);
+    FrameTask tile = frame -> {
+      BufferedImage image = this.draw(frame, true);
+      synchronized (sheet) {
+        Graphics2D g2 = sheet.createGraphics();
+        g2.drawImage(image, frame.ply() % columns * this.width,
+                frame.ply() / columns * this.height, null);
+        g2.dispose();
+      }
+      // The task drawing the last position encodes the sheet.
+      if (remaining.decrementAndGet() == 0) {
+        synchronized (sheet) {
+          write(sheet, file);
+        }
+      }
+    };
+    HexBoard board = new HexBoard(record.getRadius());
+    this.submit(capture(board, null, 0), tile);
+    int ply = 0;
+    for (HexCoordinate move : record.getMoves()) {
+      play(board, move);
+      this.submit(capture(board, move, ++ply), tile);
+    }
+  }
+
+  /**
+   * Waits until every queued image has been written.
+   *
+   * @throws IOException if any image could not be written.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void finish() throws IOException, InterruptedException {
+    this.inFlight.acquire(this.window);
+    this.inFlight.release(this.window);
+    IOException e = this.failure.get();
+    if (e != null) {
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the number of positions drawn so far.
+   *
+   * @return the number of frames.
+   */
+  public long getFrames() {
+    return this.frames.get();
+  }
+
+  /**
+   * Stops the pool, dropping any images not yet written.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdownNow();
+  }
+
+  /**
+   * Something to do with a position once it is on the pool.
+   */
+  private interface FrameTask {
+    void run(Frame frame) throws IOException;
+  }
+
+  /**
+   * Hands a position to the pool, waiting while the pipeline is full. Once an image has failed
+   * to be written, the rest are skipped.
+   */
+  private void submit(Frame frame, FrameTask task) throws InterruptedException {
+    this.inFlight.acquire();
+    try {
+      this.pool.execute(() -> {
+        try {
+          if (this.failure.get() == null) {
+            task.run(frame);
+          }
+        } catch (IOException e) {
+          this.failure.compareAndSet(null, e);
+        } finally {
+          this.inFlight.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      this.inFlight.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Draws a position the way the panel draws it: the dark background, each hexagon in its
+   * colour, then the pieces.
+   */
+  private BufferedImage draw(Frame frame, boolean label) {
+    HexGeometry geometry = HexGeometry.of(frame.radius(), this.width, this.height);
+    CellStates cells = new CellStates(geometry);
+    for (int id = 0; id < cells.size(); ++id) {
+      cells.setPiece(id, CELLS[frame.pieces()[id]]);
+    }
+    if (frame.last() >= 0) {
+      cells.setColor(frame.last(), Color.cyan);
+    }
+    BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2 = image.createGraphics();
+    try {
+      g2.setColor(Color.DARK_GRAY);
+      g2.fillRect(0, 0, this.width, this.height);
+      for (int id = 0; id < cells.size(); ++id) {
+        cells.drawHex(g2, id);
+      }
+      for (int id = 0; id < cells.size(); ++id) {
+        cells.drawPiece(g2, id);
+      }
+      if (label) {
+        g2.setFont(LABEL_FONT);
+        g2.setColor(Color.WHITE);
+        g2.drawString(String.valueOf(frame.ply()), 4, 4 + g2.getFontMetrics().getAscent());
+      }
+    } finally {
+      g2.dispose();
+    }
+    this.frames.incrementAndGet();
+    return image;
+  }
+
+  /**
+   * Copies the pieces of a position out of the board, so the board can move on while it is
+   * drawn.
+   */
+  private static Frame capture(HexBoard board, HexCoordinate last, int ply) {
+    CellIndex index = CellIndex.of(board.getRadius());
+    byte[] pieces = new byte[index.size()];
+    for (int id = 0; id < pieces.length; ++id) {
+      pieces[id] = (byte) board.getCoordinateState(index.coordinate(id)).ordinal();
+    }
+    return new Frame(board.getRadius(), pieces, last == null ? -1 : index.indexOf(last), ply);
+  }
+
+  private static void play(HexBoard board, HexCoordinate move) {
+    try {
+      GameRecord.play(board, move);
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Move " + move + " cannot be replayed", e);
+    }
+  }
+
+  private static void write(BufferedImage image, Path file) throws IOException {
+    if (!ImageIO.write(image, "png", file.toFile())) {
+      throw new IOException("No PNG writer for " + file);
+    }
+  }
+
+  /**
+   * Draws games from the command line.
+   * <pre>
+   *   ReplayRenderer [--mode frames|sheet] [--size 400] [--columns 8] [--threads N]
+   *                  [--in games.txt] [--out images]
+   * </pre>
+   * Games are read one per line, either as {@link GameRecord} lines or as tournament result
+   * lines whose last field is the record, from standard input by default. Each game is named
+   * after its line number. The number of frames drawn per second is printed to standard error.
+   *
+   * @param args the command line arguments described above.
+   * @throws IOException if the input cannot be read or an image cannot be written.
+   * @throws InterruptedException if interrupted while the images are drawn.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    System.setProperty("java.awt.headless", "true");
+    String mode = "frames";
+    int size = 400;
+    int columns = 8;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String inPath = null;
+    String outPath = "images";
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--mode":
+          mode = value;
+          break;
+        case "--size":
+          size = Integer.parseInt(value);
+          break;
+        case "--columns":
+          columns = Integer.parseInt(value);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(value);
+          break;
+        case "--in":
+          inPath = value;
+          break;
+        case "--out":
+          outPath = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+    if (!mode.equals("frames") && !mode.equals("sheet")) {
+      throw new IllegalArgumentException("Unknown mode: " + mode);
+    }
+
+    Path out = Paths.get(outPath);
+    Files.createDirectories(out);
+    long games = 0;
+    long start = System.nanoTime();
+    try (ReplayRenderer renderer = new ReplayRenderer(size, size, threads);
+         BufferedReader in = inPath == null
+                 ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                 : Files.newBufferedReader(Paths.get(inPath))) {
+      long lineNumber = 0;
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        String name = String.format("game-%04d", ++lineNumber);
+        String text = line.substring(line.lastIndexOf('\t') + 1).trim();
+        if (text.isEmpty() || text.startsWith("#")) {
+          continue;
+        }
+        try {
+          GameRecord record = GameRecord.parse(text);
+          if (mode.equals("sheet")) {
+            renderer.writeContactSheet(record, columns, out.resolve(name + ".png"));
+          } else {
+            renderer.writeFrames(record, out, name);
+          }
+          ++games;
+        } catch (IllegalArgumentException e) {
+          System.err.println("# " + name + ": " + e.getMessage());
+        }
+      }
+      renderer.finish();
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.err.printf("%d games, %d frames in %.2f s (%.1f frames/s)%n", games,
+              renderer.getFrames(), seconds, renderer.getFrames() / seconds);
+    }
+  }
+}
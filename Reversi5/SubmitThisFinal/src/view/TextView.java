@@ -2,7 +2,6 @@ package view;
 
 import model.Cell;
 import model.HexBoard;
-import model.HexCoordinate;
 import model.Player;
 import model.SquareBoard;
 import model.XYCoordinate;
@@ -23,28 +22,12 @@ public class TextView {
    * @return String representation of the board.
    */
   public String hexRenderBoard(HexBoard board) {
-    StringBuilder builder = new StringBuilder();
-    int radius = board.getRadius();
-
-    for(int y = -radius; y <= radius; ++y) {
-      int indent = Math.abs(y);
-      builder.append(" ".repeat(indent * 2));
-
-      for(int p = -radius; p <= radius; ++p) {
-        int n = -y - p;
-        if (board.isValidCoordinate(new HexCoordinate(y, p, n))) {
-          Cell cell = board.getCoordinateState(new HexCoordinate(y, p, n));
-          builder.append(cell).append("   ");
-        }
-      }
-
-      builder.append("\n");
-    }
-
-    String var10000 = builder.toString();
-    return var10000 + builder.append("Current Player: ").append(board.getCurrentPlayer().
+    HexTextFormat format = HexTextFormat.of(board.getRadius());
+    StringBuilder builder = new StringBuilder(format.length() + 80);
+    format.write(board, builder);
+    return builder.append("Current Player: ").append(board.getCurrentPlayer().
             toString()).append("\nCurrent Player Score: ").append(board.getCurrentPlayerScore()).
-            append("\nOpponent Player Score: ").append(board.getOpponentPlayerScore());
+            append("\nOpponent Player Score: ").append(board.getOpponentPlayerScore()).toString();
   }
 
   public String squareRenderBoard(SquareBoard board) {
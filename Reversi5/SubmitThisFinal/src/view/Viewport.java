@@ -0,0 +1,150 @@
+package view;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+/**
+ * The part of the board a {@link Panel} shows. The board is laid out once to fit the panel, and
+ * the viewport scales and moves that layout: a screen pixel is the layout pixel times the scale
+ * plus the offset. The scale never drops below one, where the whole board fits, and the offset
+ * is kept so the layout always covers the panel.
+ */
+final class Viewport {
+  private final int width;
+  private final int height;
+  private final double maxScale;
+  private double scale;
+  private double offsetX;
+  private double offsetY;
+
+  /**
+   * Constructs a viewport which shows the whole board.
+   *
+   * @param width the width of the panel.
+   * @param height the height of the panel.
+   * @param maxScale the largest scale to zoom in to.
+   */
+  Viewport(int width, int height, double maxScale) {
+    this.width = width;
+    this.height = height;
+    this.maxScale = Math.max(1.0, maxScale);
+    this.scale = 1.0;
+  }
+
+  int getWidth() {
+    return this.width;
+  }
+
+  int getHeight() {
+    return this.height;
+  }
+
+  double getScale() {
+    return this.scale;
+  }
+
+  double getOffsetX() {
+    return this.offsetX;
+  }
+
+  double getOffsetY() {
+    return this.offsetY;
+  }
+
+  /**
+   * Checks whether the viewport shows the board exactly as laid out.
+   *
+   * @return true if the scale is one and there is no offset.
+   */
+  boolean isIdentity() {
+    return this.scale == 1.0 && this.offsetX == 0.0 && this.offsetY == 0.0;
+  }
+
+  /**
+   * Zooms in or out around a screen point, which stays over the same part of the board.
+   *
+   * @param factor the factor to multiply the scale by.
+   * @param x the x of the screen point.
+   * @param y the y of the screen point.
+   * @return true if the view changed.
+   */
+  boolean zoomAt(double factor, double x, double y) {
+    double next = Math.max(1.0, Math.min(this.maxScale, this.scale * factor));
+    if (next == this.scale) {
+      return false;
+    }
+    double worldX = this.toWorldX(x);
+    double worldY = this.toWorldY(y);
+    this.scale = next;
+    this.offsetX = x - worldX * next;
+    this.offsetY = y - worldY * next;
+    this.clamp();
+    return true;
+  }
+
+  /**
+   * Moves the board on the screen.
+   *
+   * @param dx the pixels to move right.
+   * @param dy the pixels to move down.
+   * @return true if the view changed.
+   */
+  boolean panBy(double dx, double dy) {
+    double x = this.offsetX;
+    double y = this.offsetY;
+    this.offsetX += dx;
+    this.offsetY += dy;
+    this.clamp();
+    return x != this.offsetX || y != this.offsetY;
+  }
+
+  /**
+   * Shows the whole board again.
+   */
+  void reset() {
+    this.scale = 1.0;
+    this.offsetX = 0.0;
+    this.offsetY = 0.0;
+  }
+
+  double toWorldX(double x) {
+    return (x - this.offsetX) / this.scale;
+  }
+
+  double toWorldY(double y) {
+    return (y - this.offsetY) / this.scale;
+  }
+
+  /**
+   * Gets the transform from layout pixels to screen pixels.
+   *
+   * @return a new transform.
+   */
+  AffineTransform getTransform() {
+    AffineTransform transform = AffineTransform.getTranslateInstance(this.offsetX, this.offsetY);
+    transform.scale(this.scale, this.scale);
+    return transform;
+  }
+
+  /**
+   * Finds the screen pixels covering a rectangle of layout pixels.
+   *
+   * @param world the rectangle in layout pixels.
+   * @return the smallest rectangle of whole screen pixels around it.
+   */
+  Rectangle toScreen(Rectangle world) {
+    int x0 = (int) Math.floor(world.x * this.scale + this.offsetX);
+    int y0 = (int) Math.floor(world.y * this.scale + this.offsetY);
+    int x1 = (int) Math.ceil((world.x + world.width) * this.scale + this.offsetX);
+    int y1 = (int) Math.ceil((world.y + world.height) * this.scale + this.offsetY);
+    return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+  }
+
+  /**
+   * Keeps the scaled layout over the whole panel.
+   */
+  private void clamp() {
+    this.offsetX = Math.max(this.width - this.width * this.scale, Math.min(0.0, this.offsetX));
+    this.offsetY = Math.max(this.height - this.height * this.scale, Math.min(0.0, this.offsetY));
+  }
+}